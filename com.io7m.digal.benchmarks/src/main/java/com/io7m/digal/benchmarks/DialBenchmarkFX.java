@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.benchmarks;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Functions to start the JavaFX toolkit for benchmarks.
+ */
+
+public final class DialBenchmarkFX
+{
+  /**
+   * The JVM arguments required to run benchmarks without a display.
+   */
+
+  public static final String[] HEADLESS_JVM_ARGUMENTS = {
+    "-Dglass.platform=Monocle",
+    "-Dmonocle.platform=Headless",
+    "-Dprism.order=sw",
+    "-Dprism.text=t2k",
+    "-Djava.awt.headless=true",
+  };
+
+  private static boolean STARTED;
+
+  private DialBenchmarkFX()
+  {
+
+  }
+
+  /**
+   * Start the JavaFX toolkit if it is not already running.
+   *
+   * @throws InterruptedException On interruption
+   */
+
+  public static synchronized void start()
+    throws InterruptedException
+  {
+    if (STARTED) {
+      return;
+    }
+
+    final var latch = new CountDownLatch(1);
+    Platform.startup(latch::countDown);
+    Platform.setImplicitExit(false);
+    if (!latch.await(30L, TimeUnit.SECONDS)) {
+      throw new IllegalStateException("JavaFX toolkit failed to start.");
+    }
+    STARTED = true;
+  }
+}
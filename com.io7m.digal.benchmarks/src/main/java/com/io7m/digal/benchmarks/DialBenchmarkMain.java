@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The main benchmark entry point. All benchmarks are executed with the GC
+ * profiler enabled so that allocation rates are reported alongside the
+ * timings. Any standard JMH command-line options may be given.
+ */
+
+public final class DialBenchmarkMain
+{
+  private DialBenchmarkMain()
+  {
+
+  }
+
+  /**
+   * The main entry point.
+   *
+   * @param args The command-line arguments
+   *
+   * @throws RunnerException            On errors
+   * @throws CommandLineOptionException On command-line errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws RunnerException, CommandLineOptionException
+  {
+    final var options =
+      new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .include("com\\.io7m\\.digal\\.benchmarks\\..*")
+        .addProfiler(GCProfiler.class)
+        .jvmArgsAppend(DialBenchmarkFX.HEADLESS_JVM_ARGUMENTS)
+        .build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.benchmarks;
+
+import com.io7m.digal.model.DialBoundedDoubleConverter;
+import com.io7m.digal.model.DialBoundedDoubleSnappingConverter;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import com.io7m.digal.model.DialIdentityConverter;
+import com.io7m.digal.model.DialMemoizingDiscreteConverter;
+import com.io7m.digal.model.DialMemoizingRealConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for each of the value converters. Each invocation converts one
+ * value from a fixed table of inputs in each direction.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DialConverterBenchmark
+{
+  private static final int INPUTS = 1024;
+
+  private DialIdentityConverter identity;
+  private DialBoundedDoubleConverter boundedDouble;
+  private DialBoundedDoubleSnappingConverter boundedDoubleSnapping;
+  private DialBoundedLongConverter boundedLong;
+  private DialMemoizingRealConverter memoizingReal;
+  private DialMemoizingDiscreteConverter memoizingDiscrete;
+  private double[] dialInputs;
+  private double[] realInputs;
+  private long[] discreteInputs;
+  private int index;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public DialConverterBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the converters and input tables.
+   */
+
+  @Setup
+  public void setup()
+  {
+    this.identity =
+      new DialIdentityConverter();
+    this.boundedDouble =
+      new DialBoundedDoubleConverter(-100.0, 100.0, 1.0);
+    this.boundedDoubleSnapping =
+      new DialBoundedDoubleSnappingConverter(-100.0, 100.0, 0.5);
+    this.boundedLong =
+      new DialBoundedLongConverter(-100L, 100L, 1L);
+    this.memoizingReal =
+      new DialMemoizingRealConverter(this.boundedDoubleSnapping);
+    this.memoizingDiscrete =
+      new DialMemoizingDiscreteConverter(this.boundedLong);
+
+    this.dialInputs = new double[INPUTS];
+    this.realInputs = new double[INPUTS];
+    this.discreteInputs = new long[INPUTS];
+    for (int i = 0; i < INPUTS; ++i) {
+      final var x = (double) i / (double) (INPUTS - 1);
+      this.dialInputs[i] = x;
+      this.realInputs[i] = (x * 200.0) - 100.0;
+      this.discreteInputs[i] = Math.round((x * 200.0) - 100.0);
+    }
+  }
+
+  private int next()
+  {
+    final var i = this.index;
+    this.index = (i + 1) & (INPUTS - 1);
+    return i;
+  }
+
+  /**
+   * @param bh The blackhole
+   */
+
+  @Benchmark
+  public void identity(
+    final Blackhole bh)
+  {
+    final var i = this.next();
+    bh.consume(this.identity.convertFromDial(this.dialInputs[i]));
+    bh.consume(this.identity.convertToDial(this.dialInputs[i]));
+  }
+
+  /**
+   * @param bh The blackhole
+   */
+
+  @Benchmark
+  public void boundedDouble(
+    final Blackhole bh)
+  {
+    final var i = this.next();
+    bh.consume(this.boundedDouble.convertFromDial(this.dialInputs[i]));
+    bh.consume(this.boundedDouble.convertToDial(this.realInputs[i]));
+  }
+
+  /**
+   * @param bh The blackhole
+   */
+
+  @Benchmark
+  public void boundedDoubleSnapping(
+    final Blackhole bh)
+  {
+    final var i = this.next();
+    bh.consume(this.boundedDoubleSnapping.convertFromDial(this.dialInputs[i]));
+    bh.consume(this.boundedDoubleSnapping.convertToDial(this.realInputs[i]));
+  }
+
+  /**
+   * @param bh The blackhole
+   */
+
+  @Benchmark
+  public void boundedLong(
+    final Blackhole bh)
+  {
+    final var i = this.next();
+    bh.consume(this.boundedLong.convertFromDial(this.dialInputs[i]));
+    bh.consume(this.boundedLong.convertToDial(this.discreteInputs[i]));
+  }
+
+  /**
+   * @param bh The blackhole
+   */
+
+  @Benchmark
+  public void memoizingReal(
+    final Blackhole bh)
+  {
+    final var i = this.next();
+    bh.consume(this.memoizingReal.convertFromDial(this.dialInputs[i]));
+    bh.consume(this.memoizingReal.convertToDial(this.realInputs[i]));
+  }
+
+  /**
+   * @param bh The blackhole
+   */
+
+  @Benchmark
+  public void memoizingDiscrete(
+    final Blackhole bh)
+  {
+    final var i = this.next();
+    bh.consume(this.memoizingDiscrete.convertFromDial(this.dialInputs[i]));
+    bh.consume(this.memoizingDiscrete.convertToDial(this.discreteInputs[i]));
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.benchmarks;
+
+import com.io7m.digal.core.DialControl;
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for mouse drag and scroll processing. Events are dispatched to
+ * the dial's canvas in the same way that the JavaFX toolkit dispatches
+ * input events, and alternate in direction so that the dial value changes on
+ * every invocation.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DialInputBenchmark
+{
+  private DialControl dial;
+  private Node target;
+  private MouseEvent dragUp;
+  private MouseEvent dragDown;
+  private ScrollEvent scrollUp;
+  private ScrollEvent scrollDown;
+  private boolean flip;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public DialInputBenchmark()
+  {
+
+  }
+
+  private static MouseEvent mouseEvent(
+    final EventType<MouseEvent> type,
+    final double y)
+  {
+    return new MouseEvent(
+      type,
+      32.0,
+      y,
+      32.0,
+      y,
+      MouseButton.PRIMARY,
+      1,
+      false,
+      false,
+      false,
+      false,
+      true,
+      false,
+      false,
+      false,
+      false,
+      false,
+      null
+    );
+  }
+
+  private static ScrollEvent scrollEvent(
+    final double deltaY)
+  {
+    return new ScrollEvent(
+      ScrollEvent.SCROLL,
+      32.0,
+      32.0,
+      32.0,
+      32.0,
+      false,
+      false,
+      false,
+      false,
+      false,
+      false,
+      0.0,
+      deltaY,
+      0.0,
+      deltaY,
+      ScrollEvent.HorizontalTextScrollUnits.NONE,
+      0.0,
+      ScrollEvent.VerticalTextScrollUnits.NONE,
+      0.0,
+      0,
+      null
+    );
+  }
+
+  /**
+   * Set up the dial.
+   *
+   * @throws Exception On errors
+   */
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    DialBenchmarkFX.start();
+
+    this.dial = new DialControl();
+    this.dial.resize(64.0, 64.0);
+    this.dial.setTickCount(12);
+    this.dial.setRawValue(0.5);
+    this.target = this.dial.getChildrenUnmodifiable().get(0);
+
+    this.dragUp = mouseEvent(MouseEvent.MOUSE_DRAGGED, 0.0);
+    this.dragDown = mouseEvent(MouseEvent.MOUSE_DRAGGED, 10.0);
+    this.scrollUp = scrollEvent(10.0);
+    this.scrollDown = scrollEvent(-10.0);
+
+    Event.fireEvent(
+      this.target,
+      mouseEvent(MouseEvent.MOUSE_PRESSED, 10.0)
+    );
+  }
+
+  /**
+   * Process a mouse drag event.
+   */
+
+  @Benchmark
+  public void mouseDragged()
+  {
+    this.flip = !this.flip;
+    if (this.flip) {
+      Event.fireEvent(this.target, this.dragUp);
+    } else {
+      Event.fireEvent(this.target, this.dragDown);
+    }
+  }
+
+  /**
+   * Process a mouse scroll event.
+   */
+
+  @Benchmark
+  public void mouseScrolled()
+  {
+    this.flip = !this.flip;
+    if (this.flip) {
+      Event.fireEvent(this.target, this.scrollUp);
+    } else {
+      Event.fireEvent(this.target, this.scrollDown);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.benchmarks;
+
+import com.io7m.digal.core.DialControl;
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for dial redraws. A redraw is provoked on each invocation by
+ * alternating the dial body color, which changes nothing else about the
+ * dial. The dial is not attached to a scene, so this measures the cost of
+ * issuing the canvas drawing commands on the FX thread rather than the cost
+ * of rasterizing them.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DialRedrawBenchmark
+{
+  private static final Color COLOR_0 = Color.gray(0.4);
+  private static final Color COLOR_1 = Color.gray(0.5);
+
+  /**
+   * The size of the dial.
+   */
+
+  @Param({"32", "128", "512"})
+  public int size;
+
+  /**
+   * The number of tick marks.
+   */
+
+  @Param({"2", "24", "270"})
+  public int ticks;
+
+  private DialControl dial;
+  private boolean flip;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public DialRedrawBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the dial.
+   *
+   * @throws Exception On errors
+   */
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    DialBenchmarkFX.start();
+
+    this.dial = new DialControl();
+    this.dial.resize((double) this.size, (double) this.size);
+    this.dial.setTickCount(this.ticks);
+    this.dial.setRawValue(0.5);
+  }
+
+  /**
+   * Redraw the dial.
+   */
+
+  @Benchmark
+  public void redraw()
+  {
+    this.flip = !this.flip;
+    if (this.flip) {
+      this.dial.dialBodyColor().set(COLOR_1);
+    } else {
+      this.dial.dialBodyColor().set(COLOR_0);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.benchmarks;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the value listener cascade triggered by setting dial values.
+ * Each invocation sets a different value so that every listener in the
+ * cascade (conversion, redraw, and any registered observers) runs.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DialValueBenchmark
+{
+  private static final int INPUTS = 256;
+
+  /**
+   * The number of change listeners attached to the converted value.
+   */
+
+  @Param({"0", "1", "8"})
+  public int listeners;
+
+  /**
+   * The size of the dial.
+   */
+
+  @Param({"64"})
+  public int size;
+
+  private DialControl dial;
+  private double[] rawInputs;
+  private double[] convertedInputs;
+  private int index;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public DialValueBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the dial.
+   *
+   * @param bh The blackhole
+   *
+   * @throws Exception On errors
+   */
+
+  @Setup
+  public void setup(
+    final Blackhole bh)
+    throws Exception
+  {
+    DialBenchmarkFX.start();
+
+    this.dial = new DialControl();
+    this.dial.resize((double) this.size, (double) this.size);
+    this.dial.setTickCount(12);
+    this.dial.setValueConverter(new DialBoundedLongConverter(0L, 100L, 1L));
+
+    for (int i = 0; i < this.listeners; ++i) {
+      this.dial.convertedValue()
+        .addListener((o, x, y) -> bh.consume(y));
+    }
+
+    this.rawInputs = new double[INPUTS];
+    this.convertedInputs = new double[INPUTS];
+    for (int i = 0; i < INPUTS; ++i) {
+      final var x = (double) i / (double) (INPUTS - 1);
+      this.rawInputs[i] = x;
+      this.convertedInputs[i] = (double) Math.round(x * 100.0);
+    }
+  }
+
+  private int next()
+  {
+    final var i = this.index;
+    this.index = (i + 1) & (INPUTS - 1);
+    return i;
+  }
+
+  /**
+   * Set the raw value, notifying observers.
+   */
+
+  @Benchmark
+  public void setRawValue()
+  {
+    this.dial.setRawValue(this.rawInputs[this.next()]);
+  }
+
+  /**
+   * Set the raw value without notifying observers.
+   */
+
+  @Benchmark
+  public void setRawValueQuietly()
+  {
+    this.dial.setRawValueQuietly(this.rawInputs[this.next()]);
+  }
+
+  /**
+   * Set the converted value, notifying observers.
+   */
+
+  @Benchmark
+  public void setConvertedValue()
+  {
+    this.dial.setConvertedValue(this.convertedInputs[this.next()]);
+  }
+
+  /**
+   * Set the converted value without notifying observers.
+   */
+
+  @Benchmark
+  public void setConvertedValueQuietly()
+  {
+    this.dial.setConvertedValueQuietly(this.convertedInputs[this.next()]);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+/**
+ * <p>Definitions for the automation stream format.</p>
+ *
+ * <p>An automation stream consists of a header followed by a sequence of
+ * events, one for each recorded value change. The header consists of the
+ * 64-bit big-endian magic number {@link #MAGIC}, the 32-bit big-endian
+ * format version {@link #VERSION}, and the number of recorded dials as an
+ * unsigned varint.</p>
+ *
+ * <p>Each event consists of three varints: the time in microseconds since
+ * the previous event, the index of the dial, and the zigzag-encoded
+ * difference between the dial's new value and its previous value. Values
+ * are quantized to {@link #QUANTUM} steps across the range {@code [0,1]};
+ * the previous value of every dial is initially zero. Varints are encoded
+ * as described by {@link DialVarints}.</p>
+ */
+
+final class DialAutomationFormat
+{
+  static final long MAGIC = 0x4449_4741_4C41_5554L;
+  static final int VERSION = 1;
+  static final long QUANTUM = 1L << 30;
+  static final int EVENT_SIZE_MAXIMUM = 30;
+
+  private DialAutomationFormat()
+  {
+
+  }
+
+  static long quantize(
+    final double x)
+  {
+    return Math.round(Math.min(Math.max(0.0, x), 1.0) * (double) QUANTUM);
+  }
+
+  static double dequantize(
+    final long q)
+  {
+    return (double) q / (double) QUANTUM;
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javafx.animation.AnimationTimer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>A player of recordings made with {@link DialAutomationRecorder}.</p>
+ *
+ * <p>Playback is scheduled on the JavaFX pulse: on each frame, all of the
+ * events that have become due since the previous frame are applied to the
+ * dials as a single {@link DialBatch}. Recordings are streamed from
+ * memory-mapped windows of the file and are never loaded into memory in
+ * their entirety.</p>
+ *
+ * <p>Players must be used on the FX application thread.</p>
+ */
+
+public final class DialAutomationPlayer implements Closeable
+{
+  /**
+   * The default size of the memory-mapped windows.
+   */
+
+  public static final int DEFAULT_WINDOW_SIZE = 16 * 1024 * 1024;
+
+  private final DialAutomationReader reader;
+  private final List<DialControl> dials;
+  private final DialBatch batch;
+  private final CompletableFuture<Void> finished;
+  private final AnimationTimer timer;
+  private boolean eventPending;
+  private boolean timeStarted;
+  private long timeStart;
+  private long elapsedMicros;
+
+  private DialAutomationPlayer(
+    final DialAutomationReader inReader,
+    final List<DialControl> inDials)
+  {
+    this.reader = inReader;
+    this.dials = List.copyOf(inDials);
+    this.batch = new DialBatch(this.dials.size());
+    this.finished = new CompletableFuture<>();
+    this.timer = new AnimationTimer()
+    {
+      @Override
+      public void handle(
+        final long now)
+      {
+        DialAutomationPlayer.this.onFrame(now);
+      }
+    };
+  }
+
+  /**
+   * Open a recording for playback. The dial at index {@code i} of the list
+   * receives the values recorded for dial {@code i}. Events for dials that
+   * do not have a corresponding element in the list are ignored.
+   *
+   * @param file  The recording
+   * @param dials The dials
+   *
+   * @return A player
+   *
+   * @throws IOException On I/O errors, or if the file is not a recording
+   */
+
+  public static DialAutomationPlayer open(
+    final Path file,
+    final List<DialControl> dials)
+    throws IOException
+  {
+    return open(file, dials, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Open a recording for playback.
+   *
+   * @param file       The recording
+   * @param dials      The dials
+   * @param windowSize The size in bytes of the memory-mapped windows
+   *
+   * @return A player
+   *
+   * @throws IOException On I/O errors, or if the file is not a recording
+   * @see #open(Path, List)
+   */
+
+  public static DialAutomationPlayer open(
+    final Path file,
+    final List<DialControl> dials,
+    final int windowSize)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(dials, "dials");
+    return new DialAutomationPlayer(
+      new DialAutomationReader(file, windowSize), dials);
+  }
+
+  /**
+   * Start, or resume, playback. Time spent paused is not skipped.
+   */
+
+  public void play()
+  {
+    if (!this.finished.isDone()) {
+      this.timer.start();
+    }
+  }
+
+  /**
+   * Pause playback.
+   */
+
+  public void pause()
+  {
+    this.timer.stop();
+    this.timeStarted = false;
+  }
+
+  /**
+   * @return A future that is completed when playback has finished, or
+   * completed exceptionally if the recording could not be read
+   */
+
+  public CompletableFuture<Void> finished()
+  {
+    return this.finished;
+  }
+
+  private void onFrame(
+    final long now)
+  {
+    if (!this.timeStarted) {
+      this.timeStart = now - (this.elapsedMicros * 1_000L);
+      this.timeStarted = true;
+    }
+
+    final var elapsed = (now - this.timeStart) / 1_000L;
+    this.elapsedMicros = elapsed;
+    try {
+      while (true) {
+        if (!this.eventPending) {
+          if (!this.reader.next()) {
+            this.batch.apply();
+            this.finish(null);
+            return;
+          }
+          this.eventPending = true;
+        }
+
+        if (this.reader.timeMicros() > elapsed) {
+          break;
+        }
+
+        final var index = this.reader.dialIndex();
+        if (index < this.dials.size()) {
+          this.batch.setRawValue(this.dials.get(index), this.reader.value());
+        }
+        this.eventPending = false;
+      }
+    } catch (final IOException e) {
+      this.batch.clear();
+      this.finish(e);
+      return;
+    }
+
+    this.batch.apply();
+  }
+
+  private void finish(
+    final IOException e)
+  {
+    this.timer.stop();
+    if (e == null) {
+      this.finished.complete(null);
+    } else {
+      this.finished.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Stop playback and close the recording.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    this.timer.stop();
+    this.finished.complete(null);
+    this.reader.close();
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.io7m.digal.core.DialAutomationFormat.EVENT_SIZE_MAXIMUM;
+import static com.io7m.digal.core.DialAutomationFormat.dequantize;
+import static com.io7m.digal.core.DialVarints.readVarint;
+import static com.io7m.digal.core.DialVarints.zigzagDecode;
+
+/**
+ * A reader of automation streams. The file is mapped into memory in
+ * fixed-size windows that are replaced as the reader advances, so files
+ * of any size can be read without loading them into memory.
+ */
+
+final class DialAutomationReader implements Closeable
+{
+  private final FileChannel channel;
+  private final long fileSize;
+  private final int windowSize;
+  private final long[] previous;
+  private MappedByteBuffer window;
+  private long windowBase;
+  private long timeMicros;
+  private int dialIndex;
+  private double value;
+
+  DialAutomationReader(
+    final Path file,
+    final int inWindowSize)
+    throws IOException
+  {
+    if (inWindowSize < EVENT_SIZE_MAXIMUM * 2) {
+      throw new IllegalArgumentException(
+        "Window size %d must be at least %d"
+          .formatted(
+            Integer.valueOf(inWindowSize),
+            Integer.valueOf(EVENT_SIZE_MAXIMUM * 2))
+      );
+    }
+
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      this.fileSize = this.channel.size();
+      this.windowSize = inWindowSize;
+      this.map(0L);
+
+      if (this.window.remaining() < 12) {
+        throw new IOException("Truncated automation header.");
+      }
+
+      final var magic = this.window.getLong();
+      if (magic != DialAutomationFormat.MAGIC) {
+        throw new IOException(
+          "Unrecognized automation magic number 0x%016x".formatted(
+            Long.valueOf(magic))
+        );
+      }
+      final var version = this.window.getInt();
+      if (version != DialAutomationFormat.VERSION) {
+        throw new IOException(
+          "Unsupported automation format version %d".formatted(
+            Integer.valueOf(version))
+        );
+      }
+
+      final var count = readVarint(this.window);
+      if (count < 0L || count > (long) Integer.MAX_VALUE) {
+        throw new IOException(
+          "Unusable dial count %d".formatted(Long.valueOf(count))
+        );
+      }
+      this.previous = new long[(int) count];
+    } catch (final IOException e) {
+      this.channel.close();
+      throw e;
+    }
+  }
+
+  private void map(
+    final long base)
+    throws IOException
+  {
+    final var length =
+      Math.min((long) this.windowSize, this.fileSize - base);
+    this.window =
+      this.channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+    this.windowBase = base;
+  }
+
+  /**
+   * @return The number of dials in the recording
+   */
+
+  int dialCount()
+  {
+    return this.previous.length;
+  }
+
+  /**
+   * Read the next event.
+   *
+   * @return {@code false} if there are no more events
+   *
+   * @throws IOException On I/O errors or malformed input
+   */
+
+  boolean next()
+    throws IOException
+  {
+    final var position = this.windowBase + (long) this.window.position();
+    if (position >= this.fileSize) {
+      return false;
+    }
+    if (this.window.remaining() < EVENT_SIZE_MAXIMUM) {
+      this.map(position);
+    }
+
+    final var timeDelta = readVarint(this.window);
+    final var index = readVarint(this.window);
+    final var valueDelta = zigzagDecode(readVarint(this.window));
+
+    if (timeDelta < 0L || index < 0L || index >= (long) this.previous.length) {
+      throw new IOException(
+        "Malformed automation event at offset %d".formatted(
+          Long.valueOf(position))
+      );
+    }
+
+    final var i = (int) index;
+    this.previous[i] += valueDelta;
+    this.timeMicros += timeDelta;
+    this.dialIndex = i;
+    this.value = dequantize(this.previous[i]);
+    return true;
+  }
+
+  /**
+   * @return The time of the current event in microseconds since the start
+   * of the recording
+   */
+
+  long timeMicros()
+  {
+    return this.timeMicros;
+  }
+
+  /**
+   * @return The index of the dial for the current event
+   */
+
+  int dialIndex()
+  {
+    return this.dialIndex;
+  }
+
+  /**
+   * @return The raw dial value for the current event
+   */
+
+  double value()
+  {
+    return this.value;
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    this.window = null;
+    this.channel.close();
+  }
+}
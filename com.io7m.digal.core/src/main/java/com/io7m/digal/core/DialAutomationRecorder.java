@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javafx.beans.InvalidationListener;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.digal.core.DialAutomationFormat.quantize;
+import static com.io7m.digal.core.DialVarints.writeVarint;
+import static com.io7m.digal.core.DialVarints.zigzagEncode;
+
+/**
+ * <p>A recorder of dial value changes.</p>
+ *
+ * <p>The recorder observes the {@link DialControl#rawValue()} property of
+ * each of a list of dials, and writes a timestamped event to a compact,
+ * delta-encoded binary stream each time a value changes. The initial values
+ * of all dials are recorded when recording begins. Recordings can be played
+ * back with {@link DialAutomationPlayer}.</p>
+ *
+ * <p>Recorders must be created and closed on the FX application thread.</p>
+ */
+
+public final class DialAutomationRecorder implements Closeable
+{
+  private final List<DialControl> dials;
+  private final InvalidationListener[] listeners;
+  private final long[] previous;
+  private final DataOutputStream output;
+  private final long timeStart;
+  private long timeThen;
+  private IOException error;
+  private boolean closed;
+
+  private DialAutomationRecorder(
+    final List<DialControl> inDials,
+    final DataOutputStream inOutput)
+    throws IOException
+  {
+    this.dials = List.copyOf(inDials);
+    this.output = inOutput;
+    this.previous = new long[this.dials.size()];
+    this.listeners = new InvalidationListener[this.dials.size()];
+    this.timeStart = System.nanoTime();
+
+    this.output.writeLong(DialAutomationFormat.MAGIC);
+    this.output.writeInt(DialAutomationFormat.VERSION);
+    writeVarint(this.output, this.dials.size());
+
+    for (int index = 0; index < this.listeners.length; ++index) {
+      final var dial = this.dials.get(index);
+      final var dialIndex = index;
+      this.writeEvent(dialIndex, dial.rawValue().get());
+      this.listeners[index] = o -> this.onValueChanged(dialIndex);
+      dial.rawValue().addListener(this.listeners[index]);
+    }
+  }
+
+  /**
+   * Start recording the given dials into a file. The file is created if it
+   * does not exist, and truncated if it does.
+   *
+   * @param file  The output file
+   * @param dials The dials
+   *
+   * @return A recorder
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static DialAutomationRecorder create(
+    final Path file,
+    final List<DialControl> dials)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(dials, "dials");
+
+    final var output =
+      new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file), 65536)
+      );
+
+    try {
+      return new DialAutomationRecorder(dials, output);
+    } catch (final IOException e) {
+      output.close();
+      throw e;
+    }
+  }
+
+  private void onValueChanged(
+    final int index)
+  {
+    final var value = this.dials.get(index).rawValue().get();
+    if (this.error != null) {
+      return;
+    }
+
+    try {
+      this.writeEvent(index, value);
+    } catch (final IOException e) {
+      this.error = e;
+    }
+  }
+
+  private void writeEvent(
+    final int index,
+    final double value)
+    throws IOException
+  {
+    final var timeNow =
+      (System.nanoTime() - this.timeStart) / 1_000L;
+    final var quantized =
+      quantize(value);
+
+    writeVarint(this.output, timeNow - this.timeThen);
+    writeVarint(this.output, index);
+    writeVarint(this.output, zigzagEncode(quantized - this.previous[index]));
+
+    this.timeThen = timeNow;
+    this.previous[index] = quantized;
+  }
+
+  /**
+   * Stop recording and close the output. If an I/O error occurred during
+   * recording, recording stopped at that point and the error is raised
+   * here.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+
+    for (int index = 0; index < this.listeners.length; ++index) {
+      this.dials.get(index).rawValue().removeListener(this.listeners[index]);
+    }
+
+    try {
+      this.output.close();
+    } catch (final IOException e) {
+      if (this.error == null) {
+        this.error = e;
+      } else {
+        this.error.addSuppressed(e);
+      }
+    }
+
+    if (this.error != null) {
+      throw this.error;
+    }
+  }
+}
@@ -0,0 +1,637 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialModel;
+import com.io7m.digal.model.DialModelChange;
+import javafx.application.Platform;
+import javafx.css.CssMetaData;
+import javafx.css.SimpleStyleableObjectProperty;
+import javafx.css.Styleable;
+import javafx.css.StyleableProperty;
+import javafx.css.StyleablePropertyFactory;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Scene;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.util.Callback;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * <p>A read-only grid of dials rendered in software.</p>
+ *
+ * <p>A bank displays a grid of {@code columns * rows} dials, each of which
+ * is a square cell of {@code cellSize} pixels and displays the value of its
+ * own {@link DialModel}. Rather than drawing each dial onto its own canvas
+ * on the FX application thread, a bank treats each cell as a tile of a
+ * single image. On each pulse, the tiles whose models have changed are
+ * rasterized in parallel on a {@link ForkJoinPool}, and once they are
+ * complete, only those tiles are handed to a {@link PixelBuffer} that backs
+ * the displayed image. The FX application thread only collects the changed
+ * values and presents the finished tiles, and so very large panels of dials
+ * can be redrawn at a rate that scales with the number of available
+ * cores.</p>
+ *
+ * <p>Dials in a bank are styled with the same CSS properties as
+ * {@link DialControl} (such as {@code dial-radial-gauge-color}), which
+ * apply to every dial in the bank. Dials in a bank cannot be manipulated
+ * with the mouse. Models must be modified on the FX application
+ * thread.</p>
+ */
+
+public final class DialBank extends Region
+{
+  private static final int DEFAULT_TICK_COUNT = 2;
+
+  private static final StyleablePropertyFactory<DialBank> CSS_FACTORY =
+    new StyleablePropertyFactory<>(Region.getClassCssMetaData());
+
+  private static final CssMetaData<DialBank, Color> CSS_DIAL_TICK_COLOR =
+    color("dial-tick-color", s -> s.tickColor, Color.gray(0.0, 0.5));
+  private static final CssMetaData<DialBank, Number> CSS_DIAL_TICK_SIZE =
+    size("dial-tick-size", s -> s.tickSize, 0.5);
+  private static final CssMetaData<DialBank, Color> CSS_DIAL_SHADE_COLOR =
+    color("dial-shade-color", s -> s.shadeColor, Color.gray(0.0, 0.125));
+  private static final CssMetaData<DialBank, Color> CSS_DIAL_EMBOSS_COLOR =
+    color("dial-emboss-color", s -> s.embossColor, Color.gray(1.0, 0.25));
+  private static final CssMetaData<DialBank, Number> CSS_DIAL_EMBOSS_SIZE =
+    size("dial-emboss-size", s -> s.embossSize, 3.0);
+  private static final CssMetaData<DialBank, Color> CSS_DIAL_RADIAL_GAUGE_COLOR =
+    color("dial-radial-gauge-color", s -> s.radialGaugeColor, Color.DEEPSKYBLUE);
+  private static final CssMetaData<DialBank, Number> CSS_DIAL_RADIAL_GAUGE_SIZE =
+    size("dial-radial-gauge-size", s -> s.radialGaugeSize, 4.0);
+  private static final CssMetaData<DialBank, Color> CSS_DIAL_INDICATOR_COLOR =
+    color("dial-indicator-color", s -> s.indicatorColor, Color.WHITE);
+  private static final CssMetaData<DialBank, Number> CSS_DIAL_INDICATOR_SIZE =
+    size("dial-indicator-size", s -> s.indicatorSize, 1.5);
+  private static final CssMetaData<DialBank, Color> CSS_DIAL_BODY_COLOR =
+    color("dial-body-color", s -> s.bodyColor, Color.gray(0.4, 1.0));
+  private static final CssMetaData<DialBank, Color> CSS_DIAL_BODY_STROKE_COLOR =
+    color("dial-body-stroke-color", s -> s.bodyStrokeColor, Color.gray(0.0, 1.0));
+  private static final CssMetaData<DialBank, Number> CSS_DIAL_BODY_STROKE_SIZE =
+    size("dial-body-stroke-size", s -> s.bodyStrokeSize, 1.0);
+
+  private static final List<CssMetaData<?, ?>> CSS_PROPERTIES =
+    List.of(
+      CSS_DIAL_BODY_COLOR,
+      CSS_DIAL_BODY_STROKE_COLOR,
+      CSS_DIAL_BODY_STROKE_SIZE,
+      CSS_DIAL_EMBOSS_COLOR,
+      CSS_DIAL_EMBOSS_SIZE,
+      CSS_DIAL_INDICATOR_COLOR,
+      CSS_DIAL_INDICATOR_SIZE,
+      CSS_DIAL_RADIAL_GAUGE_COLOR,
+      CSS_DIAL_RADIAL_GAUGE_SIZE,
+      CSS_DIAL_SHADE_COLOR,
+      CSS_DIAL_TICK_COLOR,
+      CSS_DIAL_TICK_SIZE
+    );
+
+  private final int columns;
+  private final int rows;
+  private final int cellSize;
+  private final ForkJoinPool pool;
+  private final List<DialModel> models;
+  private final boolean[] dirty;
+  private final int[] frameTiles;
+  private final double[] framePositions;
+  private final int[] staging;
+  private final IntBuffer buffer;
+  private final PixelBuffer<IntBuffer> pixels;
+  private final Callback<PixelBuffer<IntBuffer>, Rectangle2D> presenter;
+  private final Runnable pulseListener;
+  private final Runnable frameCompleted;
+  private volatile long tilesRasterized;
+  private volatile long framesPresented;
+  private final SimpleStyleableObjectProperty<Color> bodyColor;
+  private final SimpleStyleableObjectProperty<Color> bodyStrokeColor;
+  private final SimpleStyleableObjectProperty<Color> embossColor;
+  private final SimpleStyleableObjectProperty<Color> indicatorColor;
+  private final SimpleStyleableObjectProperty<Color> radialGaugeColor;
+  private final SimpleStyleableObjectProperty<Color> shadeColor;
+  private final SimpleStyleableObjectProperty<Color> tickColor;
+  private final SimpleStyleableObjectProperty<Number> bodyStrokeSize;
+  private final SimpleStyleableObjectProperty<Number> embossSize;
+  private final SimpleStyleableObjectProperty<Number> indicatorSize;
+  private final SimpleStyleableObjectProperty<Number> radialGaugeSize;
+  private final SimpleStyleableObjectProperty<Number> tickSize;
+  private DialRenderer.Style style;
+  private double[] palette;
+  private int tickCount;
+  private int frameTileCount;
+  private boolean frameInFlight;
+  private boolean dirtyAny;
+
+  /**
+   * Create a bank of dials rasterized on the common fork/join pool.
+   *
+   * @param inColumns  The number of columns
+   * @param inRows     The number of rows
+   * @param inCellSize The size of each dial in pixels
+   */
+
+  public DialBank(
+    final int inColumns,
+    final int inRows,
+    final int inCellSize)
+  {
+    this(inColumns, inRows, inCellSize, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Create a bank of dials.
+   *
+   * @param inColumns  The number of columns
+   * @param inRows     The number of rows
+   * @param inCellSize The size of each dial in pixels
+   * @param inPool     The pool on which tiles are rasterized
+   */
+
+  public DialBank(
+    final int inColumns,
+    final int inRows,
+    final int inCellSize,
+    final ForkJoinPool inPool)
+  {
+    this.columns = checkPositive(inColumns, "Column count");
+    this.rows = checkPositive(inRows, "Row count");
+    this.cellSize = checkPositive(inCellSize, "Cell size");
+    this.pool = Objects.requireNonNull(inPool, "pool");
+
+    final var width = Math.multiplyExact(this.columns, this.cellSize);
+    final var height = Math.multiplyExact(this.rows, this.cellSize);
+    final var count = Math.multiplyExact(this.columns, this.rows);
+
+    this.dirty = new boolean[count];
+    this.frameTiles = new int[count];
+    this.framePositions = new double[count];
+    this.staging = new int[Math.multiplyExact(width, height)];
+    this.buffer = IntBuffer.allocate(this.staging.length);
+    this.pixels = new PixelBuffer<>(
+      width, height, this.buffer, PixelFormat.getIntArgbPreInstance()
+    );
+    this.presenter = this::present;
+    this.pulseListener = this::onPulse;
+    this.frameCompleted = this::onFrameCompleted;
+    this.tickCount = DEFAULT_TICK_COUNT;
+
+    this.bodyColor = this.propertyOf(CSS_DIAL_BODY_COLOR);
+    this.bodyStrokeColor = this.propertyOf(CSS_DIAL_BODY_STROKE_COLOR);
+    this.bodyStrokeSize = this.propertyOf(CSS_DIAL_BODY_STROKE_SIZE);
+    this.embossColor = this.propertyOf(CSS_DIAL_EMBOSS_COLOR);
+    this.embossSize = this.propertyOf(CSS_DIAL_EMBOSS_SIZE);
+    this.indicatorColor = this.propertyOf(CSS_DIAL_INDICATOR_COLOR);
+    this.indicatorSize = this.propertyOf(CSS_DIAL_INDICATOR_SIZE);
+    this.radialGaugeColor = this.propertyOf(CSS_DIAL_RADIAL_GAUGE_COLOR);
+    this.radialGaugeSize = this.propertyOf(CSS_DIAL_RADIAL_GAUGE_SIZE);
+    this.shadeColor = this.propertyOf(CSS_DIAL_SHADE_COLOR);
+    this.tickColor = this.propertyOf(CSS_DIAL_TICK_COLOR);
+    this.tickSize = this.propertyOf(CSS_DIAL_TICK_SIZE);
+    this.updateStyle();
+
+    final var modelList = new ArrayList<DialModel>(count);
+    for (int index = 0; index < count; ++index) {
+      final var model = new DialModel();
+      final var tile = index;
+      model.addListener((m, change) -> this.onModelChanged(tile, change));
+      modelList.add(model);
+    }
+    this.models = List.copyOf(modelList);
+    this.invalidateAll();
+
+    this.getChildren().add(new ImageView(new WritableImage(this.pixels)));
+    this.setMinSize(width, height);
+    this.setPrefSize(width, height);
+    this.setMaxSize(width, height);
+
+    this.sceneProperty()
+      .addListener((o, sceneOld, sceneNew) -> {
+        this.onSceneChanged(sceneOld, sceneNew);
+      });
+  }
+
+  private static int checkPositive(
+    final int value,
+    final String name)
+  {
+    if (value <= 0) {
+      throw new IllegalArgumentException(
+        "%s %d must be positive".formatted(name, Integer.valueOf(value))
+      );
+    }
+    return value;
+  }
+
+  private static CssMetaData<DialBank, Color> color(
+    final String name,
+    final Function<DialBank, StyleableProperty<Color>> property,
+    final Color initial)
+  {
+    return CSS_FACTORY.createColorCssMetaData(name, property, initial, false);
+  }
+
+  private static CssMetaData<DialBank, Number> size(
+    final String name,
+    final Function<DialBank, StyleableProperty<Number>> property,
+    final double initial)
+  {
+    return CSS_FACTORY.createSizeCssMetaData(
+      name, property, Double.valueOf(initial), false);
+  }
+
+  private <T> SimpleStyleableObjectProperty<T> propertyOf(
+    final CssMetaData<DialBank, T> metadata)
+  {
+    final var prop =
+      new SimpleStyleableObjectProperty<>(metadata, this, metadata.getProperty());
+    prop.setValue(metadata.getInitialValue(this));
+    prop.addListener(o -> this.onStyleChanged());
+    return prop;
+  }
+
+  /*
+   * Frames that are in flight retain the style and palette with which they
+   * were started, and so a style change replaces both rather than modifying
+   * them.
+   */
+
+  private void onStyleChanged()
+  {
+    this.updateStyle();
+    this.invalidateAll();
+  }
+
+  private void updateStyle()
+  {
+    this.style = new DialRenderer.Style(
+      Objects.requireNonNull(this.bodyColor.getValue(), "bodyColor"),
+      Objects.requireNonNull(this.bodyStrokeColor.getValue(), "bodyStrokeColor"),
+      Objects.requireNonNull(this.embossColor.getValue(), "embossColor"),
+      Objects.requireNonNull(this.indicatorColor.getValue(), "indicatorColor"),
+      Objects.requireNonNull(this.radialGaugeColor.getValue(), "radialGaugeColor"),
+      Objects.requireNonNull(this.shadeColor.getValue(), "shadeColor"),
+      Objects.requireNonNull(this.tickColor.getValue(), "tickColor"),
+      Objects.requireNonNull(this.bodyStrokeSize.getValue(), "bodyStrokeSize")
+        .doubleValue(),
+      Objects.requireNonNull(this.embossSize.getValue(), "embossSize")
+        .doubleValue(),
+      Objects.requireNonNull(this.indicatorSize.getValue(), "indicatorSize")
+        .doubleValue(),
+      Objects.requireNonNull(this.radialGaugeSize.getValue(), "radialGaugeSize")
+        .doubleValue(),
+      Objects.requireNonNull(this.tickSize.getValue(), "tickSize")
+        .doubleValue()
+    );
+    this.palette = DialBankRasterizer.paletteOf(this.style);
+  }
+
+  @Override
+  public List<CssMetaData<? extends Styleable, ?>> getCssMetaData()
+  {
+    final var rs = new ArrayList<>(getClassCssMetaData());
+    rs.addAll(CSS_PROPERTIES);
+    return rs;
+  }
+
+  /**
+   * @return The number of columns
+   */
+
+  public int columns()
+  {
+    return this.columns;
+  }
+
+  /**
+   * @return The number of rows
+   */
+
+  public int rows()
+  {
+    return this.rows;
+  }
+
+  /**
+   * @return The size of each dial in pixels
+   */
+
+  public int cellSize()
+  {
+    return this.cellSize;
+  }
+
+  /**
+   * @return The models of all dials in row-major order
+   */
+
+  public List<DialModel> models()
+  {
+    return this.models;
+  }
+
+  /**
+   * @param column The column
+   * @param row    The row
+   *
+   * @return The model of the dial at the given cell
+   */
+
+  public DialModel model(
+    final int column,
+    final int row)
+  {
+    Objects.checkIndex(column, this.columns);
+    Objects.checkIndex(row, this.rows);
+    return this.models.get((row * this.columns) + column);
+  }
+
+  /**
+   * Set the number of tick marks that appear on every dial (up to a maximum
+   * of 270).
+   *
+   * @param count The tick count
+   */
+
+  public void setTickCount(
+    final int count)
+  {
+    final var clamped = Math.max(1, Math.min(270, count));
+    if (clamped != this.tickCount) {
+      this.tickCount = clamped;
+      this.invalidateAll();
+    }
+  }
+
+  /**
+   * @return The number of tick marks on every dial
+   */
+
+  public int tickCount()
+  {
+    return this.tickCount;
+  }
+
+  /**
+   * @return The total number of tiles rasterized by this bank
+   */
+
+  public long tilesRasterizedTotal()
+  {
+    return this.tilesRasterized;
+  }
+
+  /**
+   * @return The total number of frames presented by this bank
+   */
+
+  public long framesPresentedTotal()
+  {
+    return this.framesPresented;
+  }
+
+  private void invalidateAll()
+  {
+    Arrays.fill(this.dirty, true);
+    this.dirtyAny = true;
+    this.requestFrame();
+  }
+
+  private void onModelChanged(
+    final int tile,
+    final DialModelChange change)
+  {
+    if (change == DialModelChange.VALUE
+        || change == DialModelChange.VALUE_CONVERTED) {
+      this.dirty[tile] = true;
+      this.dirtyAny = true;
+      this.requestFrame();
+    }
+  }
+
+  private void requestFrame()
+  {
+    if (this.getScene() != null && !this.frameInFlight) {
+      Platform.requestNextPulse();
+    }
+  }
+
+  private void onSceneChanged(
+    final Scene sceneOld,
+    final Scene sceneNew)
+  {
+    if (sceneOld != null) {
+      sceneOld.removePostLayoutPulseListener(this.pulseListener);
+    }
+    if (sceneNew != null) {
+      sceneNew.addPostLayoutPulseListener(this.pulseListener);
+      this.requestFrame();
+    }
+  }
+
+  /*
+   * At most one frame is in flight at any time. Tiles that change while a
+   * frame is being rasterized remain dirty, and are collected into the next
+   * frame once the current one has been presented.
+   */
+
+  private void onPulse()
+  {
+    if (!this.dirtyAny || this.frameInFlight) {
+      return;
+    }
+
+    int count = 0;
+    for (int tile = 0; tile < this.dirty.length; ++tile) {
+      if (this.dirty[tile]) {
+        this.dirty[tile] = false;
+        this.frameTiles[count] = tile;
+        this.framePositions[count] =
+          this.models.get(tile).getDisplayedPosition();
+        ++count;
+      }
+    }
+
+    this.dirtyAny = false;
+    this.frameTileCount = count;
+    this.frameInFlight = true;
+    this.pool.execute(
+      new FrameTask(this, count, this.palette, this.style, this.tickCount));
+  }
+
+  private void rasterizeTile(
+    final DialBankRasterizer rasterizer,
+    final int frameIndex)
+  {
+    final var tile = this.frameTiles[frameIndex];
+    rasterizer.rasterize(
+      this.staging,
+      this.columns * this.cellSize,
+      (tile % this.columns) * this.cellSize,
+      (tile / this.columns) * this.cellSize,
+      this.cellSize,
+      this.framePositions[frameIndex]
+    );
+  }
+
+  private void onFrameCompleted()
+  {
+    this.pixels.updateBuffer(this.presenter);
+    this.tilesRasterized += this.frameTileCount;
+    ++this.framesPresented;
+    this.frameInFlight = false;
+
+    if (this.dirtyAny) {
+      this.requestFrame();
+    }
+  }
+
+  /*
+   * Copy the tiles of the completed frame from the staging array into the
+   * pixel buffer, and return the union of their bounds as the dirty region.
+   * A pixel buffer retains only the most recent dirty region, and so this
+   * is called once per frame.
+   */
+
+  private Rectangle2D present(
+    final PixelBuffer<IntBuffer> unused)
+  {
+    final var stride = this.columns * this.cellSize;
+    int columnMin = this.columns;
+    int columnMax = -1;
+    int rowMin = this.rows;
+    int rowMax = -1;
+
+    for (int index = 0; index < this.frameTileCount; ++index) {
+      final var tile = this.frameTiles[index];
+      final var column = tile % this.columns;
+      final var row = tile / this.columns;
+      columnMin = Math.min(columnMin, column);
+      columnMax = Math.max(columnMax, column);
+      rowMin = Math.min(rowMin, row);
+      rowMax = Math.max(rowMax, row);
+
+      final var x0 = column * this.cellSize;
+      final var y0 = row * this.cellSize;
+      for (int y = y0; y < y0 + this.cellSize; ++y) {
+        final var offset = (y * stride) + x0;
+        this.buffer.put(offset, this.staging, offset, this.cellSize);
+      }
+    }
+
+    if (columnMax < 0) {
+      return Rectangle2D.EMPTY;
+    }
+
+    return new Rectangle2D(
+      columnMin * this.cellSize,
+      rowMin * this.cellSize,
+      (columnMax - columnMin + 1) * this.cellSize,
+      (rowMax - rowMin + 1) * this.cellSize
+    );
+  }
+
+  /**
+   * The root task of a frame. The tiles are rasterized by recursively
+   * splitting the frame, and the bank is notified on the FX application
+   * thread when all of them are complete.
+   */
+
+  @SuppressWarnings("serial")
+  private static final class FrameTask extends RecursiveAction
+  {
+    private final DialBank bank;
+    private final int count;
+    private final double[] palette;
+    private final DialRenderer.Style style;
+    private final int tickCount;
+
+    FrameTask(
+      final DialBank inBank,
+      final int inCount,
+      final double[] inPalette,
+      final DialRenderer.Style inStyle,
+      final int inTickCount)
+    {
+      this.bank = inBank;
+      this.count = inCount;
+      this.palette = inPalette;
+      this.style = inStyle;
+      this.tickCount = inTickCount;
+    }
+
+    @Override
+    protected void compute()
+    {
+      try {
+        new TileTask(this, 0, this.count).invoke();
+      } finally {
+        Platform.runLater(this.bank.frameCompleted);
+      }
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static final class TileTask extends RecursiveAction
+  {
+    private final FrameTask frame;
+    private final int start;
+    private final int end;
+
+    TileTask(
+      final FrameTask inFrame,
+      final int inStart,
+      final int inEnd)
+    {
+      this.frame = inFrame;
+      this.start = inStart;
+      this.end = inEnd;
+    }
+
+    @Override
+    protected void compute()
+    {
+      if (this.end - this.start > 1) {
+        final var middle = (this.start + this.end) >>> 1;
+        invokeAll(
+          new TileTask(this.frame, this.start, middle),
+          new TileTask(this.frame, middle, this.end)
+        );
+        return;
+      }
+
+      final var rasterizer =
+        new DialBankRasterizer(
+          this.frame.palette, this.frame.style, this.frame.tickCount);
+      for (int index = this.start; index < this.end; ++index) {
+        this.frame.bank.rasterizeTile(rasterizer, index);
+      }
+    }
+  }
+}
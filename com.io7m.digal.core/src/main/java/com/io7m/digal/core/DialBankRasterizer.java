@@ -0,0 +1,299 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javafx.scene.paint.Color;
+
+/**
+ * <p>A software rasterizer that draws a single dial into an array of
+ * premultiplied ARGB pixels.</p>
+ *
+ * <p>The rasterizer reproduces the layers drawn by {@link DialControl}
+ * (radial gauge, shade, tick marks, body, emboss, and indicator) with the
+ * colors and sizes of a {@link DialRenderer.Style}. Each pixel is evaluated independently from its
+ * distance to each shape, with coverage computed analytically for
+ * anti-aliasing, and so any number of rasterizers may draw disjoint regions
+ * of the same array concurrently. A rasterizer instance holds per-pixel
+ * scratch state, and must be confined to a single thread.</p>
+ */
+
+final class DialBankRasterizer
+{
+  static final int LAYER_GAUGE = 0;
+  static final int LAYER_SHADE = 4;
+  static final int LAYER_TICK = 8;
+  static final int LAYER_BODY = 12;
+  static final int LAYER_BODY_STROKE = 16;
+  static final int LAYER_EMBOSS = 20;
+  static final int LAYER_INDICATOR = 24;
+  static final int PALETTE_SIZE = 28;
+
+  private final double[] palette;
+  private final int tickCount;
+  private final double tickDelta;
+  private final double gaugeSize;
+  private final double tickHalfWidth;
+  private final double bodyStrokeHalfWidth;
+  private final double embossSize;
+  private final double indicatorHalfWidth;
+
+  private double radius;
+  private double extent;
+  private double indicatorX;
+  private double indicatorY;
+  private double outA;
+  private double outR;
+  private double outG;
+  private double outB;
+
+  /**
+   * Create a rasterizer.
+   *
+   * @param inPalette   The premultiplied layer colors produced by
+   *                    {@link #paletteOf(DialRenderer.Style)}
+   * @param inStyle     The style from which the palette was produced
+   * @param inTickCount The number of tick marks
+   */
+
+  DialBankRasterizer(
+    final double[] inPalette,
+    final DialRenderer.Style inStyle,
+    final int inTickCount)
+  {
+    this.palette = inPalette;
+    this.tickCount = inTickCount;
+    this.tickDelta = 270.0 / (double) inTickCount;
+    this.gaugeSize = inStyle.radialGaugeSize();
+    this.tickHalfWidth = inStyle.tickSize() / 2.0;
+    this.bodyStrokeHalfWidth = inStyle.bodyStrokeSize() / 2.0;
+    this.embossSize = inStyle.embossSize();
+    this.indicatorHalfWidth = inStyle.indicatorSize() / 2.0;
+  }
+
+  /**
+   * Convert the colors of a style to premultiplied layer colors, indexed by
+   * the {@code LAYER_*} offsets as {@code (a, r, g, b)}. The palette is
+   * computed once per style, rather than once per rasterizer.
+   *
+   * @param style The style
+   *
+   * @return The palette
+   */
+
+  static double[] paletteOf(
+    final DialRenderer.Style style)
+  {
+    final var p = new double[PALETTE_SIZE];
+    putColor(p, LAYER_GAUGE, style.radialGaugeColor());
+    putColor(p, LAYER_SHADE, style.shadeColor());
+    putColor(p, LAYER_TICK, style.tickColor());
+    putColor(p, LAYER_BODY, style.bodyColor());
+    putColor(p, LAYER_BODY_STROKE, style.bodyStrokeColor());
+    putColor(p, LAYER_EMBOSS, style.embossColor());
+    putColor(p, LAYER_INDICATOR, style.indicatorColor());
+    return p;
+  }
+
+  private static void putColor(
+    final double[] palette,
+    final int layer,
+    final Color color)
+  {
+    final var a = color.getOpacity();
+    palette[layer] = a;
+    palette[layer + 1] = color.getRed() * a;
+    palette[layer + 2] = color.getGreen() * a;
+    palette[layer + 3] = color.getBlue() * a;
+  }
+
+  private static double clamp01(
+    final double x)
+  {
+    return Math.max(0.0, Math.min(1.0, x));
+  }
+
+  /*
+   * The exact box-filtered coverage of a pixel whose centre lies at
+   * distance d from the centre line of a band with the given half width.
+   */
+
+  private static double band(
+    final double d,
+    final double halfWidth)
+  {
+    final var ad = Math.abs(d);
+    return Math.max(
+      0.0,
+      Math.min(ad + 0.5, halfWidth) - Math.max(ad - 0.5, -halfWidth)
+    );
+  }
+
+  /**
+   * Draw a dial of {@code size * size} pixels whose top-left corner is at
+   * {@code (x0, y0)}.
+   *
+   * @param target   The target pixels
+   * @param stride   The number of pixels in a row of the target
+   * @param x0       The left edge of the dial
+   * @param y0       The top edge of the dial
+   * @param size     The size of the dial
+   * @param position The displayed position of the dial in {@code [0, 1]}
+   */
+
+  void rasterize(
+    final int[] target,
+    final int stride,
+    final int x0,
+    final int y0,
+    final int size,
+    final double position)
+  {
+    final var angle = Math.toRadians(225.0 - (position * 270.0));
+    this.radius = (double) size / 2.0;
+    this.extent = position * 270.0;
+    this.indicatorX = Math.cos(angle);
+    this.indicatorY = Math.sin(angle);
+
+    for (int y = 0; y < size; ++y) {
+      final var row = ((y0 + y) * stride) + x0;
+      final var py = this.radius - ((double) y + 0.5);
+      for (int x = 0; x < size; ++x) {
+        final var px = ((double) x + 0.5) - this.radius;
+        target[row + x] = this.shade(px, py);
+      }
+    }
+  }
+
+  /*
+   * Evaluate all of the layers for the pixel centred at (px, py), relative
+   * to the dial centre with y increasing upwards, and return the resulting
+   * premultiplied ARGB value.
+   */
+
+  private int shade(
+    final double px,
+    final double py)
+  {
+    this.outA = 0.0;
+    this.outR = 0.0;
+    this.outG = 0.0;
+    this.outB = 0.0;
+
+    final var r = Math.sqrt((px * px) + (py * py));
+    final var outer = clamp01((this.radius - r) + 0.5);
+    if (outer <= 0.0) {
+      return 0;
+    }
+
+    final var t = this.angleFromStart(px, py);
+    this.blend(LAYER_GAUGE, outer * this.gaugeCoverage(r, t));
+    this.blend(LAYER_SHADE, outer);
+    this.blend(LAYER_TICK, outer * this.tickCoverage(r, t));
+
+    final var bodyRadius = this.radius - this.gaugeSize;
+    this.blend(LAYER_BODY, clamp01((bodyRadius - r) + 0.5));
+    this.blend(
+      LAYER_BODY_STROKE, band(r - bodyRadius, this.bodyStrokeHalfWidth));
+
+    final var embossRadius = bodyRadius - this.embossSize;
+    this.blend(LAYER_EMBOSS, band(r - embossRadius, this.embossSize / 2.0));
+    this.blend(LAYER_INDICATOR, this.indicatorCoverage(px, py));
+    return this.pack();
+  }
+
+  /*
+   * The angle in degrees, measured clockwise from the start of the dial's
+   * range at 225 degrees, in [0, 360).
+   */
+
+  private double angleFromStart(
+    final double px,
+    final double py)
+  {
+    final var t = 225.0 - Math.toDegrees(Math.atan2(py, px));
+    return t >= 360.0 ? t - 360.0 : t;
+  }
+
+  private double gaugeCoverage(
+    final double r,
+    final double t)
+  {
+    if (this.extent <= 0.0) {
+      return 0.0;
+    }
+
+    final double degrees;
+    if (t <= this.extent) {
+      degrees = Math.min(t, this.extent - t);
+    } else {
+      degrees = -Math.min(t - this.extent, 360.0 - t);
+    }
+    return clamp01((Math.toRadians(degrees) * r) + 0.5);
+  }
+
+  private double tickCoverage(
+    final double r,
+    final double t)
+  {
+    final var index =
+      Math.max(0L, Math.min(this.tickCount, Math.round(t / this.tickDelta)));
+    final var delta = Math.toRadians(t - ((double) index * this.tickDelta));
+    final var d = Math.cos(delta) > 0.0 ? r * Math.abs(Math.sin(delta)) : r;
+    return band(d, this.tickHalfWidth);
+  }
+
+  private double indicatorCoverage(
+    final double px,
+    final double py)
+  {
+    final var length = this.radius - (this.gaugeSize * 2.0);
+    final var along =
+      Math.max(0.0, Math.min(length,
+        (px * this.indicatorX) + (py * this.indicatorY)));
+    final var dx = px - (along * this.indicatorX);
+    final var dy = py - (along * this.indicatorY);
+    final var d = Math.sqrt((dx * dx) + (dy * dy));
+    return clamp01((this.indicatorHalfWidth + 0.5) - d);
+  }
+
+  private void blend(
+    final int layer,
+    final double coverage)
+  {
+    if (coverage <= 0.0) {
+      return;
+    }
+
+    final var p = this.palette;
+    final var a = p[layer] * coverage;
+    final var k = 1.0 - a;
+    this.outA = a + (this.outA * k);
+    this.outR = (p[layer + 1] * coverage) + (this.outR * k);
+    this.outG = (p[layer + 2] * coverage) + (this.outG * k);
+    this.outB = (p[layer + 3] * coverage) + (this.outB * k);
+  }
+
+  private int pack()
+  {
+    final var a = (int) Math.round(this.outA * 255.0);
+    final var r = (int) Math.round(this.outR * 255.0);
+    final var g = (int) Math.round(this.outG * 255.0);
+    final var b = (int) Math.round(this.outB * 255.0);
+    return (a << 24) | (r << 16) | (g << 8) | b;
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialConversions;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>A batch of dial value changes.</p>
+ *
+ * <p>Applying a batch first updates the displayed values of all of the dials
+ * in the batch, and then notifies the observers of each dial's value
+ * properties. Observers are therefore guaranteed to see the new values of
+ * all of the dials in the batch, regardless of the order in which they are
+ * notified. If a dial is added to a batch more than once, only the most
+ * recently added value is applied. A dial may belong to any number of open
+ * batches at the same time.</p>
+ *
+ * <p>Batches are intended to be reused, and do not allocate once they have
+ * grown to accommodate the largest number of dials they are used with.</p>
+ */
+
+public final class DialBatch
+{
+  private DialControl[] dials;
+  private double[] values;
+  private int size;
+  private boolean displaced;
+
+  /**
+   * A batch of dial value changes.
+   */
+
+  public DialBatch()
+  {
+    this(16);
+  }
+
+  /**
+   * A batch of dial value changes.
+   *
+   * @param capacity The initial number of dials the batch can hold
+   */
+
+  public DialBatch(
+    final int capacity)
+  {
+    final var c = Math.max(1, capacity);
+    this.dials = new DialControl[c];
+    this.values = new double[c];
+    this.size = 0;
+  }
+
+  /**
+   * Set the raw value of a dial, in the range {@code [0,1]}, when the batch
+   * is applied.
+   *
+   * @param dial The dial
+   * @param x    The value
+   *
+   * @return this
+   *
+   * @see DialControl#setRawValue(double)
+   */
+
+  public DialBatch setRawValue(
+    final DialControl dial,
+    final double x)
+  {
+    Objects.requireNonNull(dial, "dial");
+
+    final var existing = this.indexOf(dial);
+    if (existing >= 0) {
+      this.values[existing] = x;
+      return this;
+    }
+
+    if (this.size == this.dials.length) {
+      final var capacity = this.size * 2;
+      this.dials = Arrays.copyOf(this.dials, capacity);
+      this.values = Arrays.copyOf(this.values, capacity);
+    }
+
+    /*
+     * A dial only records its index in the batch it was most recently
+     * added to. If the dial belongs to another open batch, that batch can
+     * no longer find the dial by its index.
+     */
+
+    final var owner = dial.batchOwner();
+    if (owner != null && owner != this) {
+      owner.displaced = true;
+    }
+
+    this.dials[this.size] = dial;
+    this.values[this.size] = x;
+    dial.setBatchIndex(this, this.size);
+    ++this.size;
+    return this;
+  }
+
+  /**
+   * Set the value of a dial in display units (according to the dial's
+   * converter) when the batch is applied.
+   *
+   * @param dial The dial
+   * @param x    The display value
+   *
+   * @return this
+   *
+   * @see DialControl#setConvertedValue(double)
+   */
+
+  public DialBatch setConvertedValue(
+    final DialControl dial,
+    final double x)
+  {
+    Objects.requireNonNull(dial, "dial");
+    return this.setRawValue(
+      dial, DialConversions.toDial(dial.valueConverter(), x));
+  }
+
+  private int indexOf(
+    final DialControl dial)
+  {
+    final var index = dial.batchIndexFor(this);
+    if (index >= 0 && index < this.size && this.dials[index] == dial) {
+      return index;
+    }
+
+    /*
+     * If a dial in this batch has since been added to another batch, its
+     * batch index no longer refers to this batch, and so the batch must be
+     * searched until it is cleared.
+     */
+
+    if (this.displaced) {
+      for (int search = 0; search < this.size; ++search) {
+        if (this.dials[search] == dial) {
+          return search;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return The number of dials in the batch
+   */
+
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * Apply all changes in the batch, and then clear the batch. This method
+   * must be called on the FX application thread.
+   */
+
+  public void apply()
+  {
+    for (int index = 0; index < this.size; ++index) {
+      this.dials[index].setRawValueQuietly(this.values[index]);
+    }
+    for (int index = 0; index < this.size; ++index) {
+      this.dials[index].setRawValue(this.values[index]);
+    }
+    this.clear();
+  }
+
+  /**
+   * Discard all changes in the batch.
+   */
+
+  public void clear()
+  {
+    for (int index = 0; index < this.size; ++index) {
+      final var dial = this.dials[index];
+      if (dial.batchIndexFor(this) >= 0) {
+        dial.setBatchIndex(null, -1);
+      }
+      this.dials[index] = null;
+    }
+    this.size = 0;
+    this.displaced = false;
+  }
+}
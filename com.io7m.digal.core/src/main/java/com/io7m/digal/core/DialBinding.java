@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialModelChange;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Scene;
+
+import java.util.Objects;
+
+/**
+ * <p>A bidirectional binding between a dial and an external value source,
+ * such as a hardware device that echoes back each value that it is
+ * sent.</p>
+ *
+ * <p>Each time the user changes the (external) converted value of the dial,
+ * the change is tagged with a new sequence number and passed to a
+ * {@link DialBindingSinkType}. Values reported by the external system are
+ * passed to {@link #receive(long, double)} along with the sequence number
+ * of the most recent change that the external system has seen. Values that
+ * were reported before the external system saw the latest local change are
+ * stale, and are dropped rather than making the dial jump back while the
+ * user is still turning it.</p>
+ *
+ * <p>Received values may be passed in from any thread. They are coalesced,
+ * and at the start of each pulse, the most recent value is applied to the
+ * dial with {@link DialControl#setConvertedValueQuietly(double)}, so that it
+ * is not sent back to the external system. A dial that is not part of a
+ * scene receives the most recent value when it is added to one.</p>
+ */
+
+public final class DialBinding implements AutoCloseable
+{
+  private final DialControl dial;
+  private final DialBindingSinkType sink;
+  private final DialValueListenerType localListener;
+  private final ChangeListener<Scene> sceneListener;
+  private final Runnable pulseListener;
+  private final Object lock;
+  private long sequenceSent;
+  private boolean closed;
+  private boolean pending;
+  private long pendingSequence;
+  private double pendingValue;
+  private volatile long received;
+  private volatile long dropped;
+  private volatile long applied;
+
+  private DialBinding(
+    final DialControl inDial,
+    final DialBindingSinkType inSink)
+  {
+    this.dial = Objects.requireNonNull(inDial, "dial");
+    this.sink = Objects.requireNonNull(inSink, "sink");
+    this.lock = new Object();
+    this.localListener = this::onLocalChange;
+    this.pulseListener = this::onPulse;
+    this.sceneListener = (o, sceneOld, sceneNew) -> {
+      this.onSceneChanged(sceneOld, sceneNew);
+    };
+  }
+
+  /**
+   * Bind a dial to an external value source. Must be called on the FX
+   * application thread.
+   *
+   * @param dial The dial
+   * @param sink The receiver of values set by the user
+   *
+   * @return A binding
+   */
+
+  public static DialBinding bind(
+    final DialControl dial,
+    final DialBindingSinkType sink)
+  {
+    final var binding = new DialBinding(dial, sink);
+    dial.addValueListener(
+      DialModelChange.EXTERNAL_VALUE_CONVERTED, binding.localListener);
+    dial.sceneProperty().addListener(binding.sceneListener);
+    binding.onSceneChanged(null, dial.getScene());
+    return binding;
+  }
+
+  /**
+   * @return The bound dial
+   */
+
+  public DialControl dial()
+  {
+    return this.dial;
+  }
+
+  /**
+   * @return The sequence number of the most recent change sent to the sink
+   */
+
+  public long sequenceSent()
+  {
+    return this.sequenceSent;
+  }
+
+  /**
+   * @return The number of values received from the external system
+   */
+
+  public long receivedTotal()
+  {
+    return this.received;
+  }
+
+  /**
+   * @return The number of received values applied to the dial
+   */
+
+  public long appliedTotal()
+  {
+    return this.applied;
+  }
+
+  /**
+   * @return The number of received values dropped as stale
+   */
+
+  public long droppedTotal()
+  {
+    return this.dropped;
+  }
+
+  /**
+   * Receive a value from the external system. This method may be called
+   * from any thread.
+   *
+   * @param sequence The sequence number of the most recent change that the
+   *                 external system has seen
+   * @param value    The converted value
+   */
+
+  public void receive(
+    final long sequence,
+    final double value)
+  {
+    synchronized (this.lock) {
+      ++this.received;
+
+      /*
+       * A value that saw fewer local changes than the pending value is
+       * older than it, even if it happened to arrive later.
+       */
+
+      if (this.pending && sequence < this.pendingSequence) {
+        ++this.dropped;
+        return;
+      }
+
+      if (!this.pending) {
+        Platform.requestNextPulse();
+      }
+      this.pending = true;
+      this.pendingSequence = sequence;
+      this.pendingValue = value;
+    }
+  }
+
+  private void onLocalChange(
+    final DialControl source,
+    final double oldValue,
+    final double newValue)
+  {
+    ++this.sequenceSent;
+    this.sink.send(this.sequenceSent, newValue);
+  }
+
+  private void onSceneChanged(
+    final Scene sceneOld,
+    final Scene sceneNew)
+  {
+    if (sceneOld != null) {
+      sceneOld.removePreLayoutPulseListener(this.pulseListener);
+    }
+    if (sceneNew != null && !this.closed) {
+      sceneNew.addPreLayoutPulseListener(this.pulseListener);
+      this.onPulse();
+    }
+  }
+
+  private void onPulse()
+  {
+    final long sequence;
+    final double value;
+
+    synchronized (this.lock) {
+      if (!this.pending) {
+        return;
+      }
+      this.pending = false;
+      sequence = this.pendingSequence;
+      value = this.pendingValue;
+
+      if (sequence < this.sequenceSent) {
+        ++this.dropped;
+        return;
+      }
+      ++this.applied;
+    }
+
+    this.dial.setConvertedValueQuietly(value);
+  }
+
+  /**
+   * Remove the binding. No further changes are sent to the sink, and
+   * pending received values are discarded. Must be called on the FX
+   * application thread.
+   */
+
+  @Override
+  public void close()
+  {
+    if (this.closed) {
+      return;
+    }
+
+    this.closed = true;
+    this.dial.removeValueListener(
+      DialModelChange.EXTERNAL_VALUE_CONVERTED, this.localListener);
+    this.dial.sceneProperty().removeListener(this.sceneListener);
+    this.onSceneChanged(this.dial.getScene(), null);
+
+    synchronized (this.lock) {
+      this.pending = false;
+    }
+  }
+}
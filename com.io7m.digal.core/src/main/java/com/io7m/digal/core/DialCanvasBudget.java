@@ -0,0 +1,381 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javafx.application.Platform;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * <p>An opt-in global budget for the memory used by dial canvases.</p>
+ *
+ * <p>Every dial draws into its own canvas, and the backing store (typically
+ * a texture) of a canvas requires four bytes per device pixel. Once a budget
+ * has been enabled, dials that are part of a scene report the size of their
+ * canvas each time they are drawn. When the total exceeds the budget, the
+ * canvases of the dials that were least recently drawn are released, skipping
+ * any dials that are currently displayed. A dial whose canvas has been
+ * released regenerates it with a single redraw the next time it is
+ * displayed.</p>
+ *
+ * <p>Dials are ordered by the last time they were drawn, and the budget is
+ * not notified when dials are merely scrolled out of view. A displayed dial
+ * that is skipped during eviction is therefore moved to the back of the
+ * order as if it had been drawn, and so the order approximates the last
+ * time each dial was known to be visible. If a pass over all dials cannot
+ * bring the total within the budget (because too many dials are displayed),
+ * eviction is not attempted again until the next pulse.</p>
+ *
+ * <p>Dials that are not part of a scene are not counted, and dials release
+ * their canvases when they are removed from a scene. The budget only holds
+ * weak references to dials, so dials in scenes that are discarded without
+ * being emptied (such as those of a closed window) are removed from the
+ * budget when they are garbage collected. The budget must only
+ * be modified on the FX application thread; the usage figures may be read
+ * from any thread, and are also reported by {@link DialMetrics}.</p>
+ */
+
+public final class DialCanvasBudget
+{
+  private static final long BYTES_PER_PIXEL = 4L;
+
+  private static final Cleaner CLEANER =
+    Cleaner.create();
+
+  private static volatile DialCanvasBudget ACTIVE;
+
+  private final LinkedHashMap<Resident, Resident> resident;
+  private volatile long limitBytes;
+  private volatile long usedBytes;
+  private volatile long evictions;
+  private volatile long regenerations;
+  private boolean evictionSuspended;
+
+  private DialCanvasBudget(
+    final long inLimitBytes)
+  {
+    this.resident = new LinkedHashMap<>(64, 0.75f, true);
+    this.limitBytes = checkLimit(inLimitBytes);
+  }
+
+  private static long checkLimit(
+    final long bytes)
+  {
+    if (bytes < 0L) {
+      throw new IllegalArgumentException(
+        "Budget %d must be non-negative".formatted(Long.valueOf(bytes))
+      );
+    }
+    return bytes;
+  }
+
+  /**
+   * Enable the canvas budget with the given limit. If a budget is already
+   * enabled, its limit is changed and the existing budget is returned.
+   *
+   * @param bytes The limit in bytes
+   *
+   * @return The budget
+   */
+
+  public static DialCanvasBudget enable(
+    final long bytes)
+  {
+    synchronized (DialCanvasBudget.class) {
+      final var existing = ACTIVE;
+      if (existing != null) {
+        existing.setLimitBytes(bytes);
+        return existing;
+      }
+
+      final var budget = new DialCanvasBudget(bytes);
+      ACTIVE = budget;
+      return budget;
+    }
+  }
+
+  /**
+   * @return The budget, if one has been enabled
+   */
+
+  public static Optional<DialCanvasBudget> get()
+  {
+    return Optional.ofNullable(ACTIVE);
+  }
+
+  /**
+   * @return The budget, or {@code null} if no budget is enabled
+   */
+
+  static DialCanvasBudget active()
+  {
+    return ACTIVE;
+  }
+
+  /**
+   * Set the limit. The new limit is enforced the next time a dial is
+   * drawn.
+   *
+   * @param bytes The limit in bytes
+   */
+
+  public void setLimitBytes(
+    final long bytes)
+  {
+    this.limitBytes = checkLimit(bytes);
+  }
+
+  /**
+   * @return The limit in bytes
+   */
+
+  public long limitBytes()
+  {
+    return this.limitBytes;
+  }
+
+  /**
+   * @return The number of bytes currently used by dial canvases
+   */
+
+  public long usedBytes()
+  {
+    return this.usedBytes;
+  }
+
+  /**
+   * @return The number of dials that currently hold a canvas
+   */
+
+  public int residentCanvases()
+  {
+    synchronized (this.resident) {
+      return this.resident.size();
+    }
+  }
+
+  /**
+   * @return The total number of canvases released to stay within the budget
+   */
+
+  public long evictionsTotal()
+  {
+    return this.evictions;
+  }
+
+  /**
+   * @return The total number of released canvases that have been regenerated
+   */
+
+  public long regenerationsTotal()
+  {
+    return this.regenerations;
+  }
+
+  /**
+   * Estimate the size of the backing store of a canvas.
+   *
+   * @param width  The width in pixels
+   * @param height The height in pixels
+   * @param scaleX The horizontal render scale
+   * @param scaleY The vertical render scale
+   *
+   * @return The size in bytes
+   */
+
+  static long canvasBytes(
+    final double width,
+    final double height,
+    final double scaleX,
+    final double scaleY)
+  {
+    final var w = (long) Math.ceil(width * scaleX);
+    final var h = (long) Math.ceil(height * scaleY);
+    return Math.max(0L, w) * Math.max(0L, h) * BYTES_PER_PIXEL;
+  }
+
+  /**
+   * A dial in a scene was drawn into a canvas of the given size.
+   *
+   * @param dial         The dial
+   * @param bytesOld     The size of the dial's canvas before drawing
+   * @param bytesNew     The size of the dial's canvas after drawing
+   * @param regenerated  {@code true} if the canvas had been released
+   */
+
+  void onDrawn(
+    final DialControl dial,
+    final long bytesOld,
+    final long bytesNew,
+    final boolean regenerated)
+  {
+    synchronized (this.resident) {
+      var entry = dial.budgetResident();
+      if (entry == null) {
+        entry = new Resident(dial);
+        dial.setBudgetResident(entry);
+        CLEANER.register(dial, new Collected(this, entry));
+      }
+      if (this.resident.get(entry) == null) {
+        this.resident.put(entry, entry);
+      }
+      entry.bytes = bytesNew;
+      this.usedBytes = this.usedBytes + (bytesNew - bytesOld);
+    }
+
+    if (regenerated) {
+      this.regenerations = this.regenerations + 1L;
+    }
+    if (this.usedBytes > this.limitBytes) {
+      this.evict(dial);
+    }
+  }
+
+  /**
+   * A dial released its canvas for reasons other than the budget (such as
+   * being removed from a scene).
+   *
+   * @param dial  The dial
+   * @param bytes The size of the released canvas
+   */
+
+  void onReleased(
+    final DialControl dial,
+    final long bytes)
+  {
+    final var entry = dial.budgetResident();
+    if (entry == null) {
+      return;
+    }
+
+    synchronized (this.resident) {
+      if (this.resident.remove(entry) == null) {
+        return;
+      }
+      entry.bytes = 0L;
+      this.usedBytes = this.usedBytes - bytes;
+    }
+  }
+
+  /**
+   * A dial was garbage collected without releasing its canvas.
+   *
+   * @param entry The dial's entry
+   */
+
+  private void onCollected(
+    final Resident entry)
+  {
+    synchronized (this.resident) {
+      if (this.resident.remove(entry) != null) {
+        this.usedBytes = this.usedBytes - entry.bytes;
+      }
+    }
+  }
+
+  private void evict(
+    final DialControl except)
+  {
+    if (this.evictionSuspended) {
+      return;
+    }
+
+    final var displayed = new ArrayList<Resident>();
+    synchronized (this.resident) {
+      final var iter = this.resident.keySet().iterator();
+      while (iter.hasNext() && this.usedBytes > this.limitBytes) {
+        final var entry = iter.next();
+        final var dial = entry.dial.get();
+        if (dial == null) {
+          iter.remove();
+          this.usedBytes = this.usedBytes - entry.bytes;
+          continue;
+        }
+        if (dial == except) {
+          continue;
+        }
+        if (dial.isDisplayed()) {
+          displayed.add(entry);
+          continue;
+        }
+
+        iter.remove();
+        entry.bytes = 0L;
+        this.usedBytes = this.usedBytes - dial.releaseCanvas();
+        this.evictions = this.evictions + 1L;
+      }
+
+      /*
+       * Accessing an entry moves it to the back of the access order.
+       */
+
+      for (final var entry : displayed) {
+        this.resident.get(entry);
+      }
+    }
+
+    if (this.usedBytes > this.limitBytes) {
+      this.evictionSuspended = true;
+      Platform.runLater(this::resumeEviction);
+    }
+  }
+
+  private void resumeEviction()
+  {
+    this.evictionSuspended = false;
+  }
+
+  /**
+   * The budget's record of a single dial. A dial holds its own entry, but an
+   * entry only holds a weak reference to its dial, so that the budget never
+   * keeps dials (and their scenes and windows) reachable.
+   */
+
+  static final class Resident
+  {
+    private final WeakReference<DialControl> dial;
+    private long bytes;
+
+    private Resident(
+      final DialControl inDial)
+    {
+      this.dial = new WeakReference<>(inDial);
+    }
+  }
+
+  /**
+   * The cleanup action for a collected dial. This must not refer to the
+   * dial.
+   */
+
+  private record Collected(
+    DialCanvasBudget budget,
+    Resident entry)
+    implements Runnable
+  {
+    @Override
+    public void run()
+    {
+      this.budget.onCollected(this.entry);
+    }
+  }
+}
@@ -17,6 +17,12 @@
 
 package com.io7m.digal.core;
 
+import com.io7m.digal.model.DialConversions;
+import com.io7m.digal.model.DialModel;
+import com.io7m.digal.model.DialModelChange;
+import com.io7m.digal.model.DialModelListenerType;
+import com.io7m.digal.model.DialValueConverterType;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.ReadOnlyProperty;
@@ -26,25 +32,28 @@ import javafx.css.CssMetaData;
 import javafx.css.SimpleStyleableObjectProperty;
 import javafx.css.Styleable;
 import javafx.css.StyleablePropertyFactory;
+import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Control;
-import javafx.scene.input.MouseButton;
-import javafx.scene.input.MouseEvent;
-import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.ArcType;
 import javafx.scene.shape.Rectangle;
-import javafx.scene.shape.StrokeLineCap;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
- * A rotary dial control.
+ * <p>A rotary dial control.</p>
+ *
+ * <p>Dials created with {@link #meter()} are read-only meters: they do not
+ * respond to input, do not observe their model, and do not update their
+ * value properties. A meter's value is set with
+ * {@link #setMeterValue(double)}, and may optionally show a decaying
+ * peak.</p>
  */
 
 public final class DialControl extends Region
@@ -154,9 +163,9 @@ public final class DialControl extends Region
     );
 
   private static final double PREFERRED_SIZE = 64.0;
-  private static final double DRAG_DELTA = 0.005;
 
   private final Canvas canvas;
+  private final DialRenderer renderer;
   private final Rectangle clip;
   private final SimpleIntegerProperty tickCount;
   private final SimpleStyleableObjectProperty<Color> bodyColor;
@@ -176,30 +185,84 @@ public final class DialControl extends Region
   private final SimpleDoubleProperty internalValueConverted;
   private final SimpleDoubleProperty externalValueRaw;
   private final SimpleDoubleProperty externalValueConverted;
-  private DialValueConverterType converter;
-  private double dragYThen;
-  private boolean dragging;
+  private final DialModelListenerType modelListener;
+  private final DialValueListeners valueListeners;
+  private final Runnable pulseListener;
+  private final Runnable latencyPresented;
+  private final boolean meter;
+  private final DialInput input;
+  private DialModel model;
+  private boolean redrawPending;
+  private DialRedrawCause redrawPendingCause;
+  private DialLatencyRecorder latencyRecorder;
+  private long latencyInputTime;
+  private long latencyPendingTime;
+  private boolean latencyPending;
+  private DialBatch batch;
+  private int batchIndex;
+  private long canvasBytes;
+  private boolean canvasReleased;
+  private DialCanvasBudget.Resident budgetResident;
+  private boolean drawnValid;
+  private double drawnWidth;
+  private double drawnHeight;
+  private double drawnPosition;
+  private double meterPosition;
+  private DialPeakHold peakHold;
 
   /**
-   * A rotary dial control.
+   * A rotary dial control with a new model.
    */
 
   public DialControl()
   {
-    this.converter =
-      new DialIdentityConverter();
+    this(new DialModel());
+  }
+
+  /**
+   * A rotary dial control that views the given model.
+   *
+   * @param inModel The model
+   *
+   * @see #setModel(DialModel)
+   */
+
+  public DialControl(
+    final DialModel inModel)
+  {
+    this(inModel, false);
+  }
+
+  private DialControl(
+    final DialModel inModel,
+    final boolean inMeter)
+  {
+    this.meter =
+      inMeter;
+
+    /*
+     * Meters have no model, value properties, or value listeners.
+     */
+
+    this.model =
+      inMeter ? null : Objects.requireNonNull(inModel, "model");
+    this.modelListener =
+      inMeter ? null : this::onModelChanged;
+    this.valueListeners =
+      inMeter ? null : new DialValueListeners();
     this.internalValueRaw =
-      new SimpleDoubleProperty();
+      valueProperty(inMeter);
     this.internalValueConverted =
-      new SimpleDoubleProperty();
-
+      valueProperty(inMeter);
     this.externalValueRaw =
-      new SimpleDoubleProperty();
+      valueProperty(inMeter);
     this.externalValueConverted =
-      new SimpleDoubleProperty();
+      valueProperty(inMeter);
 
     this.properties =
       new HashSet<>();
+    this.renderer =
+      new DialRenderer();
 
     this.bodyColor =
       propertyOf(this, CSS_DIAL_BODY_COLOR);
@@ -239,47 +302,239 @@ public final class DialControl extends Region
     this.getChildren().setAll(this.canvas);
 
     /*
-     * When the internal raw value is updated, the internal converted
-     * value is updated.
+     * When any of the styleable properties, the size, the tick count, or
+     * the model's internal value change, the dial is redrawn. The styleable values
+     * and the tick count are copied into fields when they change so that
+     * redrawing does not need to go through the (boxed) property values.
      */
 
-    this.internalValueRaw.addListener(o -> {
-      final var v = this.internalValueRaw.get();
-      this.internalValueConverted.set(this.doConversionFromDial(v));
-    });
+    for (final var p : this.properties) {
+      p.addListener(o -> this.onStyleChanged());
+    }
+    this.properties.clear();
+    this.updateStyle();
+
+    this.renderer.setTickCount(this.tickCount.get());
+    this.tickCount.addListener(o -> this.onTickCountChanged());
+    this.widthProperty().addListener(o -> this.redraw(DialRedrawCause.SIZE));
+    this.heightProperty().addListener(o -> this.redraw(DialRedrawCause.SIZE));
 
     /*
-     * When the external raw value is updated, the external converted
-     * value is updated.
+     * Redraws requested while the dial is in a scene are deferred until
+     * the next pulse, so that any number of value changes between two
+     * frames result in a single redraw.
      */
 
-    this.externalValueRaw.addListener(o -> {
-      final var v = this.externalValueRaw.get();
-      this.externalValueConverted.set(this.doConversionFromDial(v));
-    });
+    this.redrawPendingCause = DialRedrawCause.VALUE;
+    this.pulseListener = this::onPulse;
+    this.latencyPresented = this::onLatencyPresented;
+    this.sceneProperty()
+      .addListener((o, sceneOld, sceneNew) -> {
+        this.onSceneChanged(sceneOld, sceneNew);
+      });
 
     /*
-     * When any of the listed properties change, the dial is redrawn.
+     * The value properties mirror the model; the model notifies the dial
+     * of changes, and the dial updates its properties accordingly.
      */
 
-    this.properties.add(this.tickCount);
-    this.properties.add(this.widthProperty());
-    this.properties.add(this.heightProperty());
-    this.properties.add(this.internalValueRaw);
+    this.input = inMeter ? null : new DialInput(this);
+    if (!inMeter) {
+      this.connectModel();
+    }
+    this.redraw(DialRedrawCause.VALUE);
 
-    for (final var p : this.properties) {
-      p.addListener(o -> this.redraw());
+    final var metrics = DialMetrics.active();
+    if (metrics != null) {
+      metrics.onDialCreated(this);
     }
-    this.properties.clear();
+  }
+
+  private void connectModel()
+  {
+    this.installInputHandlers();
+    this.model.addListener(this.modelListener);
+    this.syncInternal();
+    this.syncExternal();
+  }
+
+  private static SimpleDoubleProperty valueProperty(
+    final boolean meter)
+  {
+    return meter ? null : new SimpleDoubleProperty();
+  }
+
+  /**
+   * <p>Create a read-only meter.</p>
+   *
+   * <p>A meter displays a value set with {@link #setMeterValue(double)}, and
+   * skips all of the machinery that exists to support interaction: it has
+   * no mouse or scroll handlers, no model, no value properties, and no value
+   * listeners. Any number of values set between two pulses result in a
+   * single redraw. Every method that accesses a model, a value property, a
+   * value listener, or a value conversion setting (such as
+   * {@link #setRawValue(double)}, {@link #rawValue()}, and
+   * {@link #model()}) throws {@link IllegalStateException} when called on a
+   * meter.</p>
+   *
+   * @return A new meter
+   */
+
+  public static DialControl meter()
+  {
+    return new DialControl(null, true);
+  }
+
+  /**
+   * @return {@code true} if this dial is a read-only meter
+   *
+   * @see #meter()
+   */
+
+  public boolean isMeter()
+  {
+    return this.meter;
+  }
+
+  private void checkNotMeter()
+  {
+    if (this.meter) {
+      throw new IllegalStateException(
+        "Meters do not have models, value properties, or value listeners."
+      );
+    }
+  }
+
+  private void checkMeter()
+  {
+    if (!this.meter) {
+      throw new IllegalStateException("This dial is not a meter.");
+    }
+  }
+
+  /**
+   * Set the value displayed by a meter, in the range {@code [0,1]}. The
+   * meter is redrawn on the next pulse.
+   *
+   * @param x The value
+   *
+   * @throws IllegalStateException If this dial is not a meter
+   * @see #meter()
+   */
+
+  public void setMeterValue(
+    final double x)
+  {
+    this.checkMeter();
+
+    final var clamped = Math.max(0.0, Math.min(1.0, x));
+    if (Double.compare(this.meterPosition, clamped) == 0) {
+      return;
+    }
+
+    this.meterPosition = clamped;
+    this.redraw(DialRedrawCause.VALUE);
+  }
+
+  /**
+   * @return The value displayed by a meter
+   *
+   * @see #meter()
+   */
+
+  public double getMeterValue()
+  {
+    return this.meterPosition;
+  }
+
+  /**
+   * @return The peak displayed by a meter, or the meter value if peak hold
+   * is disabled
+   *
+   * @see #setMeterPeakHold(Duration, double)
+   */
+
+  public double getMeterPeak()
+  {
+    final var hold = this.peakHold;
+    return hold != null ? hold.peak() : this.meterPosition;
+  }
+
+  /**
+   * Enable peak hold for a meter. Each new peak is shown as a mark on the
+   * radial gauge and is held for the given period, after which the mark
+   * falls back towards the meter value at the given rate. The peak is
+   * updated once per pulse.
+   *
+   * @param hold           The period for which a new peak is held
+   * @param decayPerSecond The rate of decay, in raw units per second
+   *
+   * @throws IllegalStateException If this dial is not a meter
+   */
 
-    this.dragYThen = 0.0;
-    this.canvas.setOnMousePressed(this::onMousePressed);
-    this.canvas.setOnMouseDragged(this::onMouseDragged);
-    this.canvas.setOnMouseReleased(this::onMouseReleased);
-    this.canvas.setOnScroll(this::onMouseScrolled);
+  public void setMeterPeakHold(
+    final Duration hold,
+    final double decayPerSecond)
+  {
+    this.checkMeter();
+    Objects.requireNonNull(hold, "hold");
+
+    if (hold.isNegative() || !(decayPerSecond > 0.0)) {
+      throw new IllegalArgumentException(
+        "Hold %s must be non-negative and decay %f must be positive"
+          .formatted(hold, Double.valueOf(decayPerSecond))
+      );
+    }
+
+    this.peakHold = new DialPeakHold(
+      hold.toNanos(), decayPerSecond, this.meterPosition, System.nanoTime()
+    );
+    this.redraw(DialRedrawCause.STYLE);
+  }
+
+  /**
+   * Disable peak hold for a meter.
+   *
+   * @throws IllegalStateException If this dial is not a meter
+   */
+
+  public void clearMeterPeakHold()
+  {
+    this.checkMeter();
+    if (this.peakHold != null) {
+      this.peakHold = null;
+      this.redraw(DialRedrawCause.STYLE);
+    }
+  }
+
+  /*
+   * Advance the peak on each pulse. The peak mark moves independently of
+   * the value, and so any movement forces a full redraw; pulses continue to
+   * be requested for as long as the peak lies above the value.
+   */
+
+  private void updatePeak()
+  {
+    final var hold = this.peakHold;
+    if (hold == null) {
+      return;
+    }
+
+    if (hold.update(this.meterPosition, System.nanoTime())) {
+      this.drawnValid = false;
+      this.redrawPending = true;
+    }
+    if (hold.peak() > this.meterPosition) {
+      Platform.requestNextPulse();
+    }
+  }
 
-    this.internalValueRaw.set(1.0);
-    this.internalValueRaw.set(0.0);
+  private void installInputHandlers()
+  {
+    this.canvas.setOnMousePressed(this.input::onMousePressed);
+    this.canvas.setOnMouseDragged(this.input::onMouseDragged);
+    this.canvas.setOnMouseReleased(this.input::onMouseReleased);
+    this.canvas.setOnScroll(this.input::onMouseScrolled);
   }
 
   private static <T> SimpleStyleableObjectProperty<T> propertyOf(
@@ -295,34 +550,150 @@ public final class DialControl extends Region
     return prop;
   }
 
-  private static double clampNormal(
-    final double x)
+  private void onStyleChanged()
   {
-    return Math.min(Math.max(0.0, x), 1.0);
+    this.updateStyle();
+    this.redraw(DialRedrawCause.STYLE);
   }
 
-  private double doConversionFromDial(
-    final double v)
+  private void updateStyle()
   {
-    if (this.converter instanceof DialValueConverterDiscreteType discrete) {
-      return (double) discrete.convertFromDial(v);
-    }
-    if (this.converter instanceof DialValueConverterRealType real) {
-      return real.convertFromDial(v);
+    this.renderer.setStyle(new DialRenderer.Style(
+      Objects.requireNonNull(this.bodyColor.getValue(), "bodyColor"),
+      Objects.requireNonNull(this.bodyStrokeColor.getValue(), "bodyStrokeColor"),
+      Objects.requireNonNull(this.embossColor.getValue(), "embossColor"),
+      Objects.requireNonNull(this.indicatorColor.getValue(), "indicatorColor"),
+      Objects.requireNonNull(this.radialGaugeColor.getValue(), "radialGaugeColor"),
+      Objects.requireNonNull(this.shadeColor.getValue(), "shadeColor"),
+      Objects.requireNonNull(this.tickColor.getValue(), "tickColor"),
+      Objects.requireNonNull(this.bodyStrokeSize.getValue(), "bodyStrokeSize")
+        .doubleValue(),
+      Objects.requireNonNull(this.embossSize.getValue(), "embossSize")
+        .doubleValue(),
+      Objects.requireNonNull(this.indicatorSize.getValue(), "indicatorSize")
+        .doubleValue(),
+      Objects.requireNonNull(this.radialGaugeSize.getValue(), "radialGaugeSize")
+        .doubleValue(),
+      Objects.requireNonNull(this.tickSize.getValue(), "tickSize")
+        .doubleValue()
+    ));
+  }
+
+  private void onTickCountChanged()
+  {
+    this.renderer.setTickCount(this.tickCount.get());
+    this.redraw(DialRedrawCause.TICK_COUNT);
+  }
+
+  private void onModelChanged(
+    final DialModel source,
+    final DialModelChange change)
+  {
+    switch (change) {
+      case VALUE -> {
+        this.syncInternal();
+        this.redraw(DialRedrawCause.VALUE);
+      }
+      case VALUE_CONVERTED -> {
+        this.syncInternal();
+        this.redraw(DialRedrawCause.CONVERSION);
+      }
+      case EXTERNAL_VALUE, EXTERNAL_VALUE_CONVERTED -> {
+        this.syncExternal();
+      }
     }
-    throw new IllegalStateException("Unrecognized converter type.");
   }
 
-  private double doConversionToDial(
-    final double x)
+  /*
+   * The converted values are copied before the raw values so that
+   * observers of the raw value properties see consistent converted values.
+   */
+
+  private void syncInternal()
   {
-    if (this.converter instanceof DialValueConverterDiscreteType discrete) {
-      return discrete.convertToDial((long) x);
+    final var convertedOld = this.internalValueConverted.get();
+    final var convertedNew = this.model.getConvertedValue();
+    this.internalValueConverted.set(convertedNew);
+    this.valueListeners.notify(
+      this, DialModelChange.VALUE_CONVERTED, convertedOld, convertedNew);
+
+    final var rawOld = this.internalValueRaw.get();
+    final var rawNew = this.model.getRawValue();
+    this.internalValueRaw.set(rawNew);
+    this.valueListeners.notify(
+      this, DialModelChange.VALUE, rawOld, rawNew);
+  }
+
+  private void syncExternal()
+  {
+    final var convertedOld = this.externalValueConverted.get();
+    final var convertedNew = this.model.getExternalConvertedValue();
+    this.externalValueConverted.set(convertedNew);
+    this.valueListeners.notify(
+      this, DialModelChange.EXTERNAL_VALUE_CONVERTED, convertedOld, convertedNew);
+
+    final var valueOld = this.externalValueRaw.get();
+    final var valueNew = this.model.getExternalRawValue();
+    if (valueOld == valueNew) {
+      return;
     }
-    if (this.converter instanceof DialValueConverterRealType real) {
-      return real.convertToDial(x);
+
+    if (DialJFR.VALUE_CHANGE.isEnabled()) {
+      this.setExternalRawValueRecorded(valueOld, valueNew);
+    } else {
+      this.externalValueRaw.set(valueNew);
+    }
+    this.valueListeners.notify(
+      this, DialModelChange.EXTERNAL_VALUE, valueOld, valueNew);
+
+    final var metrics = DialMetrics.active();
+    if (metrics != null) {
+      metrics.onNotification();
+    }
+  }
+
+  /**
+   * @return The model that this dial views
+   *
+   * @throws IllegalStateException If this dial is a meter
+   */
+
+  public DialModel model()
+  {
+    this.checkNotMeter();
+    return this.model;
+  }
+
+  /**
+   * <p>Set the model that this dial views. The dial stops observing its
+   * previous model, whose state is unaffected, and its value properties are
+   * updated to reflect the new model. Observers of the value properties are
+   * notified if the values differ between the two models.</p>
+   *
+   * <p>Applications with large numbers of parameters can keep one model per
+   * parameter and attach models only to the dials that are currently
+   * shown.</p>
+   *
+   * @param newModel The new model
+   *
+   * @throws IllegalStateException If this dial is a meter
+   */
+
+  public void setModel(
+    final DialModel newModel)
+  {
+    Objects.requireNonNull(newModel, "model");
+    this.checkNotMeter();
+    if (newModel == this.model) {
+      return;
     }
-    throw new IllegalStateException("Unrecognized converter type.");
+
+    this.model.removeListener(this.modelListener);
+    this.model = newModel;
+    this.model.addListener(this.modelListener);
+    this.syncInternal();
+    this.syncExternal();
+    this.redraw(DialRedrawCause.VALUE);
   }
 
   /**
@@ -369,151 +740,6 @@ public final class DialControl extends Region
     return rs;
   }
 
-  private void renderDialIndicator(
-    final GraphicsContext g,
-    final double halfWidth,
-    final double halfHeight,
-    final double gaugeSize,
-    final double valueNow)
-  {
-    g.save();
-    try {
-      final var color = this.indicatorColor.getValue();
-      Objects.requireNonNull(color, "color");
-      final var width = this.indicatorSize.getValue();
-      Objects.requireNonNull(width, "width");
-
-      g.setFill(null);
-      g.setStroke(color);
-      g.setLineWidth(width.doubleValue());
-      g.setLineCap(StrokeLineCap.ROUND);
-      g.translate(halfWidth, halfHeight);
-      g.rotate(-225.0 + (valueNow * 270.0));
-
-      g.strokeLine(
-        0.0,
-        0.0,
-        halfWidth - (gaugeSize * 2.0),
-        0.0
-      );
-    } finally {
-      g.restore();
-    }
-  }
-
-  private void renderDialEmboss(
-    final GraphicsContext g,
-    final double width,
-    final double height,
-    final double gaugeSize)
-  {
-    final var color = this.embossColor.getValue();
-    Objects.requireNonNull(color, "color");
-    final var size = this.embossSize.getValue();
-    Objects.requireNonNull(size, "size");
-
-    final var sizeD = size.doubleValue();
-    g.setFill(null);
-    g.setStroke(color);
-    g.setLineWidth(sizeD);
-    g.strokeOval(
-      gaugeSize + sizeD,
-      gaugeSize + sizeD,
-      width - ((2.0 * sizeD) + (gaugeSize * 2.0)),
-      height - ((2.0 * sizeD) + (gaugeSize * 2.0)));
-  }
-
-  private void renderDialBody(
-    final GraphicsContext g,
-    final double width,
-    final double height,
-    final double gaugeSize)
-  {
-    final var fillColor = this.bodyColor.getValue();
-    Objects.requireNonNull(fillColor, "fillColor");
-    final var strokeColor = this.bodyStrokeColor.getValue();
-    Objects.requireNonNull(strokeColor, "strokeColor");
-    final var strokeSize = this.bodyStrokeSize.getValue();
-    Objects.requireNonNull(strokeSize, "strokeSize");
-
-    g.setFill(fillColor);
-    g.setStroke(strokeColor);
-    g.setLineWidth(strokeSize.doubleValue());
-
-    g.fillOval(
-      gaugeSize,
-      gaugeSize,
-      width - (gaugeSize * 2.0),
-      height - (gaugeSize * 2.0));
-    g.strokeOval(
-      gaugeSize,
-      gaugeSize,
-      width - (gaugeSize * 2.0),
-      height - (gaugeSize * 2.0));
-  }
-
-  private void renderTickMarks(
-    final GraphicsContext g,
-    final double halfWidth,
-    final double halfHeight)
-  {
-    g.save();
-    try {
-      final var color = this.tickColor.getValue();
-      Objects.requireNonNull(color, "color");
-      final var size = this.tickSize.getValue();
-      Objects.requireNonNull(color, "size");
-
-      g.setFill(null);
-      g.setStroke(color);
-      g.setLineWidth(size.doubleValue());
-      g.setLineCap(StrokeLineCap.ROUND);
-      g.translate(halfWidth, halfHeight);
-
-      final var count = this.tickCount.get();
-      final var tickDelta = 270.0 / (double) count;
-
-      g.rotate(-225.0);
-      for (int index = 0; index <= count; ++index) {
-        g.strokeLine(0.0, 0.5, halfWidth, 0.5);
-        g.rotate(tickDelta);
-      }
-
-    } finally {
-      g.restore();
-    }
-  }
-
-  private void renderShadow(
-    final GraphicsContext g,
-    final double width,
-    final double height)
-  {
-    final var color = this.shadeColor.getValue();
-    Objects.requireNonNull(color, "color");
-
-    g.setStroke(null);
-    g.setFill(color);
-    g.fillOval(0.0, 0.0, width, height);
-  }
-
-  private void renderRadialGauge(
-    final GraphicsContext g,
-    final double width,
-    final double height,
-    final double valueNow)
-  {
-    final var color = this.radialGaugeColor.getValue();
-    Objects.requireNonNull(color, "color");
-
-    final var arcExtent = -(valueNow * 270.0);
-    g.setStroke(null);
-    g.setFill(color);
-    g.fillArc(
-      0.0, 0.0, width, height, 225.0, arcExtent, ArcType.ROUND
-    );
-  }
-
   /**
    * Set the raw value of the dial, in the range {@code [0,1]}. If the user is
    * currently dragging the dial, the update will be ignored. Observers of the
@@ -522,6 +748,7 @@ public final class DialControl extends Region
    *
    * @param x The value
    *
+   * @throws IllegalStateException If this dial is a meter
    * @see #rawValue()
    * @see #convertedValue()
    */
@@ -529,11 +756,12 @@ public final class DialControl extends Region
   public void setRawValueQuietly(
     final double x)
   {
-    if (this.dragging) {
+    this.checkNotMeter();
+    if (this.input.isDragging()) {
       return;
     }
 
-    this.setInternalRawValue(x);
+    this.model.setRawValueQuietly(x);
   }
 
   /**
@@ -543,6 +771,7 @@ public final class DialControl extends Region
    *
    * @param x The value
    *
+   * @throws IllegalStateException If this dial is a meter
    * @see #rawValue()
    * @see #convertedValue()
    */
@@ -550,12 +779,12 @@ public final class DialControl extends Region
   public void setRawValue(
     final double x)
   {
-    if (this.dragging) {
+    this.checkNotMeter();
+    if (this.input.isDragging()) {
       return;
     }
 
-    this.setInternalRawValue(x);
-    this.setExternalRawValue(x);
+    this.model.setRawValue(x);
   }
 
   /**
@@ -565,13 +794,15 @@ public final class DialControl extends Region
    *
    * @param x The display value
    *
+   * @throws IllegalStateException If this dial is a meter
    * @see #setValueConverter(DialValueConverterType)
    */
 
   public void setConvertedValueQuietly(
     final double x)
   {
-    this.setRawValueQuietly(this.doConversionToDial(x));
+    this.checkNotMeter();
+    this.setRawValueQuietly(DialConversions.toDial(this.model.valueConverter(), x));
   }
 
   /**
@@ -580,43 +811,56 @@ public final class DialControl extends Region
    *
    * @param x The display value
    *
+   * @throws IllegalStateException If this dial is a meter
    * @see #setValueConverter(DialValueConverterType)
    */
 
   public void setConvertedValue(
     final double x)
   {
-    this.setRawValue(this.doConversionToDial(x));
+    this.checkNotMeter();
+    this.setRawValue(DialConversions.toDial(this.model.valueConverter(), x));
   }
 
   /**
    * @return The current raw value
+   *
+   * @throws IllegalStateException If this dial is a meter
    */
 
   public double getRawValue()
   {
-    return this.internalValueRaw.getValue().doubleValue();
+    this.checkNotMeter();
+    return this.model.getRawValue();
   }
 
   /**
    * @return The current converted value
+   *
+   * @throws IllegalStateException If this dial is a meter
    */
 
   public double getConvertedValue()
   {
-    return this.internalValueConverted.getValue().doubleValue();
+    this.checkNotMeter();
+    return this.model.getConvertedValue();
   }
 
-  private void setInternalRawValue(
-    final double x)
+  private void setExternalRawValueRecorded(
+    final double valueOld,
+    final double valueNew)
   {
-    this.internalValueRaw.set(clampNormal(x));
-  }
-
-  private void setExternalRawValue(
-    final double x)
-  {
-    this.externalValueRaw.set(clampNormal(x));
+    final var event = new DialJFRValueChangeEvent();
+    event.begin();
+    this.externalValueRaw.set(valueNew);
+    event.end();
+
+    if (event.shouldCommit()) {
+      event.setDialId(this.getId());
+      event.setDialIdentity(System.identityHashCode(this));
+      event.setValues(valueOld, valueNew);
+      event.commit();
+    }
   }
 
   /**
@@ -634,20 +878,25 @@ public final class DialControl extends Region
    * @return The current dial value converted according to the registered value
    * converter
    *
+   * @throws IllegalStateException If this dial is a meter
    * @see #setValueConverter(DialValueConverterType)
    */
 
   public ReadOnlyDoubleProperty convertedValue()
   {
+    this.checkNotMeter();
     return this.externalValueConverted;
   }
 
   /**
    * @return The current raw dial value
+   *
+   * @throws IllegalStateException If this dial is a meter
    */
 
   public ReadOnlyDoubleProperty rawValue()
   {
+    this.checkNotMeter();
     return this.externalValueRaw;
   }
 
@@ -655,161 +904,431 @@ public final class DialControl extends Region
    * Set the value converter for the dial.
    *
    * @param f The value converter
+   *
+   * @throws IllegalStateException If this dial is a meter
    */
 
   public void setValueConverter(
     final DialValueConverterType f)
   {
-    this.converter = Objects.requireNonNull(f, "f");
+    this.checkNotMeter();
+    this.model.setValueConverter(f);
   }
 
-  private void onMousePressed(
-    final MouseEvent mouseEvent)
+  /**
+   * Set the width of the hysteresis band used when dragging a dial with a
+   * snapping converter. A drag that would change the snapped value is only
+   * applied once the raw value has moved past the boundary by at least
+   * {@code band}. Programmatic changes and scrolling are not affected. A
+   * band of {@code 0.0} (the default) disables hysteresis. Hysteresis
+   * requires evaluating the converter on the FX application thread, and so
+   * it is not applied while conversions are asynchronous.
+   *
+   * @param band The band width in raw units, in the range {@code [0, 1)}
+   *
+   * @throws IllegalStateException If this dial is a meter
+   * @see com.io7m.digal.model.DialConversions#isSnapping(DialValueConverterType)
+   */
+
+  public void setSnapHysteresis(
+    final double band)
   {
-    if (mouseEvent.getButton() != MouseButton.PRIMARY) {
-      return;
+    this.checkNotMeter();
+    if (!(band >= 0.0 && band < 1.0)) {
+      throw new IllegalArgumentException(
+        "Band %f must be in the range [0, 1)".formatted(Double.valueOf(band))
+      );
     }
+    this.input.setSnapHysteresis(band);
+  }
+
+  /**
+   * @return The width of the snapping hysteresis band in raw units
+   *
+   * @throws IllegalStateException If this dial is a meter
+   */
 
-    this.dragging = true;
-    this.dragYThen = mouseEvent.getSceneY();
+  public double getSnapHysteresis()
+  {
+    this.checkNotMeter();
+    return this.input.snapHysteresis();
   }
 
-  private void onMouseDragged(
-    final MouseEvent mouseEvent)
+  /**
+   * <p>Evaluate value conversions asynchronously on the given executor.</p>
+   *
+   * <p>This is intended for use with converters that are too expensive to
+   * evaluate on the FX application thread. When the dial value changes, the
+   * conversion is submitted to the executor and the dial continues to display
+   * the most recently converted value until the conversion completes. If the
+   * dial value changes again before a conversion completes, the older
+   * conversion is discarded; the converted value properties only ever reflect
+   * the newest dial value. Converters used in this mode must be safe to call
+   * from threads other than the FX application thread. If a conversion
+   * fails, the converted value properties retain their previous values,
+   * and the exception is rethrown on the FX application thread, where it
+   * reaches the thread's uncaught exception handler.</p>
+   *
+   * @param executor The executor
+   *
+   * @throws IllegalStateException If this dial is a meter
+   * @see #setConversionSynchronous()
+   * @see java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor()
+   */
+
+  public void setConversionAsynchronous(
+    final Executor executor)
   {
-    if (mouseEvent.getButton() != MouseButton.PRIMARY) {
-      return;
-    }
+    this.checkNotMeter();
+    this.model.setConversionAsynchronous(executor, Platform::runLater);
+  }
 
-    /*
-     * Dragging a dial updates both the internal and external value.
-     */
+  /**
+   * Record input-to-display latencies for this dial into the given recorder.
+   *
+   * @param recorder The recorder
+   *
+   * @see #clearLatencyRecorder()
+   */
+
+  public void setLatencyRecorder(
+    final DialLatencyRecorder recorder)
+  {
+    this.latencyRecorder = Objects.requireNonNull(recorder, "recorder");
+  }
+
+  /**
+   * Stop recording input-to-display latencies for this dial.
+   *
+   * @see #setLatencyRecorder(DialLatencyRecorder)
+   */
 
-    this.dragging = true;
+  public void clearLatencyRecorder()
+  {
+    this.latencyRecorder = null;
+    this.latencyPending = false;
+  }
 
-    final var dragYNow =
-      mouseEvent.getSceneY();
-    final var delta =
-      dragYNow - this.dragYThen;
+  /**
+   * Evaluate value conversions synchronously on the FX application thread.
+   * This is the default. Any asynchronous conversions that are in progress
+   * are discarded, and the converted values are recomputed immediately.
+   *
+   * @throws IllegalStateException If this dial is a meter
+   * @see #setConversionAsynchronous(Executor)
+   */
 
-    final var valueThen =
-      this.internalValueRaw.get();
+  public void setConversionSynchronous()
+  {
+    this.checkNotMeter();
+    this.model.setConversionSynchronous();
+  }
 
-    final double valueNow;
-    if (delta > (double) 0) {
-      valueNow = valueThen - DRAG_DELTA;
-    } else {
-      valueNow = valueThen + DRAG_DELTA;
-    }
+  DialValueConverterType valueConverter()
+  {
+    this.checkNotMeter();
+    return this.model.valueConverter();
+  }
+
+  int batchIndexFor(
+    final DialBatch owner)
+  {
+    return this.batch == owner ? this.batchIndex : -1;
+  }
 
-    this.setInternalRawValue(valueNow);
-    this.setExternalRawValue(valueNow);
+  DialBatch batchOwner()
+  {
+    return this.batch;
+  }
+
+  void setBatchIndex(
+    final DialBatch owner,
+    final int index)
+  {
+    this.batch = owner;
+    this.batchIndex = index;
+  }
 
-    this.dragYThen = dragYNow;
+  void onInputReceived()
+  {
+    if (this.latencyRecorder != null) {
+      this.latencyInputTime = System.nanoTime();
+    }
   }
 
-  private void onMouseReleased(
-    final MouseEvent mouseEvent)
+  void onInputProcessed(
+    final boolean changed)
   {
-    if (mouseEvent.getButton() != MouseButton.PRIMARY) {
+    final var recorder = this.latencyRecorder;
+    if (recorder == null || !changed) {
       return;
     }
 
-    this.dragging = false;
+    recorder.record(
+      DialLatencyStage.NOTIFIED,
+      System.nanoTime() - this.latencyInputTime
+    );
+
+    if (!this.latencyPending) {
+      this.latencyPending = true;
+      this.latencyPendingTime = this.latencyInputTime;
+    }
   }
 
-  private void onMouseScrolled(
-    final ScrollEvent scrollEvent)
+  private void onLatencyPresented()
   {
-    final var valueThen =
-      this.internalValueRaw.get();
+    final var recorder = this.latencyRecorder;
+    if (recorder != null && this.latencyPending) {
+      recorder.record(
+        DialLatencyStage.PRESENTED,
+        System.nanoTime() - this.latencyPendingTime
+      );
+    }
+    this.latencyPending = false;
+  }
 
-    final var delta =
-      scrollEvent.getDeltaY();
+  private void onSceneChanged(
+    final Scene sceneOld,
+    final Scene sceneNew)
+  {
+    if (sceneOld != null) {
+      sceneOld.removePostLayoutPulseListener(this.pulseListener);
 
-    final double valueNow;
-    if (delta > 0.0) {
-      valueNow = this.doConversionToNextDial(valueThen);
-    } else if (delta < 0.0) {
-      valueNow = this.doConversionToPreviousDial(valueThen);
-    } else {
+      final var budget = DialCanvasBudget.active();
+      if (budget != null && sceneNew == null) {
+        budget.onReleased(this, this.releaseCanvas());
+      }
+    }
+    if (sceneNew != null) {
+      sceneNew.addPostLayoutPulseListener(this.pulseListener);
+      if (this.redrawPending) {
+        Platform.requestNextPulse();
+      }
+    }
+  }
+
+  private void onPulse()
+  {
+    this.updatePeak();
+
+    if (this.redrawPending) {
+
+      /*
+       * A dial that is not currently displayed keeps its redraw pending,
+       * and requests no further pulses. Any change that could make the
+       * dial visible again (showing the window, making an ancestor
+       * visible, scrolling) causes a pulse, at which point the dial
+       * catches up with a single redraw.
+       */
+
+      if (!this.isDisplayed()) {
+        return;
+      }
+
+      this.redrawPending = false;
+      this.redrawNow(this.redrawPendingCause);
+
+      /*
+       * The frame containing the redraw has been presented once the pulse
+       * has completed, which is the earliest point at which a runnable
+       * submitted now can execute.
+       */
+
+      if (this.latencyPending) {
+        Platform.runLater(this.latencyPresented);
+      }
+    }
+  }
+
+  boolean isDisplayed()
+  {
+    return DialVisibility.isDisplayed(this);
+  }
+
+  private void redraw(
+    final DialRedrawCause cause)
+  {
+    /*
+     * Only value changes can be drawn as partial redraws; anything else
+     * forces the next redraw to repaint the whole dial.
+     */
+
+    if (cause != DialRedrawCause.VALUE && cause != DialRedrawCause.CONVERSION) {
+      this.drawnValid = false;
+    }
+
+    if (this.getScene() == null) {
+      this.redrawNow(cause);
       return;
     }
 
-    this.setInternalRawValue(valueNow);
-    this.setExternalRawValue(valueNow);
+    this.redrawPendingCause = cause;
+    if (!this.redrawPending) {
+      this.redrawPending = true;
+      Platform.requestNextPulse();
+    }
   }
 
-  private double doConversionToPreviousDial(
-    final double x)
+  private void redrawNow(
+    final DialRedrawCause cause)
   {
-    if (this.converter instanceof DialValueConverterDiscreteType discrete) {
-      return discrete.convertToDial(
-        discrete.convertedPrevious(discrete.convertFromDial(x))
-      );
+    if (DialJFR.REDRAW.isEnabled()) {
+      this.redrawRecorded(cause);
+    } else {
+      this.redrawTimed();
     }
-    if (this.converter instanceof DialValueConverterRealType real) {
-      return real.convertToDial(
-        real.convertedPrevious(real.convertFromDial(x))
-      );
+  }
+
+  private boolean redrawTimed()
+  {
+    final var metrics = DialMetrics.active();
+    if (metrics != null) {
+      final var timeThen = System.nanoTime();
+      final var partial = this.redrawActual();
+      metrics.onRedraw(System.nanoTime() - timeThen);
+      return partial;
     }
-    throw new IllegalStateException("Unrecognized converter.");
+    return this.redrawActual();
   }
 
-  private double doConversionToNextDial(
-    final double x)
+  private void redrawRecorded(
+    final DialRedrawCause cause)
   {
-    if (this.converter instanceof DialValueConverterDiscreteType discrete) {
-      return discrete.convertToDial(
-        discrete.convertedNext(discrete.convertFromDial(x))
-      );
+    final var event = new DialJFRRedrawEvent();
+    event.begin();
+    final var partial = this.redrawTimed();
+    event.end();
+    if (event.shouldCommit()) {
+      event.setDialId(this.getId());
+      event.setDialIdentity(System.identityHashCode(this));
+      event.setWidth(this.getWidth());
+      event.setHeight(this.getHeight());
+      event.setTickCount(this.renderer.tickCount());
+      event.setCause(cause.name());
+      event.setPartial(partial);
+      event.commit();
     }
-    if (this.converter instanceof DialValueConverterRealType real) {
-      return real.convertToDial(
-        real.convertedNext(real.convertFromDial(x))
-      );
+  }
+
+  /**
+   * Release the backing store of the canvas. The dial is redrawn (and the
+   * canvas regenerated) the next time it is displayed.
+   *
+   * @return The estimated size of the released canvas
+   */
+
+  long releaseCanvas()
+  {
+    final var bytes = this.canvasBytes;
+    this.canvasBytes = 0L;
+    this.canvasReleased = true;
+    this.drawnValid = false;
+    this.canvas.setWidth(0.0);
+    this.canvas.setHeight(0.0);
+    this.redrawPending = true;
+    return bytes;
+  }
+
+  DialCanvasBudget.Resident budgetResident()
+  {
+    return this.budgetResident;
+  }
+
+  void setBudgetResident(
+    final DialCanvasBudget.Resident resident)
+  {
+    this.budgetResident = resident;
+  }
+
+  private void accountCanvas(
+    final DialCanvasBudget budget,
+    final double width,
+    final double height)
+  {
+    final var scene = this.getScene();
+    if (scene == null) {
+      return;
     }
-    throw new IllegalStateException("Unrecognized converter.");
+
+    final var window = scene.getWindow();
+    final var scaleX = window != null ? window.getRenderScaleX() : 1.0;
+    final var scaleY = window != null ? window.getRenderScaleY() : 1.0;
+    final var bytesOld = this.canvasBytes;
+    final var bytesNew =
+      DialCanvasBudget.canvasBytes(width, height, scaleX, scaleY);
+    final var regenerated = this.canvasReleased;
+
+    this.canvasBytes = bytesNew;
+    this.canvasReleased = false;
+    budget.onDrawn(this, bytesOld, bytesNew, regenerated);
   }
 
-  private void redraw()
+  private boolean redrawActual()
   {
     final var g = this.canvas.getGraphicsContext2D();
 
     final var width = this.getWidth();
     final var height = this.getHeight();
-    final var halfWidth = width / 2.0;
-    final var halfHeight = height / 2.0;
 
     this.canvas.setWidth(width);
     this.canvas.setHeight(height);
     this.clip.setWidth(width);
     this.clip.setHeight(height);
 
-    final var radialGaugeSizeV = this.radialGaugeSize.getValue();
-    Objects.requireNonNull(radialGaugeSizeV, "radialGaugeSizeV");
-    final var gaugeSize = radialGaugeSizeV.doubleValue();
+    final var budget = DialCanvasBudget.active();
+    if (budget != null) {
+      this.accountCanvas(budget, width, height);
+    }
 
-    g.clearRect(0.0, 0.0, width, height);
+    if (width <= 0.0 || height <= 0.0) {
+      this.drawnValid = false;
+      return false;
+    }
 
     /*
-     * Take the converted value and convert it back to a raw value. The
-     * reason for doing this is that the converter may apply some kind of
-     * value snapping (such as snapping to integer values), and we want the
-     * dial to visually snap to values.
+     * The displayed position is the converted value converted back to a raw
+     * value. The reason for doing this is that the converter may apply some
+     * kind of value snapping (such as snapping to integer values), and we
+     * want the dial to visually snap to values.
      */
 
-    final var ic =
-      this.internalValueConverted.get();
     final var valueNow =
-      this.doConversionToDial(ic);
+      this.meter ? this.meterPosition : this.model.getDisplayedPosition();
+    final var peak =
+      this.getMeterPeak();
 
-    this.renderRadialGauge(g, width, height, valueNow);
-    this.renderShadow(g, width, height);
-    this.renderTickMarks(g, halfWidth, halfHeight);
-    this.renderDialBody(g, width, height, gaugeSize);
-    this.renderDialEmboss(g, width, height, gaugeSize);
-    this.renderDialIndicator(g, halfWidth, halfHeight, gaugeSize, valueNow);
+    /*
+     * A canvas only discards its command buffer when it is presented or
+     * entirely cleared. Dials that are not in a scene are never presented,
+     * so partial redraws would grow the buffer without bound.
+     */
+
+    final var reusable =
+      this.drawnValid && this.getScene() != null;
+    final var partial =
+      reusable
+      && width == this.drawnWidth
+      && height == this.drawnHeight
+      && this.renderer.renderPartial(
+        g, width, height, this.drawnPosition, valueNow, peak);
+
+    if (!partial) {
+
+      /*
+       * Clearing the entire canvas with an identity transform discards the
+       * canvas's pending command buffer rather than growing it. JavaFX
+       * allocates a fresh graphics state when it does this.
+       */
+
+      g.clearRect(0.0, 0.0, width, height);
+      this.renderer.renderLayers(g, width, height, valueNow, peak);
+    }
+
+    this.drawnValid = true;
+    this.drawnWidth = width;
+    this.drawnHeight = height;
+    this.drawnPosition = valueNow;
+    return partial;
   }
 
   /**
@@ -829,20 +1348,117 @@ public final class DialControl extends Region
    * @return The current (internal) dial value converted according to the
    * registered value converter
    *
+   * @throws IllegalStateException If this dial is a meter
    * @see #setValueConverter(DialValueConverterType)
    */
 
   public ReadOnlyDoubleProperty internalConvertedValue()
   {
+    this.checkNotMeter();
     return this.internalValueConverted;
   }
 
   /**
    * @return The current (internal) raw dial value
+   *
+   * @throws IllegalStateException If this dial is a meter
    */
 
   public ReadOnlyDoubleProperty internalRawValue()
   {
+    this.checkNotMeter();
     return this.internalValueRaw;
   }
+
+  /**
+   * <p>Add a listener that is notified when one of the values of the dial
+   * changes. The value is selected by the corresponding model change:
+   * {@link DialModelChange#EXTERNAL_VALUE} for {@link #rawValue()},
+   * {@link DialModelChange#EXTERNAL_VALUE_CONVERTED} for
+   * {@link #convertedValue()}, {@link DialModelChange#VALUE} for
+   * {@link #internalRawValue()}, and {@link DialModelChange#VALUE_CONVERTED}
+   * for {@link #internalConvertedValue()}.</p>
+   *
+   * <p>Unlike listeners added to the value properties, the listener receives
+   * primitive values, and notifying it does not allocate. Listeners are
+   * notified after the corresponding property has been updated, in the order
+   * that they were added.</p>
+   *
+   * @param value    The value
+   * @param listener The listener
+   *
+   * @throws IllegalStateException If this dial is a meter
+   */
+
+  public void addValueListener(
+    final DialModelChange value,
+    final DialValueListenerType listener)
+  {
+    this.checkNotMeter();
+    this.valueListeners.add(Objects.requireNonNull(value, "value"), listener);
+  }
+
+  /**
+   * Remove a listener added with
+   * {@link #addValueListener(DialModelChange, DialValueListenerType)}, if it
+   * has been added.
+   *
+   * @param value    The value
+   * @param listener The listener
+   *
+   * @throws IllegalStateException If this dial is a meter
+   */
+
+  public void removeValueListener(
+    final DialModelChange value,
+    final DialValueListenerType listener)
+  {
+    this.checkNotMeter();
+    this.valueListeners.remove(Objects.requireNonNull(value, "value"), listener);
+  }
+
+  /**
+   * Add a listener that is notified when one of the converted values of the
+   * dial changes by at least one whole unit, as is the case with discrete
+   * converters such as {@code DialBoundedLongConverter}. The listener
+   * receives the values rounded to the nearest integer.
+   *
+   * @param value    The value, which must be
+   *                 {@link DialModelChange#EXTERNAL_VALUE_CONVERTED} or
+   *                 {@link DialModelChange#VALUE_CONVERTED}
+   * @param listener The listener
+   *
+   * @throws IllegalArgumentException If the value is not a converted value
+   * @throws IllegalStateException If this dial is a meter
+   * @see #addValueListener(DialModelChange, DialValueListenerType)
+   */
+
+  public void addDiscreteValueListener(
+    final DialModelChange value,
+    final DialDiscreteValueListenerType listener)
+  {
+    this.checkNotMeter();
+    this.valueListeners.addDiscrete(
+      Objects.requireNonNull(value, "value"), listener);
+  }
+
+  /**
+   * Remove a listener added with
+   * {@link #addDiscreteValueListener(DialModelChange,
+   * DialDiscreteValueListenerType)}, if it has been added.
+   *
+   * @param value    The value
+   * @param listener The listener
+   *
+   * @throws IllegalStateException If this dial is a meter
+   */
+
+  public void removeDiscreteValueListener(
+    final DialModelChange value,
+    final DialDiscreteValueListenerType listener)
+  {
+    this.checkNotMeter();
+    this.valueListeners.removeDiscrete(
+      Objects.requireNonNull(value, "value"), listener);
+  }
 }
@@ -46,6 +46,8 @@ public final class DialControlLabelled extends VBox
   private final DialControl dial;
   private final TextField text;
   private final ObjectProperty<Function<Number, String>> valueFormatter;
+  private Function<Number, String> textFormatter;
+  private double textValue;
 
   /**
    * A dial with a labelText and text field.
@@ -105,12 +107,41 @@ public final class DialControlLabelled extends VBox
     this.dial.prefHeightProperty()
       .bind(this.dial.widthProperty());
 
-    this.text.textProperty()
-      .bind(this.dial.internalConvertedValue()
-              .map(number -> this.valueFormatter.get().apply(number)));
+    /*
+     * The text field is only updated when the displayed value or the
+     * formatter actually changes; formatting allocates, and the dial's
+     * converted value is invalidated far more often than it changes.
+     */
+
+    this.dial.internalConvertedValue()
+      .addListener(o -> this.updateText());
+    this.valueFormatter.addListener(o -> this.updateText());
+    this.updateText();
 
     this.getChildren()
       .addAll(this.label, this.dial, this.text);
+
+    final var metrics = DialMetrics.active();
+    if (metrics != null) {
+      metrics.onLabelledCreated(this);
+    }
+  }
+
+  private void updateText()
+  {
+    final var value =
+      this.dial.internalConvertedValue().get();
+    final var formatter =
+      this.valueFormatter.get();
+
+    if (formatter == this.textFormatter
+        && Double.compare(value, this.textValue) == 0) {
+      return;
+    }
+
+    this.textFormatter = formatter;
+    this.textValue = value;
+    this.text.setText(formatter.apply(Double.valueOf(value)));
   }
 
   /**
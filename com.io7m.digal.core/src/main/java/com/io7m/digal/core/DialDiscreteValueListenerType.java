@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+/**
+ * A listener that is notified of changes to one of the converted values of
+ * a dial with a discrete converter, without boxing the values. Converted
+ * values are rounded to the nearest integer, and the listener is only
+ * notified when the rounded value changes.
+ *
+ * @see DialControl#addDiscreteValueListener(
+ * com.io7m.digal.model.DialModelChange, DialDiscreteValueListenerType)
+ */
+
+public interface DialDiscreteValueListenerType
+{
+  /**
+   * The value changed.
+   *
+   * @param dial     The dial
+   * @param oldValue The old value
+   * @param newValue The new value
+   */
+
+  void onValueChanged(
+    DialControl dial,
+    long oldValue,
+    long newValue);
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialModelChange;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A dispatcher that delivers changes to one of the values of a dial to
+ * listeners on an executor, rather than on the FX application thread. This
+ * is intended for expensive consumers of values, such as listeners that
+ * serialize state or send commands to external systems, that would
+ * otherwise stall input and rendering.</p>
+ *
+ * <p>Listeners are called by at most one thread at a time, and see values
+ * in the order in which they were set on the dial. If the listeners fall
+ * behind, intermediate values are conflated: the listeners are called once
+ * with the most recent value, and the old value passed to them is the value
+ * that they were last given. Listeners must not access the dial other than
+ * by handing work to the FX application thread.</p>
+ */
+
+public final class DialDispatcher implements AutoCloseable
+{
+  private static final Executor VIRTUAL_THREADS =
+    Executors.newVirtualThreadPerTaskExecutor();
+
+  private static final DialValueListenerType[] NO_LISTENERS =
+    new DialValueListenerType[0];
+
+  private final DialControl dial;
+  private final DialModelChange change;
+  private final Executor executor;
+  private final DialValueListenerType localListener;
+  private final Runnable drainTask;
+  private final AtomicLong latest;
+  private final AtomicBoolean scheduled;
+  private final Object listenersLock;
+  private volatile DialValueListenerType[] listeners;
+  private volatile boolean closed;
+  private volatile long submitted;
+  private volatile long delivered;
+  private boolean started;
+  private double valueDelivered;
+
+  private DialDispatcher(
+    final DialControl inDial,
+    final DialModelChange inChange,
+    final Executor inExecutor)
+  {
+    this.dial = Objects.requireNonNull(inDial, "dial");
+    this.change = Objects.requireNonNull(inChange, "change");
+    this.executor = Objects.requireNonNull(inExecutor, "executor");
+    this.localListener = this::onLocalChange;
+    this.drainTask = this::drain;
+    this.latest = new AtomicLong();
+    this.scheduled = new AtomicBoolean();
+    this.listenersLock = new Object();
+    this.listeners = NO_LISTENERS;
+  }
+
+  /**
+   * Create a dispatcher that delivers changes on virtual threads. Must be
+   * called on the FX application thread.
+   *
+   * @param dial   The dial
+   * @param change The kind of change
+   *
+   * @return A dispatcher
+   */
+
+  public static DialDispatcher create(
+    final DialControl dial,
+    final DialModelChange change)
+  {
+    return create(dial, change, VIRTUAL_THREADS);
+  }
+
+  /**
+   * Create a dispatcher that delivers changes on the given executor. Must
+   * be called on the FX application thread.
+   *
+   * @param dial     The dial
+   * @param change   The kind of change
+   * @param executor The executor
+   *
+   * @return A dispatcher
+   */
+
+  public static DialDispatcher create(
+    final DialControl dial,
+    final DialModelChange change,
+    final Executor executor)
+  {
+    final var dispatcher = new DialDispatcher(dial, change, executor);
+    dial.addValueListener(change, dispatcher.localListener);
+    return dispatcher;
+  }
+
+  /**
+   * @return The dial
+   */
+
+  public DialControl dial()
+  {
+    return this.dial;
+  }
+
+  /**
+   * @return The kind of change that is dispatched
+   */
+
+  public DialModelChange change()
+  {
+    return this.change;
+  }
+
+  /**
+   * @return The number of changes received from the dial
+   */
+
+  public long submittedTotal()
+  {
+    return this.submitted;
+  }
+
+  /**
+   * @return The number of values delivered to the listeners
+   */
+
+  public long deliveredTotal()
+  {
+    return this.delivered;
+  }
+
+  /**
+   * Add a listener. This method may be called from any thread.
+   *
+   * @param listener The listener
+   */
+
+  public void addListener(
+    final DialValueListenerType listener)
+  {
+    Objects.requireNonNull(listener, "listener");
+
+    synchronized (this.listenersLock) {
+      final var existing = this.listeners;
+      final var updated = Arrays.copyOf(existing, existing.length + 1);
+      updated[existing.length] = listener;
+      this.listeners = updated;
+    }
+  }
+
+  /**
+   * Remove a listener. This method may be called from any thread. A
+   * delivery that is already in progress may still call the listener.
+   *
+   * @param listener The listener
+   */
+
+  public void removeListener(
+    final DialValueListenerType listener)
+  {
+    Objects.requireNonNull(listener, "listener");
+
+    synchronized (this.listenersLock) {
+      final var existing = this.listeners;
+      for (int index = 0; index < existing.length; ++index) {
+        if (existing[index] == listener) {
+          final var updated = new DialValueListenerType[existing.length - 1];
+          System.arraycopy(existing, 0, updated, 0, index);
+          System.arraycopy(
+            existing, index + 1, updated, index, updated.length - index);
+          this.listeners = updated;
+          return;
+        }
+      }
+    }
+  }
+
+  private void onLocalChange(
+    final DialControl source,
+    final double oldValue,
+    final double newValue)
+  {
+    /*
+     * The first delivery reports the value that the dial had before the
+     * first change. No drain can be running yet, and submitting the drain
+     * publishes the value to it.
+     */
+
+    if (!this.started) {
+      this.started = true;
+      this.valueDelivered = oldValue;
+    }
+
+    this.latest.set(Double.doubleToRawLongBits(newValue));
+    ++this.submitted;
+
+    if (this.scheduled.compareAndSet(false, true)) {
+      this.executor.execute(this.drainTask);
+    }
+  }
+
+  private void drain()
+  {
+    do {
+      try {
+        this.deliver();
+      } finally {
+        this.scheduled.set(false);
+      }
+    } while (this.isBehind() && this.scheduled.compareAndSet(false, true));
+  }
+
+  private boolean isBehind()
+  {
+    final var valueNow = Double.longBitsToDouble(this.latest.get());
+    return !this.closed && Double.compare(this.valueDelivered, valueNow) != 0;
+  }
+
+  private void deliver()
+  {
+    final var valueThen = this.valueDelivered;
+    final var valueNow = Double.longBitsToDouble(this.latest.get());
+    if (this.closed || Double.compare(valueThen, valueNow) == 0) {
+      return;
+    }
+
+    this.valueDelivered = valueNow;
+    ++this.delivered;
+
+    for (final var listener : this.listeners) {
+      listener.onValueChanged(this.dial, valueThen, valueNow);
+    }
+  }
+
+  /**
+   * Stop dispatching changes. Values that have not yet been delivered are
+   * discarded. Must be called on the FX application thread.
+   */
+
+  @Override
+  public void close()
+  {
+    if (this.closed) {
+      return;
+    }
+
+    this.closed = true;
+    this.dial.removeValueListener(this.change, this.localListener);
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A concurrent histogram of non-negative {@code long} values.</p>
+ *
+ * <p>Values are counted in log-linear buckets in the style of HdrHistogram:
+ * each power of two is divided into eight equally sized sub-buckets, so any
+ * recorded value is reported with a relative error of at most
+ * {@code 1/8}. Each bucket is a striped counter, so recording values from
+ * many threads does not contend on a single memory location.</p>
+ */
+
+final class DialHistogram
+{
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final LongAdder[] counts;
+  private final LongAdder total;
+  private final LongAdder sum;
+
+  DialHistogram()
+  {
+    this.counts = new LongAdder[BUCKETS];
+    for (int index = 0; index < BUCKETS; ++index) {
+      this.counts[index] = new LongAdder();
+    }
+    this.total = new LongAdder();
+    this.sum = new LongAdder();
+  }
+
+  static int bucketOf(
+    final long value)
+  {
+    final var v = Math.max(0L, value);
+    if (v < (long) SUB_BUCKETS) {
+      return (int) v;
+    }
+
+    final var exponent = 63 - Long.numberOfLeadingZeros(v);
+    final var shift = exponent - SUB_BUCKET_BITS;
+    final var mantissa = (int) ((v >>> shift) & (long) (SUB_BUCKETS - 1));
+    return ((shift + 1) * SUB_BUCKETS) + mantissa;
+  }
+
+  static long bucketLowerBound(
+    final int bucket)
+  {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+
+    final var shift = (bucket / SUB_BUCKETS) - 1;
+    final var mantissa = (long) ((bucket % SUB_BUCKETS) + SUB_BUCKETS);
+    return mantissa << shift;
+  }
+
+  static long bucketUpperBound(
+    final int bucket)
+  {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+
+    final var shift = (bucket / SUB_BUCKETS) - 1;
+    return bucketLowerBound(bucket) + ((1L << shift) - 1L);
+  }
+
+  /**
+   * Record a value.
+   *
+   * @param value The value
+   */
+
+  void record(
+    final long value)
+  {
+    this.counts[bucketOf(value)].increment();
+    this.total.increment();
+    this.sum.add(Math.max(0L, value));
+  }
+
+  /**
+   * @return The number of recorded values
+   */
+
+  long count()
+  {
+    return this.total.sum();
+  }
+
+  /**
+   * @return The mean of the recorded values, or {@code 0} if nothing has been
+   * recorded
+   */
+
+  double mean()
+  {
+    final var n = this.total.sum();
+    if (n == 0L) {
+      return 0.0;
+    }
+    return (double) this.sum.sum() / (double) n;
+  }
+
+  /**
+   * Copy the current bucket counts.
+   *
+   * @return The bucket counts
+   */
+
+  long[] buckets()
+  {
+    final var result = new long[BUCKETS];
+    for (int index = 0; index < BUCKETS; ++index) {
+      result[index] = this.counts[index].sum();
+    }
+    return result;
+  }
+
+  /**
+   * Determine the value at the given quantile of a set of bucket counts.
+   * The upper bound of the bucket containing the quantile is returned.
+   *
+   * @param buckets  The bucket counts
+   * @param quantile The quantile in the range {@code [0, 1]}
+   *
+   * @return The value at the quantile, or {@code 0} if the buckets are empty
+   */
+
+  static long quantileOf(
+    final long[] buckets,
+    final double quantile)
+  {
+    long n = 0L;
+    for (final var count : buckets) {
+      n += count;
+    }
+    if (n == 0L) {
+      return 0L;
+    }
+
+    final var q = Math.min(Math.max(0.0, quantile), 1.0);
+    final var rank = Math.max(1L, (long) Math.ceil(q * (double) n));
+
+    long seen = 0L;
+    for (int index = 0; index < buckets.length; ++index) {
+      seen += buckets[index];
+      if (seen >= rank) {
+        return bucketUpperBound(index);
+      }
+    }
+    return bucketUpperBound(buckets.length - 1);
+  }
+
+  /**
+   * Determine the value at the given quantile.
+   *
+   * @param quantile The quantile in the range {@code [0, 1]}
+   *
+   * @return The value at the quantile, or {@code 0} if nothing has been
+   * recorded
+   *
+   * @see #quantileOf(long[], double)
+   */
+
+  long quantile(
+    final double quantile)
+  {
+    return quantileOf(this.buckets(), quantile);
+  }
+
+  /**
+   * Discard all recorded values.
+   */
+
+  void reset()
+  {
+    for (final var count : this.counts) {
+      count.reset();
+    }
+    this.total.reset();
+    this.sum.reset();
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialConversions;
+import com.io7m.digal.model.DialValueConverterType;
+
+/**
+ * A hysteresis band for snapping conversions. When a dragged value hovers
+ * on the boundary between two snapped values, small movements back and forth
+ * would otherwise flip the converted value on every event. A move that
+ * changes the snapped value is only accepted once the raw value has moved
+ * past the boundary by at least the width of the band. Filtering evaluates
+ * the converter on the calling thread, and so it is not used for models
+ * that convert values asynchronously.
+ */
+
+final class DialHysteresis
+{
+  private DialHysteresis()
+  {
+
+  }
+
+  /**
+   * Filter a raw value through a hysteresis band.
+   *
+   * @param converter The value converter
+   * @param rawThen   The current raw value
+   * @param rawNow    The proposed raw value
+   * @param band      The width of the band in raw units
+   *
+   * @return {@code rawNow} if the move is accepted, or {@code rawThen} if the
+   * move would change the snapped value without clearing the band
+   */
+
+  static double filter(
+    final DialValueConverterType converter,
+    final double rawThen,
+    final double rawNow,
+    final double band)
+  {
+    if (!(band > 0.0) || !DialConversions.isSnapping(converter)) {
+      return rawNow;
+    }
+
+    final var convertedThen =
+      DialConversions.fromDial(converter, rawThen);
+    final var convertedNow =
+      DialConversions.fromDial(converter, rawNow);
+
+    if (Double.compare(convertedThen, convertedNow) == 0) {
+      return rawNow;
+    }
+
+    /*
+     * Step back towards the current value by the width of the band. If the
+     * snapped value there is still the current one, the boundary has not
+     * been cleared.
+     */
+
+    final double rawBack;
+    if (rawNow > rawThen) {
+      rawBack = Math.max(0.0, rawNow - band);
+    } else {
+      rawBack = Math.min(1.0, rawNow + band);
+    }
+
+    final var convertedBack =
+      DialConversions.fromDial(converter, rawBack);
+
+    if (Double.compare(convertedThen, convertedBack) == 0) {
+      return rawThen;
+    }
+    return rawNow;
+  }
+}
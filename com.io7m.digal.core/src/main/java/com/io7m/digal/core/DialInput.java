@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialConversions;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+
+/**
+ * The mouse and scroll input handling of an interactive dial.
+ */
+
+final class DialInput
+{
+  private static final double DRAG_DELTA = 0.005;
+
+  private final DialControl dial;
+  private double dragYThen;
+  private boolean dragging;
+  private DialJFRDragEvent dragEvent;
+  private int dragEventCount;
+  private double dragValueStart;
+  private double dragRaw;
+  private double snapHysteresis;
+
+  /**
+   * Create input handling for the given dial.
+   *
+   * @param inDial The dial
+   */
+
+  DialInput(
+    final DialControl inDial)
+  {
+    this.dial = inDial;
+    this.dragYThen = 0.0;
+  }
+
+  /**
+   * @return {@code true} if the user is currently dragging the dial
+   */
+
+  boolean isDragging()
+  {
+    return this.dragging;
+  }
+
+  /**
+   * @return The width of the snapping hysteresis band in raw units
+   */
+
+  double snapHysteresis()
+  {
+    return this.snapHysteresis;
+  }
+
+  /**
+   * Set the width of the snapping hysteresis band.
+   *
+   * @param band The band width in raw units
+   */
+
+  void setSnapHysteresis(
+    final double band)
+  {
+    this.snapHysteresis = band;
+  }
+
+  void onMousePressed(
+    final MouseEvent mouseEvent)
+  {
+    if (mouseEvent.getButton() != MouseButton.PRIMARY) {
+      return;
+    }
+
+    this.dial.onInputReceived();
+    this.dragging = true;
+    this.dragYThen = mouseEvent.getSceneY();
+    this.dragRaw = this.dial.internalRawValue().get();
+
+    if (DialJFR.DRAG.isEnabled()) {
+      final var event = new DialJFRDragEvent();
+      event.begin();
+      this.dragEvent = event;
+      this.dragEventCount = 0;
+      this.dragValueStart = this.dial.internalRawValue().get();
+    }
+  }
+
+  void onMouseDragged(
+    final MouseEvent mouseEvent)
+  {
+    if (mouseEvent.getButton() != MouseButton.PRIMARY) {
+      return;
+    }
+
+    /*
+     * Dragging a dial updates both the internal and external value.
+     */
+
+    this.dial.onInputReceived();
+    this.dragging = true;
+
+    final var model =
+      this.dial.model();
+    final var dragYNow =
+      mouseEvent.getSceneY();
+    final var delta =
+      dragYNow - this.dragYThen;
+
+    /*
+     * A hysteresis band may hold the dial value while the drag moves on.
+     * Filtering evaluates the converter up to three times on this thread,
+     * which is exactly what asynchronous conversion exists to avoid, so
+     * the band is not applied when conversions are asynchronous.
+     */
+
+    final var band =
+      model.isConversionAsynchronous() ? 0.0 : this.snapHysteresis;
+    final var valueThen =
+      band > 0.0 ? this.dragRaw : model.getRawValue();
+
+    final double valueNow;
+    if (delta > (double) 0) {
+      valueNow = valueThen - DRAG_DELTA;
+    } else {
+      valueNow = valueThen + DRAG_DELTA;
+    }
+
+    this.dragRaw = Math.clamp(valueNow, 0.0, 1.0);
+    this.dial.onInputProcessed(model.setRawValue(DialHysteresis.filter(
+      model.valueConverter(), model.getRawValue(), this.dragRaw, band
+    )));
+
+    this.dragYThen = dragYNow;
+    ++this.dragEventCount;
+
+    final var metrics = DialMetrics.active();
+    if (metrics != null) {
+      metrics.onDragEvent();
+    }
+  }
+
+  void onMouseReleased(
+    final MouseEvent mouseEvent)
+  {
+    if (mouseEvent.getButton() != MouseButton.PRIMARY) {
+      return;
+    }
+
+    this.dragging = false;
+
+    final var event = this.dragEvent;
+    if (event != null) {
+      this.dragEvent = null;
+      event.end();
+      if (event.shouldCommit()) {
+        event.setDialId(this.dial.getId());
+        event.setDialIdentity(System.identityHashCode(this.dial));
+        event.setEventCount(this.dragEventCount);
+        event.setValues(
+          this.dragValueStart, this.dial.internalRawValue().get());
+        event.commit();
+      }
+    }
+  }
+
+  void onMouseScrolled(
+    final ScrollEvent scrollEvent)
+  {
+    this.dial.onInputReceived();
+
+    final var model =
+      this.dial.model();
+    final var valueThen =
+      model.getRawValue();
+    final var delta =
+      scrollEvent.getDeltaY();
+
+    final double valueNow;
+    if (delta > 0.0) {
+      valueNow =
+        DialConversions.toNextDial(model.valueConverter(), valueThen);
+    } else if (delta < 0.0) {
+      valueNow =
+        DialConversions.toPreviousDial(model.valueConverter(), valueThen);
+    } else {
+      return;
+    }
+
+    this.dial.onInputProcessed(model.setRawValue(valueNow));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event recorded for each drag session; the event begins when the
+ * primary mouse button is pressed on a dial and ends when it is released.
+ */
+
+@Name("com.io7m.digal.DialDrag")
+@Label("Dial Drag")
+@Description("The user dragged a dial.")
+@Category({"JavaFX", "Digal"})
+@Enabled(false)
+@StackTrace(false)
+final class DialJFRDragEvent extends jdk.jfr.Event
+{
+  @Label("Dial ID")
+  @Description("The CSS ID of the dial, if any.")
+  private String dialId;
+
+  @Label("Dial Identity")
+  @Description("The identity hash code of the dial.")
+  private int dialIdentity;
+
+  @Label("Event Count")
+  @Description("The number of drag events received during the session.")
+  private int eventCount;
+
+  @Label("Value Start")
+  @Description("The raw dial value at the start of the session.")
+  private double valueStart;
+
+  @Label("Value End")
+  @Description("The raw dial value at the end of the session.")
+  private double valueEnd;
+
+  @Label("Value Delta")
+  @Description("The change in the raw dial value over the session.")
+  private double valueDelta;
+
+  DialJFRDragEvent()
+  {
+
+  }
+
+  void setDialId(
+    final String inDialId)
+  {
+    this.dialId = inDialId;
+  }
+
+  void setDialIdentity(
+    final int inDialIdentity)
+  {
+    this.dialIdentity = inDialIdentity;
+  }
+
+  void setEventCount(
+    final int inEventCount)
+  {
+    this.eventCount = inEventCount;
+  }
+
+  void setValues(
+    final double inValueStart,
+    final double inValueEnd)
+  {
+    this.valueStart = inValueStart;
+    this.valueEnd = inValueEnd;
+    this.valueDelta = inValueEnd - inValueStart;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event recorded each time a dial is redrawn.
+ */
+
+@Name("com.io7m.digal.DialRedraw")
+@Label("Dial Redraw")
+@Description("A dial was redrawn on the FX application thread.")
+@Category({"JavaFX", "Digal"})
+@Enabled(false)
+@StackTrace(false)
+final class DialJFRRedrawEvent extends jdk.jfr.Event
+{
+  @Label("Dial ID")
+  @Description("The CSS ID of the dial, if any.")
+  private String dialId;
+
+  @Label("Dial Identity")
+  @Description("The identity hash code of the dial.")
+  private int dialIdentity;
+
+  @Label("Width")
+  private double width;
+
+  @Label("Height")
+  private double height;
+
+  @Label("Tick Count")
+  private int tickCount;
+
+  @Label("Cause")
+  @Description("The reason the dial was redrawn.")
+  private String cause;
+
+  @Label("Partial")
+  @Description("Only the region swept by the indicator was redrawn.")
+  private boolean partial;
+
+  DialJFRRedrawEvent()
+  {
+
+  }
+
+  void setDialId(
+    final String inDialId)
+  {
+    this.dialId = inDialId;
+  }
+
+  void setDialIdentity(
+    final int inDialIdentity)
+  {
+    this.dialIdentity = inDialIdentity;
+  }
+
+  void setWidth(
+    final double inWidth)
+  {
+    this.width = inWidth;
+  }
+
+  void setHeight(
+    final double inHeight)
+  {
+    this.height = inHeight;
+  }
+
+  void setTickCount(
+    final int inTickCount)
+  {
+    this.tickCount = inTickCount;
+  }
+
+  void setCause(
+    final String inCause)
+  {
+    this.cause = inCause;
+  }
+
+  void setPartial(
+    final boolean inPartial)
+  {
+    this.partial = inPartial;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event recorded each time the external value of a dial changes. The
+ * duration of the event covers the notification of all observers of the
+ * dial's {@code rawValue} and {@code convertedValue} properties.
+ */
+
+@Name("com.io7m.digal.DialValueChange")
+@Label("Dial Value Change")
+@Description("The external value of a dial changed and observers were notified.")
+@Category({"JavaFX", "Digal"})
+@Enabled(false)
+@StackTrace(false)
+final class DialJFRValueChangeEvent extends jdk.jfr.Event
+{
+  @Label("Dial ID")
+  @Description("The CSS ID of the dial, if any.")
+  private String dialId;
+
+  @Label("Dial Identity")
+  @Description("The identity hash code of the dial.")
+  private int dialIdentity;
+
+  @Label("Value Old")
+  @Description("The previous raw dial value.")
+  private double valueOld;
+
+  @Label("Value New")
+  @Description("The new raw dial value.")
+  private double valueNew;
+
+  DialJFRValueChangeEvent()
+  {
+
+  }
+
+  void setDialId(
+    final String inDialId)
+  {
+    this.dialId = inDialId;
+  }
+
+  void setDialIdentity(
+    final int inDialIdentity)
+  {
+    this.dialIdentity = inDialIdentity;
+  }
+
+  void setValues(
+    final double inValueOld,
+    final double inValueNew)
+  {
+    this.valueOld = inValueOld;
+    this.valueNew = inValueNew;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Objects;
+
+/**
+ * <p>A recorder of input-to-display latencies.</p>
+ *
+ * <p>When a recorder is attached to a dial with
+ * {@link DialControl#setLatencyRecorder(DialLatencyRecorder)}, the dial
+ * timestamps each mouse and scroll event as it is received, and records the
+ * time taken for the resulting value change to reach each
+ * {@link DialLatencyStage}. When several input events are received before
+ * a frame is presented, the presentation latency is measured from the
+ * earliest of them, as that is the latency the user perceives.</p>
+ *
+ * <p>A single recorder may be shared between any number of dials.</p>
+ */
+
+public final class DialLatencyRecorder
+{
+  private final EnumMap<DialLatencyStage, DialHistogram> histograms;
+
+  /**
+   * A recorder of input-to-display latencies.
+   */
+
+  public DialLatencyRecorder()
+  {
+    this.histograms = new EnumMap<>(DialLatencyStage.class);
+    for (final var stage : DialLatencyStage.values()) {
+      this.histograms.put(stage, new DialHistogram());
+    }
+  }
+
+  void record(
+    final DialLatencyStage stage,
+    final long nanos)
+  {
+    this.histograms.get(stage).record(nanos);
+  }
+
+  /**
+   * Produce a report of the latencies recorded so far for the given stage.
+   *
+   * @param stage The stage
+   *
+   * @return A report
+   */
+
+  public DialLatencyReport report(
+    final DialLatencyStage stage)
+  {
+    Objects.requireNonNull(stage, "stage");
+
+    final var histogram = this.histograms.get(stage);
+    final var counts = histogram.buckets();
+    final var buckets = new ArrayList<DialLatencyBucket>();
+    for (int index = 0; index < counts.length; ++index) {
+      if (counts[index] != 0L) {
+        buckets.add(new DialLatencyBucket(
+          DialHistogram.bucketLowerBound(index),
+          DialHistogram.bucketUpperBound(index),
+          counts[index]
+        ));
+      }
+    }
+
+    long count = 0L;
+    for (final var bucket : buckets) {
+      count += bucket.count();
+    }
+
+    return new DialLatencyReport(
+      stage,
+      count,
+      histogram.mean(),
+      DialHistogram.quantileOf(counts, 0.5),
+      DialHistogram.quantileOf(counts, 0.9),
+      DialHistogram.quantileOf(counts, 0.99),
+      DialHistogram.quantileOf(counts, 0.999),
+      buckets
+    );
+  }
+
+  /**
+   * Discard all recorded latencies.
+   */
+
+  public void reset()
+  {
+    for (final var histogram : this.histograms.values()) {
+      histogram.reset();
+    }
+  }
+}
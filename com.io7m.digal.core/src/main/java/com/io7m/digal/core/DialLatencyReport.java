@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A report of the latencies recorded for a single stage. Percentiles are
+ * reported as the upper bound of the histogram bucket that contains them,
+ * and so overestimate the true value by at most 12.5%.
+ *
+ * @param stage       The stage
+ * @param count       The number of recorded latencies
+ * @param meanNanos   The mean latency in nanoseconds
+ * @param p50Nanos    The 50th percentile latency in nanoseconds
+ * @param p90Nanos    The 90th percentile latency in nanoseconds
+ * @param p99Nanos    The 99th percentile latency in nanoseconds
+ * @param p999Nanos   The 99.9th percentile latency in nanoseconds
+ * @param buckets     The non-empty histogram buckets in ascending order
+ */
+
+public record DialLatencyReport(
+  DialLatencyStage stage,
+  long count,
+  double meanNanos,
+  long p50Nanos,
+  long p90Nanos,
+  long p99Nanos,
+  long p999Nanos,
+  List<DialLatencyBucket> buckets)
+{
+  /**
+   * A report of the latencies recorded for a single stage.
+   *
+   * @param stage       The stage
+   * @param count       The number of recorded latencies
+   * @param meanNanos   The mean latency in nanoseconds
+   * @param p50Nanos    The 50th percentile latency in nanoseconds
+   * @param p90Nanos    The 90th percentile latency in nanoseconds
+   * @param p99Nanos    The 99th percentile latency in nanoseconds
+   * @param p999Nanos   The 99.9th percentile latency in nanoseconds
+   * @param buckets     The non-empty histogram buckets in ascending order
+   */
+
+  public DialLatencyReport
+  {
+    Objects.requireNonNull(stage, "stage");
+    buckets = List.copyOf(buckets);
+  }
+}
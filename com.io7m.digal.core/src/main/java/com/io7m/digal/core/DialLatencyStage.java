@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+/**
+ * The points at which the latency of user input is measured. All latencies
+ * are measured from the time the input event was received by the dial.
+ *
+ * @see DialLatencyRecorder
+ */
+
+public enum DialLatencyStage
+{
+  /**
+   * The observers of the dial's {@link DialControl#rawValue()} and
+   * {@link DialControl#convertedValue()} properties have been notified of
+   * the value change caused by the input event.
+   */
+
+  NOTIFIED,
+
+  /**
+   * The pulse that presents the frame showing the value change caused by
+   * the input event has completed.
+   */
+
+  PRESENTED
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+/**
+ * The standard macro curves.
+ */
+
+public enum DialMacroCurve implements DialMacroCurveType
+{
+  /**
+   * The identity curve.
+   */
+
+  LINEAR {
+    @Override
+    public double shape(
+      final double x)
+    {
+      return x;
+    }
+  },
+
+  /**
+   * A curve that changes slowly at first: {@code x²}.
+   */
+
+  QUADRATIC {
+    @Override
+    public double shape(
+      final double x)
+    {
+      return x * x;
+    }
+  },
+
+  /**
+   * A curve that changes quickly at first: {@code √x}.
+   */
+
+  SQUARE_ROOT {
+    @Override
+    public double shape(
+      final double x)
+    {
+      return Math.sqrt(x);
+    }
+  },
+
+  /**
+   * A curve that changes slowly at both ends: {@code 3x² - 2x³}.
+   */
+
+  SMOOTHSTEP {
+    @Override
+    public double shape(
+      final double x)
+    {
+      return x * x * (3.0 - (2.0 * x));
+    }
+  }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javafx.beans.InvalidationListener;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+
+/**
+ * <p>A dependency graph of macro links between dials.</p>
+ *
+ * <p>A link makes a <i>source</i> dial drive a <i>target</i> dial: when the
+ * raw value of the source changes, the target's raw value is set to
+ * {@code minimum + (maximum - minimum) * curve(source)}. A target may
+ * itself be the source of further links, and a source may drive any number
+ * of targets. Links that would introduce a cycle are rejected.</p>
+ *
+ * <p>When a source changes, the new values of all dials that depend on it,
+ * directly or transitively, are computed in a single pass in topological
+ * order, and are then applied as a single {@link DialBatch}. The graph
+ * ignores the value notifications caused by its own updates, so no chains
+ * of listeners are formed regardless of the depth of the graph. If a dial
+ * is the target of more than one link that is affected by a change, the
+ * link that is visited last in the topological order determines its
+ * value.</p>
+ *
+ * <p>If a listener changes another source dial while the graph is applying
+ * an update, the change is queued and propagated in a further pass once the
+ * current pass has been applied.</p>
+ *
+ * <p>Graphs must be used on the FX application thread.</p>
+ */
+
+public final class DialMacroGraph
+{
+  private final IdentityHashMap<DialControl, Node> nodes;
+  private final DialBatch batch;
+  private final ArrayList<Node> pending;
+  private double[] values;
+  private boolean propagating;
+  private long pass;
+
+  /**
+   * A dependency graph of macro links between dials.
+   */
+
+  public DialMacroGraph()
+  {
+    this.nodes = new IdentityHashMap<>();
+    this.batch = new DialBatch();
+    this.pending = new ArrayList<>();
+    this.values = new double[16];
+  }
+
+  /**
+   * Link a source dial to a target dial, such that the target follows the
+   * source exactly.
+   *
+   * @param source The source
+   * @param target The target
+   *
+   * @throws IllegalArgumentException If the link would introduce a cycle
+   */
+
+  public void link(
+    final DialControl source,
+    final DialControl target)
+    throws IllegalArgumentException
+  {
+    this.link(source, target, 0.0, 1.0, DialMacroCurve.LINEAR);
+  }
+
+  /**
+   * Link a source dial to a target dial. Any existing link between the two
+   * dials is replaced.
+   *
+   * @param source  The source
+   * @param target  The target
+   * @param minimum The target raw value when the source is at {@code 0}
+   * @param maximum The target raw value when the source is at {@code 1}
+   * @param curve   The curve applied to the source value
+   *
+   * @throws IllegalArgumentException If the link would introduce a cycle
+   */
+
+  public void link(
+    final DialControl source,
+    final DialControl target,
+    final double minimum,
+    final double maximum,
+    final DialMacroCurveType curve)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(target, "target");
+    Objects.requireNonNull(curve, "curve");
+
+    if (source == target) {
+      throw new IllegalArgumentException("A dial cannot be linked to itself.");
+    }
+
+    final var targetNode = this.nodes.get(target);
+    final var sourceNode = this.nodes.get(source);
+    if (targetNode != null && sourceNode != null
+        && this.reaches(targetNode, sourceNode)) {
+      throw new IllegalArgumentException(
+        "Linking %s to %s would introduce a cycle.".formatted(
+          describe(source), describe(target))
+      );
+    }
+
+    final var from = this.nodeFor(source);
+    final var to = this.nodeFor(target);
+    from.outgoing.removeIf(link -> link.target == to);
+    from.outgoing.add(new Link(to, minimum, maximum, curve));
+    from.listen();
+    this.invalidateOrders();
+  }
+
+  /**
+   * Remove the link between two dials, if one exists.
+   *
+   * @param source The source
+   * @param target The target
+   *
+   * @return {@code true} if a link was removed
+   */
+
+  public boolean unlink(
+    final DialControl source,
+    final DialControl target)
+  {
+    final var from = this.nodes.get(Objects.requireNonNull(source, "source"));
+    final var to = this.nodes.get(Objects.requireNonNull(target, "target"));
+    if (from == null || to == null) {
+      return false;
+    }
+
+    final var removed = from.outgoing.removeIf(link -> link.target == to);
+    if (from.outgoing.isEmpty()) {
+      from.unlisten();
+    }
+    this.invalidateOrders();
+    return removed;
+  }
+
+  /**
+   * Remove all links.
+   */
+
+  public void clear()
+  {
+    for (final var node : this.nodes.values()) {
+      node.unlisten();
+    }
+    this.nodes.clear();
+  }
+
+  /**
+   * Propagate the current value of a source dial to all dials that depend
+   * on it. This happens automatically whenever the source's raw value
+   * changes.
+   *
+   * @param source The source
+   */
+
+  public void propagate(
+    final DialControl source)
+  {
+    final var node = this.nodes.get(Objects.requireNonNull(source, "source"));
+    if (node != null) {
+      this.propagateFrom(node);
+    }
+  }
+
+  private static String describe(
+    final DialControl dial)
+  {
+    final var id = dial.getId();
+    return id != null ? id : dial.toString();
+  }
+
+  private Node nodeFor(
+    final DialControl dial)
+  {
+    var node = this.nodes.get(dial);
+    if (node == null) {
+      node = new Node(dial, this.nodes.size());
+      this.nodes.put(dial, node);
+      if (this.values.length < this.nodes.size()) {
+        this.values = new double[this.nodes.size() * 2];
+      }
+    }
+    return node;
+  }
+
+  private boolean reaches(
+    final Node start,
+    final Node goal)
+  {
+    final var visited = new IdentityHashMap<Node, Boolean>();
+    final var stack = new ArrayList<Node>();
+    stack.add(start);
+
+    while (!stack.isEmpty()) {
+      final var node = stack.remove(stack.size() - 1);
+      if (node == goal) {
+        return true;
+      }
+      if (visited.put(node, Boolean.TRUE) == null) {
+        for (final var link : node.outgoing) {
+          stack.add(link.target);
+        }
+      }
+    }
+    return false;
+  }
+
+  private void invalidateOrders()
+  {
+    for (final var node : this.nodes.values()) {
+      node.order = null;
+    }
+  }
+
+  private Node[] orderFrom(
+    final Node start)
+  {
+    if (start.order != null) {
+      return start.order;
+    }
+
+    /*
+     * A reverse post-order of a depth-first traversal of a DAG is a
+     * topological order.
+     */
+
+    final var visited = new IdentityHashMap<Node, Boolean>();
+    final var postOrder = new ArrayList<Node>();
+    this.visit(start, visited, postOrder);
+
+    final var order = new Node[postOrder.size()];
+    for (int index = 0; index < order.length; ++index) {
+      order[index] = postOrder.get(order.length - 1 - index);
+    }
+    start.order = order;
+    return order;
+  }
+
+  private void visit(
+    final Node node,
+    final IdentityHashMap<Node, Boolean> visited,
+    final ArrayList<Node> postOrder)
+  {
+    if (visited.put(node, Boolean.TRUE) != null) {
+      return;
+    }
+    for (final var link : node.outgoing) {
+      this.visit(link.target, visited, postOrder);
+    }
+    postOrder.add(node);
+  }
+
+  private void propagateFrom(
+    final Node start)
+  {
+    if (this.propagating) {
+      this.enqueue(start);
+      return;
+    }
+
+    this.propagating = true;
+    try {
+      this.propagatePass(start);
+
+      /*
+       * Listeners may have changed other source dials while the batch was
+       * being applied. The absence of cycles ensures that this terminates
+       * unless listeners themselves keep changing values.
+       */
+
+      while (!this.pending.isEmpty()) {
+        final var next = this.pending.remove(0);
+        next.queued = false;
+        this.propagatePass(next);
+      }
+    } finally {
+      for (final var node : this.pending) {
+        node.queued = false;
+      }
+      this.pending.clear();
+      this.propagating = false;
+    }
+  }
+
+  private void enqueue(
+    final Node node)
+  {
+    /*
+     * Notifications for values that the current pass has just written are
+     * the graph's own updates and are ignored.
+     */
+
+    final var written =
+      node.written == this.pass
+      && node.dial.getRawValue() == this.values[node.index];
+
+    if (!written && !node.queued) {
+      node.queued = true;
+      this.pending.add(node);
+    }
+  }
+
+  private void propagatePass(
+    final Node start)
+  {
+    ++this.pass;
+
+    final var order = this.orderFrom(start);
+    this.values[start.index] = start.dial.rawValue().get();
+
+    for (final var node : order) {
+      final var value = this.values[node.index];
+      final var links = node.outgoing;
+      for (int index = 0; index < links.size(); ++index) {
+        final var link = links.get(index);
+        final var target = link.target;
+        final var targetValue = link.apply(value);
+        this.values[target.index] = targetValue;
+        target.written = this.pass;
+        this.batch.setRawValue(target.dial, targetValue);
+      }
+    }
+
+    this.batch.apply();
+  }
+
+  private static final class Link
+  {
+    private final Node target;
+    private final double minimum;
+    private final double maximum;
+    private final DialMacroCurveType curve;
+
+    Link(
+      final Node inTarget,
+      final double inMinimum,
+      final double inMaximum,
+      final DialMacroCurveType inCurve)
+    {
+      this.target = inTarget;
+      this.minimum = inMinimum;
+      this.maximum = inMaximum;
+      this.curve = inCurve;
+    }
+
+    double apply(
+      final double x)
+    {
+      final var shaped = this.curve.shape(Math.min(Math.max(0.0, x), 1.0));
+      final var y = this.minimum + ((this.maximum - this.minimum) * shaped);
+      return Math.min(Math.max(0.0, y), 1.0);
+    }
+  }
+
+  private final class Node
+  {
+    private final DialControl dial;
+    private final int index;
+    private final ArrayList<Link> outgoing;
+    private final InvalidationListener listener;
+    private boolean listening;
+    private boolean queued;
+    private long written;
+    private Node[] order;
+
+    Node(
+      final DialControl inDial,
+      final int inIndex)
+    {
+      this.dial = inDial;
+      this.index = inIndex;
+      this.outgoing = new ArrayList<>();
+      this.listener = o -> DialMacroGraph.this.onSourceChanged(this);
+    }
+
+    void listen()
+    {
+      if (!this.listening) {
+        this.dial.rawValue().addListener(this.listener);
+        this.listening = true;
+      }
+    }
+
+    void unlisten()
+    {
+      if (this.listening) {
+        this.dial.rawValue().removeListener(this.listener);
+        this.listening = false;
+      }
+    }
+  }
+
+  private void onSourceChanged(
+    final Node node)
+  {
+    /*
+     * Revalidate the property so that further changes are reported.
+     */
+
+    node.dial.rawValue().get();
+    this.propagateFrom(node);
+  }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Cleaner;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>An opt-in global registry of statistics gathered across all dials.</p>
+ *
+ * <p>Metrics are disabled by default; dials only begin reporting once
+ * {@link #enable()} has been called, and dials created before that point
+ * are not counted as live instances. All counters are striped
+ * ({@link LongAdder}), and so updating them does not introduce contention
+ * between threads.</p>
+ *
+ * <p>The registry is exposed over JMX as {@value #OBJECT_NAME}, and
+ * programmatically via {@link #snapshot()}.</p>
+ */
+
+public final class DialMetrics implements DialMetricsBeanType
+{
+  /**
+   * The name under which the metrics bean is registered.
+   */
+
+  public static final String OBJECT_NAME =
+    "com.io7m.digal:type=DialMetrics";
+
+  private static final long BEAN_SNAPSHOT_INTERVAL =
+    TimeUnit.SECONDS.toNanos(1L);
+
+  private static final Cleaner CLEANER =
+    Cleaner.create();
+
+  private static volatile DialMetrics ACTIVE;
+
+  private final LongAdder dialInstances;
+  private final LongAdder labelledInstances;
+  private final LongAdder redraws;
+  private final LongAdder notifications;
+  private final LongAdder dragEvents;
+  private final DialHistogram redrawTimes;
+  private final Baseline snapshotBaseline;
+  private final Baseline beanBaseline;
+  private DialMetricsSnapshot beanSnapshot;
+
+  private DialMetrics()
+  {
+    this.dialInstances = new LongAdder();
+    this.labelledInstances = new LongAdder();
+    this.redraws = new LongAdder();
+    this.notifications = new LongAdder();
+    this.dragEvents = new LongAdder();
+    this.redrawTimes = new DialHistogram();
+    this.snapshotBaseline = new Baseline(System.nanoTime());
+    this.beanBaseline = new Baseline(System.nanoTime());
+    this.beanSnapshot =
+      new DialMetricsSnapshot(
+        0L, 0L, 0L, 0.0, 0.0, 0L, 0L, 0.0, 0L, 0.0, 0L, 0L);
+  }
+
+  /**
+   * Enable metrics collection and register the metrics bean with the
+   * platform MBean server. Calling this method more than once has no
+   * further effect.
+   *
+   * @return The metrics registry
+   */
+
+  public static DialMetrics enable()
+  {
+    synchronized (DialMetrics.class) {
+      final var existing = ACTIVE;
+      if (existing != null) {
+        return existing;
+      }
+
+      final var metrics = new DialMetrics();
+      try {
+        ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(metrics, new ObjectName(OBJECT_NAME));
+      } catch (final JMException e) {
+        throw new IllegalStateException(e);
+      }
+
+      ACTIVE = metrics;
+      return metrics;
+    }
+  }
+
+  /**
+   * @return The metrics registry, if metrics have been enabled
+   */
+
+  public static Optional<DialMetrics> get()
+  {
+    return Optional.ofNullable(ACTIVE);
+  }
+
+  /**
+   * @return The metrics registry, or {@code null} if metrics are disabled
+   */
+
+  static DialMetrics active()
+  {
+    return ACTIVE;
+  }
+
+  void onDialCreated(
+    final DialControl dial)
+  {
+    final var counter = this.dialInstances;
+    counter.increment();
+    CLEANER.register(dial, counter::decrement);
+  }
+
+  void onLabelledCreated(
+    final DialControlLabelled dial)
+  {
+    final var counter = this.labelledInstances;
+    counter.increment();
+    CLEANER.register(dial, counter::decrement);
+  }
+
+  void onRedraw(
+    final long nanos)
+  {
+    this.redraws.increment();
+    this.redrawTimes.record(nanos);
+  }
+
+  void onNotification()
+  {
+    this.notifications.increment();
+  }
+
+  void onDragEvent()
+  {
+    this.dragEvents.increment();
+  }
+
+  /**
+   * Take a snapshot of the current statistics. Rates are computed over the
+   * interval since the previous call to this method.
+   *
+   * @return A snapshot of the current statistics
+   */
+
+  public synchronized DialMetricsSnapshot snapshot()
+  {
+    return this.snapshotSince(this.snapshotBaseline);
+  }
+
+  private DialMetricsSnapshot snapshotSince(
+    final Baseline baseline)
+  {
+    final var timeNow = System.nanoTime();
+    final var redrawsNow = this.redraws.sum();
+    final var notificationsNow = this.notifications.sum();
+    final var dragEventsNow = this.dragEvents.sum();
+
+    final var seconds =
+      Math.max(1.0, (double) (timeNow - baseline.time)) / 1.0e9;
+
+    final var result =
+      new DialMetricsSnapshot(
+        this.dialInstances.sum(),
+        this.labelledInstances.sum(),
+        redrawsNow,
+        (double) (redrawsNow - baseline.redraws) / seconds,
+        this.redrawTimes.mean(),
+        this.redrawTimes.quantile(0.99),
+        notificationsNow,
+        (double) (notificationsNow - baseline.notifications) / seconds,
+        dragEventsNow,
+        (double) (dragEventsNow - baseline.dragEvents) / seconds,
+        this.getCanvasBytes(),
+        this.getCanvasEvictionsTotal()
+      );
+
+    baseline.time = timeNow;
+    baseline.redraws = redrawsNow;
+    baseline.notifications = notificationsNow;
+    baseline.dragEvents = dragEventsNow;
+    return result;
+  }
+
+  /**
+   * Discard the recorded redraw times. Counters and live instance counts
+   * are unaffected.
+   */
+
+  public void resetRedrawTimes()
+  {
+    this.redrawTimes.reset();
+  }
+
+  /*
+   * JMX clients typically read each attribute separately. The bean reuses a
+   * snapshot for at least one second so that rates are not computed over
+   * meaninglessly short intervals.
+   */
+
+  private synchronized DialMetricsSnapshot beanSnapshot()
+  {
+    if (System.nanoTime() - this.beanBaseline.time >= BEAN_SNAPSHOT_INTERVAL) {
+      this.beanSnapshot = this.snapshotSince(this.beanBaseline);
+    }
+    return this.beanSnapshot;
+  }
+
+  @Override
+  public long getDialInstances()
+  {
+    return this.dialInstances.sum();
+  }
+
+  @Override
+  public long getLabelledInstances()
+  {
+    return this.labelledInstances.sum();
+  }
+
+  @Override
+  public long getRedrawsTotal()
+  {
+    return this.redraws.sum();
+  }
+
+  @Override
+  public double getRedrawsPerSecond()
+  {
+    return this.beanSnapshot().redrawsPerSecond();
+  }
+
+  @Override
+  public double getRedrawTimeAverageNanos()
+  {
+    return this.redrawTimes.mean();
+  }
+
+  @Override
+  public long getRedrawTimeP99Nanos()
+  {
+    return this.redrawTimes.quantile(0.99);
+  }
+
+  @Override
+  public long getNotificationsTotal()
+  {
+    return this.notifications.sum();
+  }
+
+  @Override
+  public double getNotificationsPerSecond()
+  {
+    return this.beanSnapshot().notificationsPerSecond();
+  }
+
+  @Override
+  public long getDragEventsTotal()
+  {
+    return this.dragEvents.sum();
+  }
+
+  @Override
+  public double getDragEventsPerSecond()
+  {
+    return this.beanSnapshot().dragEventsPerSecond();
+  }
+
+  @Override
+  public long getCanvasBytes()
+  {
+    final var budget = DialCanvasBudget.active();
+    return budget != null ? budget.usedBytes() : 0L;
+  }
+
+  @Override
+  public long getCanvasBytesLimit()
+  {
+    final var budget = DialCanvasBudget.active();
+    return budget != null ? budget.limitBytes() : 0L;
+  }
+
+  @Override
+  public long getCanvasEvictionsTotal()
+  {
+    final var budget = DialCanvasBudget.active();
+    return budget != null ? budget.evictionsTotal() : 0L;
+  }
+
+  private static final class Baseline
+  {
+    private long time;
+    private long redraws;
+    private long notifications;
+    private long dragEvents;
+
+    Baseline(
+      final long inTime)
+    {
+      this.time = inTime;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javax.management.MXBean;
+
+/**
+ * The management interface exposing dial statistics over JMX. The bean is
+ * registered as {@value DialMetrics#OBJECT_NAME}. Rates are computed over
+ * intervals of at least one second.
+ *
+ * @see DialMetrics
+ */
+
+@MXBean
+public interface DialMetricsBeanType
+{
+  /**
+   * @return The number of live {@link DialControl} instances
+   */
+
+  long getDialInstances();
+
+  /**
+   * @return The number of live {@link DialControlLabelled} instances
+   */
+
+  long getLabelledInstances();
+
+  /**
+   * @return The total number of redraws
+   */
+
+  long getRedrawsTotal();
+
+  /**
+   * @return The number of redraws per second
+   */
+
+  double getRedrawsPerSecond();
+
+  /**
+   * @return The mean redraw time in nanoseconds
+   */
+
+  double getRedrawTimeAverageNanos();
+
+  /**
+   * @return The 99th percentile redraw time in nanoseconds
+   */
+
+  long getRedrawTimeP99Nanos();
+
+  /**
+   * @return The total number of external value change notifications
+   */
+
+  long getNotificationsTotal();
+
+  /**
+   * @return The number of external value change notifications per second
+   */
+
+  double getNotificationsPerSecond();
+
+  /**
+   * @return The total number of drag events
+   */
+
+  long getDragEventsTotal();
+
+  /**
+   * @return The number of drag events per second
+   */
+
+  double getDragEventsPerSecond();
+
+  /**
+   * @return The number of bytes used by dial canvases, or {@code 0} if no
+   * canvas budget is enabled
+   *
+   * @see DialCanvasBudget
+   */
+
+  long getCanvasBytes();
+
+  /**
+   * @return The canvas budget in bytes, or {@code 0} if no canvas budget is
+   * enabled
+   *
+   * @see DialCanvasBudget
+   */
+
+  long getCanvasBytesLimit();
+
+  /**
+   * @return The total number of canvases released to stay within the canvas
+   * budget
+   *
+   * @see DialCanvasBudget
+   */
+
+  long getCanvasEvictionsTotal();
+}
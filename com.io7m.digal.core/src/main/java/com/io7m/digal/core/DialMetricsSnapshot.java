@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+/**
+ * A snapshot of the statistics gathered across all dials.
+ *
+ * @param dialInstances             The number of live {@link DialControl}
+ *                                  instances
+ * @param labelledInstances         The number of live
+ *                                  {@link DialControlLabelled} instances
+ * @param redrawsTotal              The total number of redraws
+ * @param redrawsPerSecond          The redraw rate since the previous
+ *                                  snapshot
+ * @param redrawTimeAverageNanos    The mean redraw time in nanoseconds
+ * @param redrawTimeP99Nanos        The 99th percentile redraw time in
+ *                                  nanoseconds
+ * @param notificationsTotal        The total number of external value
+ *                                  change notifications
+ * @param notificationsPerSecond    The notification rate since the previous
+ *                                  snapshot
+ * @param dragEventsTotal           The total number of drag events
+ * @param dragEventsPerSecond       The drag event rate since the previous
+ *                                  snapshot
+ * @param canvasBytes               The number of bytes used by dial
+ *                                  canvases, if a canvas budget is enabled
+ * @param canvasEvictionsTotal      The total number of canvases released
+ *                                  to stay within the canvas budget
+ */
+
+public record DialMetricsSnapshot(
+  long dialInstances,
+  long labelledInstances,
+  long redrawsTotal,
+  double redrawsPerSecond,
+  double redrawTimeAverageNanos,
+  long redrawTimeP99Nanos,
+  long notificationsTotal,
+  double notificationsPerSecond,
+  long dragEventsTotal,
+  double dragEventsPerSecond,
+  long canvasBytes,
+  long canvasEvictionsTotal)
+{
+
+}
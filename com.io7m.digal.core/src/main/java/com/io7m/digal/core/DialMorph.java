@@ -0,0 +1,338 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialConversions;
+import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>A morph between stored value vectors for a list of dials.</p>
+ *
+ * <p>A morph holds two or more vectors of converted values (such as the
+ * values returned by {@link DialPresetLibrary#values(String)}), one value
+ * per dial. A <i>linear</i> morph places its vectors at equal intervals
+ * along a single morph position in the range {@code [0,1]} and interpolates
+ * between adjacent vectors; a <i>bilinear</i> morph places four vectors at
+ * the corners of a square and interpolates across a two-dimensional
+ * position.</p>
+ *
+ * <p>The vectors are converted to raw dial values once, when the morph is
+ * created, and interpolation takes place on raw values. Changes to the
+ * morph position are coalesced and evaluated at most once per pulse, and
+ * only dials whose values actually change are updated, as a single
+ * {@link DialBatch}. Evaluating a morph does not allocate.</p>
+ *
+ * <p>Morphs must be used on the FX application thread. If the converters
+ * of the dials are changed, the morph must be recreated.</p>
+ */
+
+public final class DialMorph
+{
+  private final List<DialControl> dials;
+  private final double[] vectors;
+  private final int vectorCount;
+  private final boolean bilinear;
+  private final DialBatch batch;
+  private final AnimationTimer timer;
+  private double positionX;
+  private double positionY;
+  private boolean scheduled;
+  private DialControl boundX;
+  private DialControl boundY;
+  private InvalidationListener boundListener;
+
+  private DialMorph(
+    final List<DialControl> inDials,
+    final List<double[]> inVectors,
+    final boolean inBilinear)
+  {
+    this.dials = List.copyOf(inDials);
+    this.bilinear = inBilinear;
+    this.vectorCount = inVectors.size();
+    this.batch = new DialBatch(this.dials.size());
+
+    final var count = this.dials.size();
+    this.vectors = new double[this.vectorCount * count];
+    for (int v = 0; v < this.vectorCount; ++v) {
+      final var values = inVectors.get(v);
+      if (values.length != count) {
+        throw new IllegalArgumentException(
+          "Vector %d has %d values, but there are %d dials".formatted(
+            Integer.valueOf(v),
+            Integer.valueOf(values.length),
+            Integer.valueOf(count))
+        );
+      }
+      this.convertVector(values, v * count);
+    }
+
+    this.timer = new AnimationTimer()
+    {
+      @Override
+      public void handle(
+        final long now)
+      {
+        DialMorph.this.onPulse();
+      }
+    };
+  }
+
+  private void convertVector(
+    final double[] values,
+    final int offset)
+  {
+    for (int index = 0; index < values.length; ++index) {
+      final var converter = this.dials.get(index).valueConverter();
+      this.vectors[offset + index] =
+        Math.min(Math.max(0.0, DialConversions.toDial(converter, values[index])), 1.0);
+    }
+  }
+
+  /**
+   * Create a linear morph. Position {@code 0} corresponds to the first
+   * vector, position {@code 1} corresponds to the last, and the remaining
+   * vectors are placed at equal intervals in between.
+   *
+   * @param dials   The dials
+   * @param vectors The vectors of converted values (at least two)
+   *
+   * @return A morph
+   */
+
+  public static DialMorph linear(
+    final List<DialControl> dials,
+    final List<double[]> vectors)
+  {
+    Objects.requireNonNull(dials, "dials");
+    Objects.requireNonNull(vectors, "vectors");
+    if (vectors.size() < 2) {
+      throw new IllegalArgumentException(
+        "A linear morph requires at least two vectors.");
+    }
+    return new DialMorph(dials, vectors, false);
+  }
+
+  /**
+   * Create a bilinear (XY) morph between four corner vectors.
+   *
+   * @param dials       The dials
+   * @param bottomLeft  The vector at position {@code (0, 0)}
+   * @param bottomRight The vector at position {@code (1, 0)}
+   * @param topLeft     The vector at position {@code (0, 1)}
+   * @param topRight    The vector at position {@code (1, 1)}
+   *
+   * @return A morph
+   */
+
+  public static DialMorph bilinear(
+    final List<DialControl> dials,
+    final double[] bottomLeft,
+    final double[] bottomRight,
+    final double[] topLeft,
+    final double[] topRight)
+  {
+    Objects.requireNonNull(dials, "dials");
+    return new DialMorph(
+      dials,
+      List.of(bottomLeft, bottomRight, topLeft, topRight),
+      true
+    );
+  }
+
+  /**
+   * Set the morph position. For bilinear morphs, this sets the X position.
+   * The dials are updated on the next pulse.
+   *
+   * @param x The position in the range {@code [0,1]}
+   */
+
+  public void setPosition(
+    final double x)
+  {
+    this.positionX = Math.min(Math.max(0.0, x), 1.0);
+    this.schedule();
+  }
+
+  /**
+   * Set the morph position. For linear morphs, the Y position is ignored.
+   * The dials are updated on the next pulse.
+   *
+   * @param x The X position in the range {@code [0,1]}
+   * @param y The Y position in the range {@code [0,1]}
+   */
+
+  public void setPosition(
+    final double x,
+    final double y)
+  {
+    this.positionX = Math.min(Math.max(0.0, x), 1.0);
+    this.positionY = Math.min(Math.max(0.0, y), 1.0);
+    this.schedule();
+  }
+
+  /**
+   * Drive the morph position from the raw value of a dial.
+   *
+   * @param x The dial
+   */
+
+  public void bindPosition(
+    final DialControl x)
+  {
+    this.bindPosition(x, null);
+  }
+
+  /**
+   * Drive the morph position from the raw values of two dials.
+   *
+   * @param x The dial for the X position
+   * @param y The dial for the Y position, if any
+   */
+
+  public void bindPosition(
+    final DialControl x,
+    final DialControl y)
+  {
+    Objects.requireNonNull(x, "x");
+    this.unbindPosition();
+
+    this.boundX = x;
+    this.boundY = y;
+    this.boundListener = o -> this.onBoundChanged();
+    x.internalRawValue().addListener(this.boundListener);
+    if (y != null) {
+      y.internalRawValue().addListener(this.boundListener);
+    }
+    this.onBoundChanged();
+  }
+
+  /**
+   * Stop driving the morph position from dials.
+   */
+
+  public void unbindPosition()
+  {
+    if (this.boundListener != null) {
+      this.boundX.internalRawValue().removeListener(this.boundListener);
+      if (this.boundY != null) {
+        this.boundY.internalRawValue().removeListener(this.boundListener);
+      }
+    }
+    this.boundX = null;
+    this.boundY = null;
+    this.boundListener = null;
+  }
+
+  private void onBoundChanged()
+  {
+    final var x = this.boundX.internalRawValue().get();
+    if (this.boundY != null) {
+      this.setPosition(x, this.boundY.internalRawValue().get());
+    } else {
+      this.setPosition(x);
+    }
+  }
+
+  private void schedule()
+  {
+    if (!this.scheduled) {
+      this.scheduled = true;
+      this.timer.start();
+    }
+  }
+
+  private void onPulse()
+  {
+    this.timer.stop();
+    this.scheduled = false;
+    this.applyNow();
+  }
+
+  /**
+   * Evaluate the morph and update the dials immediately, rather than
+   * waiting for the next pulse.
+   *
+   * @return The number of dials that were changed
+   */
+
+  public int applyNow()
+  {
+    final var count = this.dials.size();
+    if (this.bilinear) {
+      this.evaluateBilinear(count);
+    } else {
+      this.evaluateLinear(count);
+    }
+
+    final var changed = this.batch.size();
+    this.batch.apply();
+    return changed;
+  }
+
+  private void evaluateLinear(
+    final int count)
+  {
+    final var segments = this.vectorCount - 1;
+    final var scaled = this.positionX * (double) segments;
+    final var segment = Math.min((int) scaled, segments - 1);
+    final var t = scaled - (double) segment;
+    final var offset0 = segment * count;
+    final var offset1 = offset0 + count;
+
+    for (int index = 0; index < count; ++index) {
+      final var a = this.vectors[offset0 + index];
+      final var b = this.vectors[offset1 + index];
+      this.update(index, a + ((b - a) * t));
+    }
+  }
+
+  private void evaluateBilinear(
+    final int count)
+  {
+    final var x = this.positionX;
+    final var y = this.positionY;
+    final var w00 = (1.0 - x) * (1.0 - y);
+    final var w10 = x * (1.0 - y);
+    final var w01 = (1.0 - x) * y;
+    final var w11 = x * y;
+
+    for (int index = 0; index < count; ++index) {
+      final var value =
+        (this.vectors[index] * w00)
+          + (this.vectors[count + index] * w10)
+          + (this.vectors[(2 * count) + index] * w01)
+          + (this.vectors[(3 * count) + index] * w11);
+      this.update(index, value);
+    }
+  }
+
+  private void update(
+    final int index,
+    final double value)
+  {
+    final var dial = this.dials.get(index);
+    final var target = Math.min(Math.max(0.0, value), 1.0);
+    if (Double.compare(dial.getRawValue(), target) != 0) {
+      this.batch.setRawValue(dial, target);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+/**
+ * The peak hold state of a meter. A new peak is held for a fixed period,
+ * after which it decays towards the current value at a fixed rate.
+ */
+
+final class DialPeakHold
+{
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+  private final long holdNanos;
+  private final double decayPerNano;
+  private double peak;
+  private long peakTime;
+  private long updateTime;
+
+  /**
+   * Create peak hold state.
+   *
+   * @param inHoldNanos      The time for which a new peak is held
+   * @param inDecayPerSecond The rate at which the peak decays after the hold
+   * @param value            The initial value
+   * @param timeNow          The current time
+   */
+
+  DialPeakHold(
+    final long inHoldNanos,
+    final double inDecayPerSecond,
+    final double value,
+    final long timeNow)
+  {
+    this.holdNanos = inHoldNanos;
+    this.decayPerNano = inDecayPerSecond / NANOS_PER_SECOND;
+    this.peak = value;
+    this.peakTime = timeNow;
+    this.updateTime = timeNow;
+  }
+
+  /**
+   * @return The current peak
+   */
+
+  double peak()
+  {
+    return this.peak;
+  }
+
+  /**
+   * Update the peak for the current value.
+   *
+   * @param value   The current value
+   * @param timeNow The current time
+   *
+   * @return {@code true} if the peak changed
+   */
+
+  boolean update(
+    final double value,
+    final long timeNow)
+  {
+    final var timeThen = this.updateTime;
+    this.updateTime = timeNow;
+
+    if (value >= this.peak) {
+      final var changed = value != this.peak;
+      this.peak = value;
+      this.peakTime = timeNow;
+      return changed;
+    }
+
+    final var holdEnd = this.peakTime + this.holdNanos;
+    if (timeNow - holdEnd <= 0L) {
+      return false;
+    }
+
+    final var elapsed = timeNow - Math.max(timeThen, holdEnd);
+    final var decayed =
+      Math.max(value, this.peak - (this.decayPerNano * (double) elapsed));
+    final var changed = decayed != this.peak;
+    this.peak = decayed;
+    return changed;
+  }
+}
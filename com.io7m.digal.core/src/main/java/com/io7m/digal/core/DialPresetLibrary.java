@@ -0,0 +1,495 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialConversions;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static com.io7m.digal.core.DialVarints.readVarint;
+import static com.io7m.digal.core.DialVarints.writeVarint;
+import static com.io7m.digal.core.DialVarints.zigzagDecode;
+import static com.io7m.digal.core.DialVarints.zigzagEncode;
+
+/**
+ * <p>A library of named presets.</p>
+ *
+ * <p>A preset records the converted values of a list of dials. Values are
+ * stored in a compact binary record: integral values (such as those
+ * produced by discrete converters) are stored as zigzag-encoded varints,
+ * and other values are stored as eight-byte IEEE 754 values.</p>
+ *
+ * <p>A library is saved to a single file consisting of a header, an index
+ * of preset names sorted in lexicographic order, and the preset records.
+ * Opening a library reads the file in a single read and decodes only the
+ * index; the records remain as undecoded slices of the file's contents, so
+ * libraries containing many thousands of presets open and can be browsed
+ * quickly. The file is not held open, and may be replaced (for example, by
+ * saving the library over it) while the library is in use.</p>
+ *
+ * <p>Recalling a preset compares each recorded value against the current
+ * value of the corresponding dial, and only dials whose values differ are
+ * changed. All changes are applied together as a single {@link DialBatch}.
+ * Libraries are not thread-safe; recalling presets must be performed on
+ * the FX application thread.</p>
+ */
+
+public final class DialPresetLibrary
+{
+  private static final long MAGIC = 0x4449_4741_4C50_5245L;
+  private static final int VERSION = 1;
+  private static final int TAG_REAL = 1;
+  private static final int HEADER_SIZE = 16;
+  private static final int INDEX_ENTRY_SIZE_MINIMUM = 3;
+
+  private final TreeMap<String, ByteBuffer> presets;
+  private final DialBatch batch;
+  private final ByteArrayOutputStream scratch;
+
+  private DialPresetLibrary(
+    final TreeMap<String, ByteBuffer> inPresets)
+  {
+    this.presets = inPresets;
+    this.batch = new DialBatch();
+    this.scratch = new ByteArrayOutputStream();
+  }
+
+  /**
+   * @return A new empty library
+   */
+
+  public static DialPresetLibrary create()
+  {
+    return new DialPresetLibrary(new TreeMap<>());
+  }
+
+  /**
+   * Open a library that was previously saved with {@link #save(Path)}.
+   *
+   * @param file The file
+   *
+   * @return A library
+   *
+   * @throws IOException On I/O errors, or if the file is not a library
+   */
+
+  public static DialPresetLibrary open(
+    final Path file)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+
+    /*
+     * The file is read onto the heap rather than mapped. A mapping cannot
+     * be released explicitly, and on some platforms, a mapped file cannot
+     * be replaced or deleted for as long as the mapping is reachable.
+     */
+
+    final var data = ByteBuffer.wrap(Files.readAllBytes(file));
+
+    try {
+      return new DialPresetLibrary(readIndex(data));
+    } catch (final RuntimeException e) {
+      throw new IOException("Malformed preset library: " + file, e);
+    }
+  }
+
+  private static TreeMap<String, ByteBuffer> readIndex(
+    final ByteBuffer data)
+    throws IOException
+  {
+    readHeader(data);
+
+    /*
+     * Every index entry occupies at least one byte for each of its three
+     * varints, so a count that could not fit in the rest of the file is
+     * rejected before any arrays are allocated.
+     */
+
+    final var count = data.getInt();
+    if (count < 0 || count > data.remaining() / INDEX_ENTRY_SIZE_MINIMUM) {
+      throw new IOException(
+        "Preset count %d exceeds the size of the library"
+          .formatted(Integer.valueOf(count))
+      );
+    }
+
+    final var names = new String[count];
+    final var offsets = new int[count];
+    final var lengths = new int[count];
+    for (int index = 0; index < count; ++index) {
+      final var nameLength = readSize(data, data.remaining(), "Name length");
+      names[index] =
+        StandardCharsets.UTF_8.decode(data.slice(data.position(), nameLength))
+          .toString();
+      data.position(data.position() + nameLength);
+      offsets[index] = readSize(data, data.remaining(), "Record offset");
+      lengths[index] = readSize(data, data.remaining(), "Record length");
+    }
+
+    final var base = data.position();
+    checkRecords(offsets, lengths, data.limit() - base);
+
+    final var result = new TreeMap<String, ByteBuffer>();
+    for (int index = 0; index < count; ++index) {
+      result.put(
+        names[index],
+        data.slice(base + offsets[index], lengths[index]).asReadOnlyBuffer()
+      );
+    }
+    return result;
+  }
+
+  private static void readHeader(
+    final ByteBuffer data)
+    throws IOException
+  {
+    if (data.remaining() < HEADER_SIZE) {
+      throw new IOException("Truncated preset library header.");
+    }
+
+    final var magic = data.getLong();
+    if (magic != MAGIC) {
+      throw new IOException(
+        "Unrecognized preset library magic number 0x%016x"
+          .formatted(Long.valueOf(magic))
+      );
+    }
+    final var version = data.getInt();
+    if (version != VERSION) {
+      throw new IOException(
+        "Unsupported preset library version %d"
+          .formatted(Integer.valueOf(version))
+      );
+    }
+  }
+
+  private static void checkRecords(
+    final int[] offsets,
+    final int[] lengths,
+    final int recordsSize)
+    throws IOException
+  {
+    for (int index = 0; index < offsets.length; ++index) {
+      if (offsets[index] > recordsSize - lengths[index]) {
+        throw new IOException(
+          "Record %d (offset %d, length %d) exceeds the size of the library"
+            .formatted(
+              Integer.valueOf(index),
+              Integer.valueOf(offsets[index]),
+              Integer.valueOf(lengths[index]))
+        );
+      }
+    }
+  }
+
+  private static int readSize(
+    final ByteBuffer data,
+    final int maximum,
+    final String name)
+    throws IOException
+  {
+    final var size = readVarint(data);
+    if (size < 0L || size > (long) maximum) {
+      throw new IOException(
+        "%s %d exceeds the size of the library"
+          .formatted(name, Long.valueOf(size))
+      );
+    }
+    return (int) size;
+  }
+
+  /**
+   * Store the converted values of the given dials as a preset, replacing
+   * any existing preset with the same name.
+   *
+   * @param name  The preset name
+   * @param dials The dials
+   */
+
+  public void store(
+    final String name,
+    final List<DialControl> dials)
+  {
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(dials, "dials");
+
+    this.scratch.reset();
+    try {
+      writeVarint(this.scratch, dials.size());
+      for (final var dial : dials) {
+        writeValue(this.scratch, dial.getConvertedValue());
+      }
+    } catch (final IOException e) {
+      throw new IllegalStateException(e);
+    }
+
+    this.presets.put(name, ByteBuffer.wrap(this.scratch.toByteArray()));
+  }
+
+  private static void writeValue(
+    final OutputStream output,
+    final double x)
+    throws IOException
+  {
+    if (x == Math.rint(x) && Math.abs(x) < 0x1p52) {
+      writeVarint(output, zigzagEncode((long) x) << 1);
+      return;
+    }
+
+    writeVarint(output, TAG_REAL);
+    final var bits = Double.doubleToRawLongBits(x);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      output.write((int) (bits >>> shift));
+    }
+  }
+
+  private static double readValue(
+    final ByteBuffer input)
+    throws IOException
+  {
+    final var header = readVarint(input);
+    if ((header & 1L) == 0L) {
+      return (double) zigzagDecode(header >>> 1);
+    }
+    return input.getDouble();
+  }
+
+  /**
+   * Remove a preset.
+   *
+   * @param name The preset name
+   *
+   * @return {@code true} if the preset existed
+   */
+
+  public boolean remove(
+    final String name)
+  {
+    return this.presets.remove(Objects.requireNonNull(name, "name")) != null;
+  }
+
+  /**
+   * @param name The preset name
+   *
+   * @return {@code true} if a preset with the given name exists
+   */
+
+  public boolean contains(
+    final String name)
+  {
+    return this.presets.containsKey(Objects.requireNonNull(name, "name"));
+  }
+
+  /**
+   * @return The number of presets in the library
+   */
+
+  public int size()
+  {
+    return this.presets.size();
+  }
+
+  /**
+   * @return The names of all presets in lexicographic order
+   */
+
+  public List<String> names()
+  {
+    return List.copyOf(this.presets.navigableKeySet());
+  }
+
+  /**
+   * Browse the library in lexicographic order.
+   *
+   * @param from  The name at which to start (inclusive)
+   * @param limit The maximum number of names to return
+   *
+   * @return At most {@code limit} preset names, starting at {@code from}
+   */
+
+  public List<String> names(
+    final String from,
+    final int limit)
+  {
+    Objects.requireNonNull(from, "from");
+
+    final NavigableMap<String, ByteBuffer> tail =
+      this.presets.tailMap(from, true);
+    return tail.navigableKeySet()
+      .stream()
+      .limit(Math.max(0, limit))
+      .toList();
+  }
+
+  /**
+   * Read the values stored in a preset.
+   *
+   * @param name The preset name
+   *
+   * @return The converted values stored in the preset
+   *
+   * @throws IOException If the preset record is malformed
+   */
+
+  public double[] values(
+    final String name)
+    throws IOException
+  {
+    final var record = this.record(name);
+    final var values = new double[(int) readVarint(record)];
+    for (int index = 0; index < values.length; ++index) {
+      values[index] = readValue(record);
+    }
+    return values;
+  }
+
+  private ByteBuffer record(
+    final String name)
+  {
+    Objects.requireNonNull(name, "name");
+    final var record = this.presets.get(name);
+    if (record == null) {
+      throw new IllegalArgumentException("No such preset: " + name);
+    }
+    return record.duplicate();
+  }
+
+  /**
+   * Recall a preset. The value recorded at index {@code i} is applied to
+   * the dial at index {@code i}; dials or values without a counterpart are
+   * ignored. Dials whose current value already matches the recorded value
+   * are not touched, and the remaining dials are changed in a single
+   * batch.
+   *
+   * @param name  The preset name
+   * @param dials The dials
+   *
+   * @return The number of dials that were changed
+   *
+   * @throws IOException If the preset record is malformed
+   * @see DialBatch
+   */
+
+  public int recall(
+    final String name,
+    final List<DialControl> dials)
+    throws IOException
+  {
+    Objects.requireNonNull(dials, "dials");
+
+    final var record = this.record(name);
+    final var count = Math.min((int) readVarint(record), dials.size());
+
+    this.batch.clear();
+    for (int index = 0; index < count; ++index) {
+      final var dial = dials.get(index);
+      final var target =
+        Math.min(Math.max(
+          0.0,
+          DialConversions.toDial(dial.valueConverter(), readValue(record))
+        ), 1.0);
+
+      if (Double.compare(dial.getRawValue(), target) != 0
+          || Double.compare(dial.rawValue().get(), target) != 0) {
+        this.batch.setRawValue(dial, target);
+      }
+    }
+
+    final var changed = this.batch.size();
+    this.batch.apply();
+    return changed;
+  }
+
+  /**
+   * Save the library to a file. The file is replaced atomically.
+   *
+   * @param file The file
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public void save(
+    final Path file)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+
+    final var absolute = file.toAbsolutePath();
+    final var temporary =
+      Files.createTempFile(absolute.getParent(), "presets", ".tmp");
+
+    try {
+      try (var output = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        this.writeTo(output);
+      }
+      Files.move(
+        temporary,
+        absolute,
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING
+      );
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private void writeTo(
+    final DataOutputStream output)
+    throws IOException
+  {
+    output.writeLong(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(this.presets.size());
+
+    int offset = 0;
+    for (final var entry : this.presets.entrySet()) {
+      final var nameBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+      final var length = entry.getValue().remaining();
+      writeVarint(output, nameBytes.length);
+      output.write(nameBytes);
+      writeVarint(output, offset);
+      writeVarint(output, length);
+      offset += length;
+    }
+
+    final var buffer = new byte[4096];
+    for (final var record : this.presets.values()) {
+      final var data = record.duplicate();
+      while (data.hasRemaining()) {
+        final var size = Math.min(buffer.length, data.remaining());
+        data.get(buffer, 0, size);
+        output.write(buffer, 0, size);
+      }
+    }
+  }
+}
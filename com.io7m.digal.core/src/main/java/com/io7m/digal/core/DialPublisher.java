@@ -0,0 +1,458 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialModelChange;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+/**
+ * <p>A {@link Flow.Publisher} of changes to one of the values of a dial, or
+ * of a group of dials.</p>
+ *
+ * <p>Each subscriber receives changes at the rate that it requests them. A
+ * subscriber that has no outstanding demand holds at most one pending value
+ * per dial; further changes to a dial replace its pending value, so slow
+ * subscribers see the latest value of each dial and the amount of buffered
+ * state never exceeds the number of dials. Pending dials are delivered in
+ * the order in which they first changed.</p>
+ *
+ * <p>Subscribers are signalled on an executor (virtual threads by default),
+ * never on the FX application thread. Closing the publisher completes all
+ * subscribers.</p>
+ */
+
+public final class DialPublisher
+  implements Flow.Publisher<DialValueEvent>, AutoCloseable
+{
+  private static final Executor VIRTUAL_THREADS =
+    Executors.newVirtualThreadPerTaskExecutor();
+
+  private static final Subscription[] NO_SUBSCRIPTIONS =
+    new Subscription[0];
+
+  private final DialControl[] dials;
+  private final DialValueListenerType[] localListeners;
+  private final DialModelChange change;
+  private final Executor executor;
+  private final Object lock;
+  private volatile Subscription[] subscriptions;
+  private boolean closed;
+
+  private DialPublisher(
+    final List<DialControl> inDials,
+    final DialModelChange inChange,
+    final Executor inExecutor)
+  {
+    this.dials =
+      Objects.requireNonNull(inDials, "dials").toArray(new DialControl[0]);
+    this.change = Objects.requireNonNull(inChange, "change");
+    this.executor = Objects.requireNonNull(inExecutor, "executor");
+    this.lock = new Object();
+    this.subscriptions = NO_SUBSCRIPTIONS;
+    this.localListeners = new DialValueListenerType[this.dials.length];
+
+    for (int index = 0; index < this.dials.length; ++index) {
+      final var dialIndex = index;
+      Objects.requireNonNull(this.dials[index], "dial");
+      this.localListeners[index] = (dial, oldValue, newValue) -> {
+        this.onLocalChange(dialIndex, newValue);
+      };
+    }
+  }
+
+  /**
+   * Create a publisher for a single dial that signals subscribers on
+   * virtual threads. Must be called on the FX application thread.
+   *
+   * @param dial   The dial
+   * @param change The kind of change
+   *
+   * @return A publisher
+   */
+
+  public static DialPublisher create(
+    final DialControl dial,
+    final DialModelChange change)
+  {
+    return create(List.of(dial), change, VIRTUAL_THREADS);
+  }
+
+  /**
+   * Create a publisher for a group of dials that signals subscribers on
+   * virtual threads. Must be called on the FX application thread.
+   *
+   * @param dials  The dials
+   * @param change The kind of change
+   *
+   * @return A publisher
+   */
+
+  public static DialPublisher create(
+    final List<DialControl> dials,
+    final DialModelChange change)
+  {
+    return create(dials, change, VIRTUAL_THREADS);
+  }
+
+  /**
+   * Create a publisher for a group of dials that signals subscribers on the
+   * given executor. Must be called on the FX application thread.
+   *
+   * @param dials    The dials
+   * @param change   The kind of change
+   * @param executor The executor
+   *
+   * @return A publisher
+   */
+
+  public static DialPublisher create(
+    final List<DialControl> dials,
+    final DialModelChange change,
+    final Executor executor)
+  {
+    final var publisher = new DialPublisher(dials, change, executor);
+    for (int index = 0; index < publisher.dials.length; ++index) {
+      publisher.dials[index].addValueListener(
+        change, publisher.localListeners[index]);
+    }
+    return publisher;
+  }
+
+  /**
+   * @return The dials
+   */
+
+  public List<DialControl> dials()
+  {
+    return List.of(this.dials);
+  }
+
+  /**
+   * @return The number of current subscribers
+   */
+
+  public int subscriberCount()
+  {
+    return this.subscriptions.length;
+  }
+
+  @Override
+  public void subscribe(
+    final Flow.Subscriber<? super DialValueEvent> subscriber)
+  {
+    Objects.requireNonNull(subscriber, "subscriber");
+
+    final var subscription = new Subscription(this, subscriber);
+    synchronized (this.lock) {
+      if (this.closed) {
+        subscription.complete();
+      } else {
+        final var existing = this.subscriptions;
+        final var updated = Arrays.copyOf(existing, existing.length + 1);
+        updated[existing.length] = subscription;
+        this.subscriptions = updated;
+      }
+    }
+    subscription.schedule();
+  }
+
+  private void onLocalChange(
+    final int index,
+    final double value)
+  {
+    for (final var subscription : this.subscriptions) {
+      subscription.offer(index, value);
+    }
+  }
+
+  private void unsubscribe(
+    final Subscription subscription)
+  {
+    synchronized (this.lock) {
+      final var existing = this.subscriptions;
+      for (int index = 0; index < existing.length; ++index) {
+        if (existing[index] == subscription) {
+          final var updated = new Subscription[existing.length - 1];
+          System.arraycopy(existing, 0, updated, 0, index);
+          System.arraycopy(
+            existing, index + 1, updated, index, updated.length - index);
+          this.subscriptions = updated;
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Stop publishing changes, and complete all subscribers once their
+   * pending values have been discarded. Must be called on the FX
+   * application thread.
+   */
+
+  @Override
+  public void close()
+  {
+    final Subscription[] existing;
+    synchronized (this.lock) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      existing = this.subscriptions;
+      this.subscriptions = NO_SUBSCRIPTIONS;
+    }
+
+    for (int index = 0; index < this.dials.length; ++index) {
+      this.dials[index].removeValueListener(
+        this.change, this.localListeners[index]);
+    }
+    for (final var subscription : existing) {
+      subscription.complete();
+      subscription.schedule();
+    }
+  }
+
+  /**
+   * The signals that may be sent to a subscriber.
+   */
+
+  private enum Signal
+  {
+    SUBSCRIBE,
+    NEXT,
+    ERROR,
+    COMPLETE
+  }
+
+  /**
+   * The state of a single subscriber. The pending dials form a queue of
+   * dial indices in which each dial appears at most once.
+   */
+
+  private static final class Subscription implements Flow.Subscription
+  {
+    private final DialPublisher publisher;
+    private final Flow.Subscriber<? super DialValueEvent> subscriber;
+    private final double[] values;
+    private final boolean[] queued;
+    private final int[] queue;
+    private int queueHead;
+    private int queueSize;
+    private long demand;
+    private boolean subscribed;
+    private boolean draining;
+    private boolean cancelled;
+    private boolean completed;
+    private Throwable error;
+
+    Subscription(
+      final DialPublisher inPublisher,
+      final Flow.Subscriber<? super DialValueEvent> inSubscriber)
+    {
+      this.publisher = inPublisher;
+      this.subscriber = inSubscriber;
+
+      final var count = inPublisher.dials.length;
+      this.values = new double[count];
+      this.queued = new boolean[count];
+      this.queue = new int[count];
+    }
+
+    void offer(
+      final int index,
+      final double value)
+    {
+      synchronized (this) {
+        if (this.cancelled || this.completed) {
+          return;
+        }
+        this.values[index] = value;
+        if (!this.queued[index]) {
+          this.queued[index] = true;
+          this.queue[(this.queueHead + this.queueSize) % this.queue.length] =
+            index;
+          ++this.queueSize;
+        }
+        if (this.demand == 0L) {
+          return;
+        }
+      }
+      this.schedule();
+    }
+
+    void complete()
+    {
+      synchronized (this) {
+        this.completed = true;
+        this.queueSize = 0;
+        Arrays.fill(this.queued, false);
+      }
+    }
+
+    @Override
+    public void request(
+      final long n)
+    {
+      synchronized (this) {
+        if (n <= 0L) {
+          if (this.error == null) {
+            this.error = new IllegalArgumentException(
+              "Requested %d items; demand must be positive"
+                .formatted(Long.valueOf(n))
+            );
+          }
+        } else {
+          final var sum = this.demand + n;
+          this.demand = sum < 0L ? Long.MAX_VALUE : sum;
+        }
+      }
+      this.schedule();
+    }
+
+    @Override
+    public void cancel()
+    {
+      synchronized (this) {
+        this.cancelled = true;
+        this.queueSize = 0;
+      }
+      this.publisher.unsubscribe(this);
+    }
+
+    void schedule()
+    {
+      synchronized (this) {
+        if (this.draining || this.cancelled) {
+          return;
+        }
+        this.draining = true;
+      }
+      this.publisher.executor.execute(this::drain);
+    }
+
+    /*
+     * A subscriber that throws from a signal method is treated as having
+     * cancelled its subscription, as required by the Reactive Streams
+     * specification (rule 2.13). The exception is propagated to the
+     * executor.
+     */
+
+    private void drain()
+    {
+      var returned = false;
+      try {
+        this.drainSignals();
+        returned = true;
+      } finally {
+        if (!returned) {
+          this.terminate();
+        }
+      }
+    }
+
+    private void terminate()
+    {
+      synchronized (this) {
+        this.cancelled = true;
+        this.draining = false;
+        this.queueSize = 0;
+      }
+      this.publisher.unsubscribe(this);
+    }
+
+    /*
+     * Signals are only ever sent from a single drain at a time, and never
+     * while holding the lock.
+     */
+
+    private void drainSignals()
+    {
+      while (true) {
+        final Signal signal;
+        final Throwable failure;
+        DialValueEvent event = null;
+
+        synchronized (this) {
+          signal = this.nextSignal();
+          failure = this.error;
+          if (signal == null) {
+            this.draining = false;
+            return;
+          }
+          if (signal == Signal.NEXT) {
+            event = this.take();
+          }
+        }
+
+        switch (signal) {
+          case SUBSCRIBE -> this.subscriber.onSubscribe(this);
+          case NEXT -> this.subscriber.onNext(event);
+          case ERROR -> {
+            this.publisher.unsubscribe(this);
+            this.subscriber.onError(failure);
+            return;
+          }
+          case COMPLETE -> {
+            this.subscriber.onComplete();
+            return;
+          }
+        }
+      }
+    }
+
+    private Signal nextSignal()
+    {
+      if (this.cancelled) {
+        return null;
+      }
+      if (!this.subscribed) {
+        this.subscribed = true;
+        return Signal.SUBSCRIBE;
+      }
+      if (this.error != null) {
+        this.cancelled = true;
+        return Signal.ERROR;
+      }
+      if (this.demand > 0L && this.queueSize > 0) {
+        return Signal.NEXT;
+      }
+      if (this.completed) {
+        this.cancelled = true;
+        return Signal.COMPLETE;
+      }
+      return null;
+    }
+
+    private DialValueEvent take()
+    {
+      final var index = this.queue[this.queueHead];
+      this.queueHead = (this.queueHead + 1) % this.queue.length;
+      --this.queueSize;
+      --this.demand;
+      this.queued[index] = false;
+      return new DialValueEvent(
+        this.publisher.dials[index], index, this.values[index]);
+    }
+  }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ArcType;
+import javafx.scene.shape.StrokeLineCap;
+
+/**
+ * The drawing code for dials. A renderer holds a copy of the style of a
+ * dial so that drawing does not need to go through the (boxed) property
+ * values.
+ */
+
+final class DialRenderer
+{
+  private static final double PARTIAL_AREA_MAXIMUM = 0.5;
+
+  private Color bodyColor;
+  private Color bodyStrokeColor;
+  private Color embossColor;
+  private Color indicatorColor;
+  private Color radialGaugeColor;
+  private Color shadeColor;
+  private Color tickColor;
+  private double bodyStrokeSize;
+  private double embossSize;
+  private double indicatorSize;
+  private double radialGaugeSize;
+  private double tickSize;
+  private int tickCount;
+
+  DialRenderer()
+  {
+
+  }
+
+  /**
+   * Take a copy of the current style of a dial.
+   *
+   * @param style The style
+   */
+
+  void setStyle(
+    final Style style)
+  {
+    this.bodyColor = style.bodyColor();
+    this.bodyStrokeColor = style.bodyStrokeColor();
+    this.embossColor = style.embossColor();
+    this.indicatorColor = style.indicatorColor();
+    this.radialGaugeColor = style.radialGaugeColor();
+    this.shadeColor = style.shadeColor();
+    this.tickColor = style.tickColor();
+    this.bodyStrokeSize = style.bodyStrokeSize();
+    this.embossSize = style.embossSize();
+    this.indicatorSize = style.indicatorSize();
+    this.radialGaugeSize = style.radialGaugeSize();
+    this.tickSize = style.tickSize();
+  }
+
+  /**
+   * @return The number of tick marks
+   */
+
+  int tickCount()
+  {
+    return this.tickCount;
+  }
+
+  /**
+   * Set the number of tick marks.
+   *
+   * @param count The number of tick marks
+   */
+
+  void setTickCount(
+    final int count)
+  {
+    this.tickCount = count;
+  }
+
+  /**
+   * Render all of the layers of a dial.
+   *
+   * @param g        The graphics context
+   * @param width    The dial width
+   * @param height   The dial height
+   * @param valueNow The displayed position
+   * @param peak     The displayed peak, drawn if it lies above the position
+   */
+
+  void renderLayers(
+    final GraphicsContext g,
+    final double width,
+    final double height,
+    final double valueNow,
+    final double peak)
+  {
+    final var halfWidth = width / 2.0;
+    final var halfHeight = height / 2.0;
+    final var gaugeSize = this.radialGaugeSize;
+
+    this.renderRadialGauge(g, width, height, valueNow);
+    this.renderPeak(g, halfWidth, halfHeight, gaugeSize, valueNow, peak);
+    this.renderShadow(g, width, height);
+    this.renderTickMarks(g, halfWidth, halfHeight);
+    this.renderDialBody(g, width, height, gaugeSize);
+    this.renderDialEmboss(g, width, height, gaugeSize);
+    this.renderDialIndicator(g, halfWidth, halfHeight, gaugeSize, valueNow);
+  }
+
+  /**
+   * <p>Render the region of a dial that changes when its position moves from
+   * {@code valueThen} to {@code valueNow}, if that region is small enough.</p>
+   *
+   * <p>When only the value has changed since the last redraw, the only pixels
+   * that change are those of the radial gauge and the indicator, both of
+   * which lie within the sector swept between the old and new angles. The
+   * radial gauge is an ellipse that fills the dial, but the indicator and
+   * the peak marker are circles whose radii depend only on the width of
+   * the dial, so the sector extends to the larger of the two radii on the
+   * vertical axis. The bounding box of that sector is cleared and all of
+   * the layers are
+   * repainted clipped to it. If the box covers too much of the dial, a full
+   * redraw is cheaper.</p>
+   *
+   * <p>Unlike a full redraw, a partial redraw allocates: a clip can only be
+   * removed again with {@link GraphicsContext#restore()}, and both
+   * {@link GraphicsContext#save()} and {@link GraphicsContext#clip()} copy
+   * state. Repainting the box without a clip is not an option, as the
+   * anti-aliased edges of the layers that cross the edges of the box would
+   * be blended twice. The allocation is a small, fixed amount per redraw,
+   * which is far cheaper than rasterizing the whole dial.</p>
+   *
+   * @param g         The graphics context
+   * @param width     The dial width
+   * @param height    The dial height
+   * @param valueThen The previously displayed position
+   * @param valueNow  The displayed position
+   * @param peak      The displayed peak
+   *
+   * @return {@code false} if nothing was drawn and a full redraw is required
+   */
+
+  boolean renderPartial(
+    final GraphicsContext g,
+    final double width,
+    final double height,
+    final double valueThen,
+    final double valueNow,
+    final double peak)
+  {
+    final var halfWidth = width / 2.0;
+    final var halfHeight = height / 2.0;
+    final var radiusX = halfWidth;
+    final var radiusY = Math.max(halfWidth, halfHeight);
+
+    final var angleA = Math.toRadians(225.0 - (valueThen * 270.0));
+    final var angleB = Math.toRadians(225.0 - (valueNow * 270.0));
+    final var angleMin = Math.min(angleA, angleB);
+    final var angleMax = Math.max(angleA, angleB);
+
+    final var cosA = Math.cos(angleA);
+    final var cosB = Math.cos(angleB);
+    final var sinA = Math.sin(angleA);
+    final var sinB = Math.sin(angleB);
+
+    var xMin = Math.min(0.0, Math.min(cosA, cosB));
+    var xMax = Math.max(0.0, Math.max(cosA, cosB));
+    final var yMin = Math.min(0.0, Math.min(sinA, sinB));
+    var yMax = Math.max(0.0, Math.max(sinA, sinB));
+
+    /*
+     * The sector extends to its extremes on any axis that it
+     * crosses. Angles lie in [-45°, 225°], so only these three can occur.
+     */
+
+    if (angleMin <= 0.0 && 0.0 <= angleMax) {
+      xMax = 1.0;
+    }
+    if (angleMin <= Math.PI / 2.0 && Math.PI / 2.0 <= angleMax) {
+      yMax = 1.0;
+    }
+    if (angleMin <= Math.PI && Math.PI <= angleMax) {
+      xMin = -1.0;
+    }
+
+    final var pad = (this.indicatorSize / 2.0) + 2.0;
+    final var x0 =
+      Math.max(0.0, Math.floor(halfWidth + (xMin * radiusX) - pad));
+    final var x1 =
+      Math.min(width, Math.ceil(halfWidth + (xMax * radiusX) + pad));
+    final var y0 =
+      Math.max(0.0, Math.floor(halfHeight - (yMax * radiusY) - pad));
+    final var y1 =
+      Math.min(height, Math.ceil(halfHeight - (yMin * radiusY) + pad));
+
+    final var w = x1 - x0;
+    final var h = y1 - y0;
+    if (w * h > PARTIAL_AREA_MAXIMUM * width * height) {
+      return false;
+    }
+
+    g.save();
+    g.beginPath();
+    g.rect(x0, y0, w, h);
+    g.clip();
+    g.clearRect(x0, y0, w, h);
+    this.renderLayers(g, width, height, valueNow, peak);
+    g.restore();
+    return true;
+  }
+
+  private void renderDialIndicator(
+    final GraphicsContext g,
+    final double halfWidth,
+    final double halfHeight,
+    final double gaugeSize,
+    final double valueNow)
+  {
+    g.setFill(null);
+    g.setStroke(this.indicatorColor);
+    g.setLineWidth(this.indicatorSize);
+    g.setLineCap(StrokeLineCap.ROUND);
+    g.translate(halfWidth, halfHeight);
+    g.rotate(-225.0 + (valueNow * 270.0));
+
+    g.strokeLine(
+      0.0,
+      0.0,
+      halfWidth - (gaugeSize * 2.0),
+      0.0
+    );
+
+    resetState(g);
+  }
+
+  /**
+   * Reset the transform and line cap of the graphics context. This is used
+   * instead of {@link GraphicsContext#save()} and
+   * {@link GraphicsContext#restore()}, as saving the state allocates. Only
+   * partial redraws, which need a clip, save the state.
+   *
+   * @param g The graphics context
+   */
+
+  private static void resetState(
+    final GraphicsContext g)
+  {
+    g.setTransform(1.0, 0.0, 0.0, 1.0, 0.0, 0.0);
+    g.setLineCap(StrokeLineCap.SQUARE);
+  }
+
+  private void renderPeak(
+    final GraphicsContext g,
+    final double halfWidth,
+    final double halfHeight,
+    final double gaugeSize,
+    final double valueNow,
+    final double peak)
+  {
+    if (peak <= valueNow) {
+      return;
+    }
+
+    g.setFill(null);
+    g.setStroke(this.radialGaugeColor);
+    g.setLineWidth(this.indicatorSize);
+    g.translate(halfWidth, halfHeight);
+    g.rotate(-225.0 + (peak * 270.0));
+    g.strokeLine(halfWidth - gaugeSize, 0.0, halfWidth, 0.0);
+    resetState(g);
+  }
+
+  private void renderDialEmboss(
+    final GraphicsContext g,
+    final double width,
+    final double height,
+    final double gaugeSize)
+  {
+    final var sizeD = this.embossSize;
+    g.setFill(null);
+    g.setStroke(this.embossColor);
+    g.setLineWidth(sizeD);
+    g.strokeOval(
+      gaugeSize + sizeD,
+      gaugeSize + sizeD,
+      width - ((2.0 * sizeD) + (gaugeSize * 2.0)),
+      height - ((2.0 * sizeD) + (gaugeSize * 2.0)));
+  }
+
+  private void renderDialBody(
+    final GraphicsContext g,
+    final double width,
+    final double height,
+    final double gaugeSize)
+  {
+    g.setFill(this.bodyColor);
+    g.setStroke(this.bodyStrokeColor);
+    g.setLineWidth(this.bodyStrokeSize);
+
+    g.fillOval(
+      gaugeSize,
+      gaugeSize,
+      width - (gaugeSize * 2.0),
+      height - (gaugeSize * 2.0));
+    g.strokeOval(
+      gaugeSize,
+      gaugeSize,
+      width - (gaugeSize * 2.0),
+      height - (gaugeSize * 2.0));
+  }
+
+  private void renderTickMarks(
+    final GraphicsContext g,
+    final double halfWidth,
+    final double halfHeight)
+  {
+    g.setFill(null);
+    g.setStroke(this.tickColor);
+    g.setLineWidth(this.tickSize);
+    g.setLineCap(StrokeLineCap.ROUND);
+    g.translate(halfWidth, halfHeight);
+
+    final var count = this.tickCount;
+    final var tickDelta = 270.0 / (double) count;
+
+    g.rotate(-225.0);
+    for (int index = 0; index <= count; ++index) {
+      g.strokeLine(0.0, 0.5, halfWidth, 0.5);
+      g.rotate(tickDelta);
+    }
+
+    resetState(g);
+  }
+
+  private void renderShadow(
+    final GraphicsContext g,
+    final double width,
+    final double height)
+  {
+    g.setStroke(null);
+    g.setFill(this.shadeColor);
+    g.fillOval(0.0, 0.0, width, height);
+  }
+
+  private void renderRadialGauge(
+    final GraphicsContext g,
+    final double width,
+    final double height,
+    final double valueNow)
+  {
+    final var arcExtent = -(valueNow * 270.0);
+    g.setStroke(null);
+    g.setFill(this.radialGaugeColor);
+    g.fillArc(
+      0.0, 0.0, width, height, 225.0, arcExtent, ArcType.ROUND
+    );
+  }
+
+  /**
+   * The style values of a dial.
+   *
+   * @param bodyColor        The body color
+   * @param bodyStrokeColor  The body stroke color
+   * @param embossColor      The emboss color
+   * @param indicatorColor   The indicator color
+   * @param radialGaugeColor The radial gauge color
+   * @param shadeColor       The shade color
+   * @param tickColor        The tick color
+   * @param bodyStrokeSize   The body stroke size
+   * @param embossSize       The emboss size
+   * @param indicatorSize    The indicator size
+   * @param radialGaugeSize  The radial gauge size
+   * @param tickSize         The tick size
+   */
+
+  record Style(
+    Color bodyColor,
+    Color bodyStrokeColor,
+    Color embossColor,
+    Color indicatorColor,
+    Color radialGaugeColor,
+    Color shadeColor,
+    Color tickColor,
+    double bodyStrokeSize,
+    double embossSize,
+    double indicatorSize,
+    double radialGaugeSize,
+    double tickSize)
+  {
+
+  }
+}
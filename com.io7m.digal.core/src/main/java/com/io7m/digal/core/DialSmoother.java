@@ -0,0 +1,286 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import java.util.Objects;
+
+/**
+ * <p>A smoother that turns changes to the values of a group of dials into
+ * ramps, producing blocks of per-sample (or per-tick) values for a consumer
+ * thread such as an audio or motion-control loop.</p>
+ *
+ * <p>Target values are taken from a {@link DialSnapshotGroup} once at the
+ * start of each block, so the FX application thread publishes changes
+ * without locks and never waits for the consumer. When a target changes,
+ * the parameter ramps from its current value to the new target over the
+ * configured number of samples, following the configured
+ * {@link DialSmoothingCurve}; a target that changes again partway through
+ * a ramp starts a new ramp from the current value.</p>
+ *
+ * <p>A smoother belongs to the single thread that calls its
+ * {@code process} methods, and does not allocate once created. The
+ * snapshot group must not be read by any other thread.</p>
+ */
+
+public final class DialSmoother
+{
+  private static final double ONE_POLE_RESIDUAL = 0.001;
+  private static final double SETTLED = 1.0e-9;
+
+  private final DialSnapshotGroup group;
+  private final DialSmoothingCurve curve;
+  private final int rampFrames;
+  private final double onePoleCoefficient;
+  private final double[] snapshot;
+  private final double[] current;
+  private final double[] target;
+  private final double[] step;
+  private final boolean[] multiplicative;
+  private final int[] remaining;
+  private long version;
+
+  private DialSmoother(
+    final DialSnapshotGroup inGroup,
+    final DialSmoothingCurve inCurve,
+    final int inRampFrames)
+  {
+    this.group = Objects.requireNonNull(inGroup, "group");
+    this.curve = Objects.requireNonNull(inCurve, "curve");
+    this.rampFrames = inRampFrames;
+    this.onePoleCoefficient =
+      1.0 - Math.pow(ONE_POLE_RESIDUAL, 1.0 / (double) inRampFrames);
+
+    final var count = inGroup.size();
+    this.snapshot = new double[count];
+    this.current = new double[count];
+    this.target = new double[count];
+    this.step = new double[count];
+    this.multiplicative = new boolean[count];
+    this.remaining = new int[count];
+
+    this.version = inGroup.read(this.snapshot);
+    System.arraycopy(this.snapshot, 0, this.current, 0, count);
+    System.arraycopy(this.snapshot, 0, this.target, 0, count);
+  }
+
+  /**
+   * Create a smoother. The smoother starts at the current values of the
+   * group, without ramping.
+   *
+   * @param group      The group that supplies target values
+   * @param curve      The ramp curve
+   * @param rampFrames The length of ramps in samples
+   *
+   * @return A smoother
+   */
+
+  public static DialSmoother create(
+    final DialSnapshotGroup group,
+    final DialSmoothingCurve curve,
+    final int rampFrames)
+  {
+    if (rampFrames < 1) {
+      throw new IllegalArgumentException(
+        "Ramp length %d must be positive"
+          .formatted(Integer.valueOf(rampFrames))
+      );
+    }
+    return new DialSmoother(group, curve, rampFrames);
+  }
+
+  /**
+   * @return The number of parameters
+   */
+
+  public int size()
+  {
+    return this.current.length;
+  }
+
+  /**
+   * @param parameter The parameter index
+   *
+   * @return The most recently produced value of the given parameter
+   */
+
+  public double current(
+    final int parameter)
+  {
+    return this.current[parameter];
+  }
+
+  /**
+   * @param parameter The parameter index
+   *
+   * @return {@code true} if the given parameter is ramping
+   */
+
+  public boolean isRamping(
+    final int parameter)
+  {
+    return this.remaining[parameter] != 0;
+  }
+
+  /**
+   * Produce the next block of values. The value of parameter {@code p} at
+   * sample {@code i} of the block is written to {@code outputs[p][i]}.
+   *
+   * @param outputs The output arrays, one per parameter
+   * @param frames  The number of samples in the block
+   */
+
+  public void process(
+    final double[][] outputs,
+    final int frames)
+  {
+    this.begin(outputs.length, frames);
+
+    for (int parameter = 0; parameter < outputs.length; ++parameter) {
+      final var output = outputs[parameter];
+      checkOutput(output.length, frames);
+      for (int frame = 0; frame < frames; ++frame) {
+        output[frame] = this.next(parameter);
+      }
+    }
+  }
+
+  /**
+   * Produce the next block of values. The value of parameter {@code p} at
+   * sample {@code i} of the block is written to {@code outputs[p][i]}.
+   *
+   * @param outputs The output arrays, one per parameter
+   * @param frames  The number of samples in the block
+   */
+
+  public void process(
+    final float[][] outputs,
+    final int frames)
+  {
+    this.begin(outputs.length, frames);
+
+    for (int parameter = 0; parameter < outputs.length; ++parameter) {
+      final var output = outputs[parameter];
+      checkOutput(output.length, frames);
+      for (int frame = 0; frame < frames; ++frame) {
+        output[frame] = (float) this.next(parameter);
+      }
+    }
+  }
+
+  private static void checkOutput(
+    final int length,
+    final int frames)
+  {
+    if (length < frames) {
+      throw new IllegalArgumentException(
+        "Output length %d is less than the block size %d"
+          .formatted(Integer.valueOf(length), Integer.valueOf(frames))
+      );
+    }
+  }
+
+  private void begin(
+    final int outputs,
+    final int frames)
+  {
+    if (outputs != this.current.length || frames < 0) {
+      throw new IllegalArgumentException(
+        "Expected %d outputs and a non-negative block size (got %d, %d)"
+          .formatted(
+            Integer.valueOf(this.current.length),
+            Integer.valueOf(outputs),
+            Integer.valueOf(frames))
+      );
+    }
+
+    final var versionNow = this.group.read(this.snapshot);
+    if (versionNow == this.version) {
+      return;
+    }
+    this.version = versionNow;
+
+    for (int parameter = 0; parameter < this.snapshot.length; ++parameter) {
+      final var value = this.snapshot[parameter];
+      if (Double.compare(value, this.target[parameter]) != 0) {
+        this.retarget(parameter, value);
+      }
+    }
+  }
+
+  private void retarget(
+    final int parameter,
+    final double value)
+  {
+    final var from = this.current[parameter];
+    final var frames = (double) this.rampFrames;
+
+    this.target[parameter] = value;
+    this.multiplicative[parameter] = false;
+
+    switch (this.curve) {
+      case LINEAR -> {
+        this.step[parameter] = (value - from) / frames;
+        this.remaining[parameter] = this.rampFrames;
+      }
+      case EXPONENTIAL -> {
+        if ((from > 0.0 && value > 0.0) || (from < 0.0 && value < 0.0)) {
+          this.multiplicative[parameter] = true;
+          this.step[parameter] = Math.pow(value / from, 1.0 / frames);
+        } else {
+          this.step[parameter] = (value - from) / frames;
+        }
+        this.remaining[parameter] = this.rampFrames;
+      }
+      case ONE_POLE -> {
+        this.remaining[parameter] = Integer.MAX_VALUE;
+      }
+    }
+  }
+
+  private double next(
+    final int parameter)
+  {
+    final var left = this.remaining[parameter];
+    if (left == 0) {
+      return this.current[parameter];
+    }
+
+    final var goal = this.target[parameter];
+    final var from = this.current[parameter];
+    final double value;
+
+    if (this.curve == DialSmoothingCurve.ONE_POLE) {
+      final var next = from + ((goal - from) * this.onePoleCoefficient);
+      final var settled =
+        Math.abs(goal - next) <= SETTLED * Math.max(1.0, Math.abs(goal));
+      value = settled ? goal : next;
+      this.remaining[parameter] = settled ? 0 : left;
+    } else if (left == 1) {
+      value = goal;
+      this.remaining[parameter] = 0;
+    } else {
+      value = this.multiplicative[parameter]
+        ? from * this.step[parameter]
+        : from + this.step[parameter];
+      this.remaining[parameter] = left - 1;
+    }
+
+    this.current[parameter] = value;
+    return value;
+  }
+}
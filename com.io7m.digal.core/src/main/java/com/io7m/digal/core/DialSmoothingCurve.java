@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+/**
+ * The curves with which a {@link DialSmoother} moves towards new values.
+ */
+
+public enum DialSmoothingCurve
+{
+  /**
+   * The value moves by equal steps, and reaches the new value after
+   * exactly the ramp length.
+   */
+
+  LINEAR,
+
+  /**
+   * The value moves by equal ratios, and reaches the new value after
+   * exactly the ramp length. This suits quantities that are perceived
+   * logarithmically, such as frequencies. Ramps between values of opposite
+   * signs, or to or from zero, are linear.
+   */
+
+  EXPONENTIAL,
+
+  /**
+   * The value follows a one-pole low-pass filter, moving a fixed fraction
+   * of the remaining distance each sample. The remaining distance falls to
+   * one thousandth of its initial size after the ramp length.
+   */
+
+  ONE_POLE
+}
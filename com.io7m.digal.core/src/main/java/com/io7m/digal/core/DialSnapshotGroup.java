@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialModelChange;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A group of dials whose values are mirrored into a primitive array that
+ * can be read from a single real-time thread, such as an audio callback,
+ * without locks or allocation.</p>
+ *
+ * <p>The values are published through a triple buffer. Each time one of the
+ * dials changes, the FX application thread writes the complete set of
+ * values into a back buffer and atomically exchanges it with a shared
+ * middle buffer. The reader exchanges its front buffer with the middle
+ * buffer whenever a new one has been published, and then copies the front
+ * buffer. Both sides complete in a bounded number of steps: the writer
+ * never waits for the reader, the reader never waits for the writer, and
+ * the reader never sees a partially written set of values.</p>
+ *
+ * <p>Only one thread may call {@link #read(double[])} at a time.</p>
+ */
+
+public final class DialSnapshotGroup implements AutoCloseable
+{
+  private static final int INDEX_MASK = 0b011;
+  private static final int FRESH = 0b100;
+
+  private final DialControl[] dials;
+  private final DialValueListenerType[] localListeners;
+  private final DialModelChange change;
+  private final double[] values;
+  private final double[][] buffers;
+  private final long[] versions;
+  private final AtomicInteger middle;
+  private int back;
+  private int front;
+  private long version;
+  private boolean closed;
+
+  private DialSnapshotGroup(
+    final List<DialControl> inDials,
+    final DialModelChange inChange)
+  {
+    this.dials =
+      Objects.requireNonNull(inDials, "dials").toArray(new DialControl[0]);
+    this.change = Objects.requireNonNull(inChange, "change");
+
+    final var count = this.dials.length;
+    this.values = new double[count];
+    this.buffers = new double[3][count];
+    this.versions = new long[3];
+    this.localListeners = new DialValueListenerType[count];
+
+    for (int index = 0; index < count; ++index) {
+      final var dialIndex = index;
+      this.values[index] = valueOf(this.dials[index], inChange);
+      this.localListeners[index] = (dial, oldValue, newValue) -> {
+        this.onLocalChange(dialIndex, newValue);
+      };
+    }
+
+    /*
+     * Buffer 0 is the back buffer, buffer 1 is the middle buffer, and
+     * buffer 2 is the front buffer. All three start with the current values.
+     */
+
+    for (final var buffer : this.buffers) {
+      System.arraycopy(this.values, 0, buffer, 0, count);
+    }
+    this.back = 0;
+    this.middle = new AtomicInteger(1);
+    this.front = 2;
+  }
+
+  private static double valueOf(
+    final DialControl dial,
+    final DialModelChange change)
+  {
+    return switch (change) {
+      case VALUE -> dial.internalRawValue().get();
+      case VALUE_CONVERTED -> dial.internalConvertedValue().get();
+      case EXTERNAL_VALUE -> dial.rawValue().get();
+      case EXTERNAL_VALUE_CONVERTED -> dial.convertedValue().get();
+    };
+  }
+
+  /**
+   * Create a snapshot group. Must be called on the FX application thread.
+   *
+   * @param dials  The dials
+   * @param change The kind of change; usually
+   *               {@link DialModelChange#EXTERNAL_VALUE_CONVERTED}
+   *
+   * @return A snapshot group
+   */
+
+  public static DialSnapshotGroup create(
+    final List<DialControl> dials,
+    final DialModelChange change)
+  {
+    final var group = new DialSnapshotGroup(dials, change);
+    for (int index = 0; index < group.dials.length; ++index) {
+      group.dials[index].addValueListener(
+        change, group.localListeners[index]);
+    }
+    return group;
+  }
+
+  /**
+   * @return The dials, in the order in which their values appear in
+   * snapshots
+   */
+
+  public List<DialControl> dials()
+  {
+    return List.of(this.dials);
+  }
+
+  /**
+   * @return The number of dials in the group
+   */
+
+  public int size()
+  {
+    return this.dials.length;
+  }
+
+  private void onLocalChange(
+    final int index,
+    final double value)
+  {
+    this.values[index] = value;
+
+    final var buffer = this.buffers[this.back];
+    System.arraycopy(this.values, 0, buffer, 0, buffer.length);
+    ++this.version;
+    this.versions[this.back] = this.version;
+    this.back = this.middle.getAndSet(this.back | FRESH) & INDEX_MASK;
+  }
+
+  /**
+   * Copy the most recently published values into the given array. The
+   * value of the dial at index {@code i} of {@link #dials()} is written to
+   * {@code output[i]}. This method does not block or allocate, and may be
+   * called from any single thread.
+   *
+   * @param output The output array
+   *
+   * @return The version of the snapshot, which increases by one for each
+   * published change, and is {@code 0} for the initial values
+   */
+
+  public long read(
+    final double[] output)
+  {
+    if (output.length < this.dials.length) {
+      throw new IllegalArgumentException(
+        "Output array length %d is less than the group size %d"
+          .formatted(
+            Integer.valueOf(output.length),
+            Integer.valueOf(this.dials.length))
+      );
+    }
+
+    if ((this.middle.get() & FRESH) != 0) {
+      this.front = this.middle.getAndSet(this.front) & INDEX_MASK;
+    }
+
+    final var buffer = this.buffers[this.front];
+    System.arraycopy(buffer, 0, output, 0, buffer.length);
+    return this.versions[this.front];
+  }
+
+  /**
+   * Stop mirroring the values of the dials. Readers continue to see the
+   * most recently published values. Must be called on the FX application
+   * thread.
+   */
+
+  @Override
+  public void close()
+  {
+    if (this.closed) {
+      return;
+    }
+
+    this.closed = true;
+    for (int index = 0; index < this.dials.length; ++index) {
+      this.dials[index].removeValueListener(
+        this.change, this.localListeners[index]);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import java.util.Objects;
+
+/**
+ * A change to the value of a dial, as published by a {@link DialPublisher}.
+ *
+ * @param dial  The dial
+ * @param index The index of the dial in the publisher's list of dials
+ * @param value The new value
+ */
+
+public record DialValueEvent(
+  DialControl dial,
+  int index,
+  double value)
+{
+  /**
+   * A change to the value of a dial, as published by a
+   * {@link DialPublisher}.
+   *
+   * @param dial  The dial
+   * @param index The index of the dial in the publisher's list of dials
+   * @param value The new value
+   */
+
+  public DialValueEvent
+  {
+    Objects.requireNonNull(dial, "dial");
+  }
+}
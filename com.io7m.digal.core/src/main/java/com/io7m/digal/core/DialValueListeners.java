@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import com.io7m.digal.model.DialModelChange;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The primitive value listeners of a dial. Listeners are held in
+ * copy-on-write arrays indexed by the kind of value, so notifying them
+ * neither boxes values nor allocates.
+ */
+
+final class DialValueListeners
+{
+  private static final DialValueListenerType[] NO_LISTENERS =
+    new DialValueListenerType[0];
+  private static final DialDiscreteValueListenerType[] NO_DISCRETE_LISTENERS =
+    new DialDiscreteValueListenerType[0];
+
+  private final DialValueListenerType[][] listeners;
+  private final DialDiscreteValueListenerType[][] discreteListeners;
+
+  DialValueListeners()
+  {
+    final var count = DialModelChange.values().length;
+    this.listeners = new DialValueListenerType[count][];
+    this.discreteListeners = new DialDiscreteValueListenerType[count][];
+    Arrays.fill(this.listeners, NO_LISTENERS);
+    Arrays.fill(this.discreteListeners, NO_DISCRETE_LISTENERS);
+  }
+
+  private static <T> T[] with(
+    final T[] current,
+    final T listener)
+  {
+    Objects.requireNonNull(listener, "listener");
+    final var extended = Arrays.copyOf(current, current.length + 1);
+    extended[current.length] = listener;
+    return extended;
+  }
+
+  private static <T> T[] without(
+    final T[] current,
+    final T listener)
+  {
+    for (int index = 0; index < current.length; ++index) {
+      if (current[index] == listener) {
+        final var reduced = Arrays.copyOf(current, current.length - 1);
+        System.arraycopy(
+          current, index + 1, reduced, index, current.length - index - 1);
+        return reduced;
+      }
+    }
+    return current;
+  }
+
+  void add(
+    final DialModelChange value,
+    final DialValueListenerType listener)
+  {
+    final var index = value.ordinal();
+    this.listeners[index] = with(this.listeners[index], listener);
+  }
+
+  void remove(
+    final DialModelChange value,
+    final DialValueListenerType listener)
+  {
+    final var index = value.ordinal();
+    this.listeners[index] = without(this.listeners[index], listener);
+  }
+
+  void addDiscrete(
+    final DialModelChange value,
+    final DialDiscreteValueListenerType listener)
+  {
+    if (value == DialModelChange.VALUE
+        || value == DialModelChange.EXTERNAL_VALUE) {
+      throw new IllegalArgumentException(
+        "Discrete listeners require a converted value, not %s"
+          .formatted(value)
+      );
+    }
+
+    final var index = value.ordinal();
+    this.discreteListeners[index] =
+      with(this.discreteListeners[index], listener);
+  }
+
+  void removeDiscrete(
+    final DialModelChange value,
+    final DialDiscreteValueListenerType listener)
+  {
+    final var index = value.ordinal();
+    this.discreteListeners[index] =
+      without(this.discreteListeners[index], listener);
+  }
+
+  void notify(
+    final DialControl dial,
+    final DialModelChange value,
+    final double oldValue,
+    final double newValue)
+  {
+    if (Double.compare(oldValue, newValue) == 0) {
+      return;
+    }
+
+    final var index = value.ordinal();
+    for (final var listener : this.listeners[index]) {
+      listener.onValueChanged(dial, oldValue, newValue);
+    }
+
+    final var discrete = this.discreteListeners[index];
+    if (discrete.length == 0) {
+      return;
+    }
+
+    final var oldLong = Math.round(oldValue);
+    final var newLong = Math.round(newValue);
+    if (oldLong != newLong) {
+      for (final var listener : discrete) {
+        listener.onValueChanged(dial, oldLong, newLong);
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Functions to encode and decode variable-length integers. Varints are
+ * encoded in the usual LEB128 manner: seven bits per byte, least
+ * significant group first, with the high bit of each byte set if more
+ * bytes follow. Signed values are zigzag-encoded first so that values of
+ * small magnitude produce short encodings.
+ */
+
+final class DialVarints
+{
+  private DialVarints()
+  {
+
+  }
+
+  static long zigzagEncode(
+    final long x)
+  {
+    return (x << 1) ^ (x >> 63);
+  }
+
+  static long zigzagDecode(
+    final long x)
+  {
+    return (x >>> 1) ^ -(x & 1L);
+  }
+
+  static void writeVarint(
+    final OutputStream output,
+    final long x)
+    throws IOException
+  {
+    long v = x;
+    while ((v & ~0x7FL) != 0L) {
+      output.write((int) ((v & 0x7FL) | 0x80L));
+      v >>>= 7;
+    }
+    output.write((int) v);
+  }
+
+  static long readVarint(
+    final ByteBuffer input)
+    throws IOException
+  {
+    long result = 0L;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (!input.hasRemaining()) {
+        throw new IOException("Truncated varint.");
+      }
+      final var b = input.get();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IOException("Malformed varint.");
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.core;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.transform.Transform;
+
+/**
+ * Functions to determine whether a node is currently displayed.
+ */
+
+final class DialVisibility
+{
+  private DialVisibility()
+  {
+
+  }
+
+  /**
+   * Determine if a node is displayed: it is part of a scene in a showing
+   * window, it and all of its ancestors are visible, and it is not clipped
+   * out of view by any of its ancestors.
+   *
+   * @param node The node
+   *
+   * @return {@code true} if the node is displayed
+   */
+
+  static boolean isDisplayed(
+    final Node node)
+  {
+    final var scene = node.getScene();
+    if (scene == null) {
+      return false;
+    }
+    final var window = scene.getWindow();
+    if (window == null || !window.isShowing()) {
+      return false;
+    }
+    return isTreeVisible(node) && !isClippedOut(node);
+  }
+
+  private static boolean isTreeVisible(
+    final Node node)
+  {
+    for (var current = node; current != null; current = current.getParent()) {
+      if (!current.isVisible()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Determine if the node lies entirely outside the clip of any of its
+   * ancestors, such as the viewport of a ScrollPane.
+   *
+   * This is evaluated on every pulse for every dial with a pending redraw,
+   * and so it does not use localToScene(), which allocates new bounds on
+   * each call. Nodes cache their local-to-scene transforms and their
+   * bounds, and only recompute them when a transform or layout changes. The
+   * scene-space extents are computed arithmetically from those cached
+   * values, so the check allocates nothing unless the layout has changed.
+   */
+
+  private static boolean isClippedOut(
+    final Node node)
+  {
+    Transform nodeTransform = null;
+    Bounds bounds = null;
+    for (var parent = node.getParent(); parent != null; parent = parent.getParent()) {
+      final var parentClip = parent.getClip();
+      if (parentClip == null) {
+        continue;
+      }
+      if (nodeTransform == null) {
+        nodeTransform = node.getLocalToSceneTransform();
+        bounds = node.getLayoutBounds();
+      }
+
+      final var clipTransform = parent.getLocalToSceneTransform();
+      final var clipBounds = parentClip.getBoundsInParent();
+      if (disjointX(nodeTransform, bounds, clipTransform, clipBounds)
+          || disjointY(nodeTransform, bounds, clipTransform, clipBounds)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean disjointX(
+    final Transform ta,
+    final Bounds a,
+    final Transform tb,
+    final Bounds b)
+  {
+    return maxX(ta, a) < minX(tb, b) || minX(ta, a) > maxX(tb, b);
+  }
+
+  private static boolean disjointY(
+    final Transform ta,
+    final Bounds a,
+    final Transform tb,
+    final Bounds b)
+  {
+    return maxY(ta, a) < minY(tb, b) || minY(ta, a) > maxY(tb, b);
+  }
+
+  /*
+   * The extents of the axis-aligned box that encloses the transformed
+   * bounds. For an affine transform, the extreme of each term is attained
+   * at one of the two extremes of the corresponding input axis.
+   */
+
+  private static double minX(
+    final Transform t,
+    final Bounds b)
+  {
+    return t.getTx()
+      + Math.min(t.getMxx() * b.getMinX(), t.getMxx() * b.getMaxX())
+      + Math.min(t.getMxy() * b.getMinY(), t.getMxy() * b.getMaxY());
+  }
+
+  private static double maxX(
+    final Transform t,
+    final Bounds b)
+  {
+    return t.getTx()
+      + Math.max(t.getMxx() * b.getMinX(), t.getMxx() * b.getMaxX())
+      + Math.max(t.getMxy() * b.getMinY(), t.getMxy() * b.getMaxY());
+  }
+
+  private static double minY(
+    final Transform t,
+    final Bounds b)
+  {
+    return t.getTy()
+      + Math.min(t.getMyx() * b.getMinX(), t.getMyx() * b.getMaxX())
+      + Math.min(t.getMyy() * b.getMinY(), t.getMyy() * b.getMaxY());
+  }
+
+  private static double maxY(
+    final Transform t,
+    final Bounds b)
+  {
+    return t.getTy()
+      + Math.max(t.getMyx() * b.getMinX(), t.getMyx() * b.getMaxX())
+      + Math.max(t.getMyy() * b.getMinY(), t.getMyy() * b.getMaxY());
+  }
+}
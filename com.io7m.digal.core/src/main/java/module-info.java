@@ -23,8 +23,12 @@ module com.io7m.digal.core
   requires static org.osgi.annotation.bundle;
   requires static org.osgi.annotation.versioning;
 
+  requires transitive com.io7m.digal.model;
+
   requires javafx.graphics;
   requires javafx.controls;
+  requires java.management;
+  requires jdk.jfr;
 
   exports com.io7m.digal.core;
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.model;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * <p>A stream of conversions evaluated on an executor.</p>
+ *
+ * <p>Each submitted conversion is tagged with a generation number. Only the
+ * result of the newest submission is delivered to the receiver (on the
+ * given completion executor); conversions that have been superseded before they
+ * start are not evaluated at all. If the newest conversion fails, the
+ * exception is delivered to the failure handler on the completion
+ * executor instead.</p>
+ */
+
+final class DialAsynchronousConversion
+{
+  private final AtomicLong generation;
+  private final DialConversionReceiverType receiver;
+  private final Consumer<Throwable> failures;
+
+  DialAsynchronousConversion(
+    final DialConversionReceiverType inReceiver,
+    final Consumer<Throwable> inFailures)
+  {
+    this.receiver =
+      Objects.requireNonNull(inReceiver, "receiver");
+    this.failures =
+      Objects.requireNonNull(inFailures, "failures");
+    this.generation =
+      new AtomicLong();
+  }
+
+  private record Result(
+    double converted,
+    double position)
+  {
+
+  }
+
+  /**
+   * Discard any conversions that are currently in progress.
+   */
+
+  void cancel()
+  {
+    this.generation.incrementAndGet();
+  }
+
+  /**
+   * Submit a conversion.
+   *
+   * @param executor    The executor
+   * @param completions The executor on which results are delivered
+   * @param converter   The converter
+   * @param x           The raw dial value
+   */
+
+  void submit(
+    final Executor executor,
+    final Executor completions,
+    final DialValueConverterType converter,
+    final double x)
+  {
+    final var g = this.generation.incrementAndGet();
+
+    /*
+     * The completion is submitted directly to the completion executor
+     * (rather than with whenCompleteAsync) so that anything thrown by the
+     * failure handler reaches the completion executor.
+     */
+
+    CompletableFuture.supplyAsync(() -> this.convert(g, converter, x), executor)
+      .whenComplete((result, failure) -> {
+        if (result == null && failure == null) {
+          return;
+        }
+        completions.execute(() -> this.complete(g, result, failure));
+      });
+  }
+
+  private Result convert(
+    final long g,
+    final DialValueConverterType converter,
+    final double x)
+  {
+    if (this.generation.get() != g) {
+      return null;
+    }
+
+    final var converted =
+      DialConversions.fromDial(converter, x);
+    final var position =
+      DialConversions.toDial(converter, converted);
+
+    return new Result(converted, position);
+  }
+
+  private void complete(
+    final long g,
+    final Result result,
+    final Throwable failure)
+  {
+    if (this.generation.get() != g) {
+      return;
+    }
+
+    if (failure != null) {
+      if (failure instanceof CompletionException && failure.getCause() != null) {
+        this.failures.accept(failure.getCause());
+      } else {
+        this.failures.accept(failure);
+      }
+      return;
+    }
+
+    this.receiver.receive(result.converted(), result.position());
+  }
+}
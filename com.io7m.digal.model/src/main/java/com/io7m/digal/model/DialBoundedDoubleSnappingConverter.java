@@ -15,7 +15,7 @@
  */
 
 
-package com.io7m.digal.core;
+package com.io7m.digal.model;
 
 /**
  * A value converter that converts to/from a bounded double range.
@@ -82,6 +82,12 @@ public final class DialBoundedDoubleSnappingConverter
     return (x * delta) + dMin;
   }
 
+  @Override
+  public boolean isSnapping()
+  {
+    return true;
+  }
+
   @Override
   public double convertedNext(
     final double x)
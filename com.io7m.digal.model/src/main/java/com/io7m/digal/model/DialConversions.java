@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.model;
+
+/**
+ * Functions to apply arbitrary value converters. Values on the dial are
+ * always in the range {@code [0,1]}; values in display units are real
+ * numbers, and are truncated towards zero for discrete converters.
+ */
+
+public final class DialConversions
+{
+  private DialConversions()
+  {
+
+  }
+
+  /**
+   * Convert a dial value to a value in display units.
+   *
+   * @param converter The converter
+   * @param v         The dial value
+   *
+   * @return The value in display units
+   */
+
+  public static double fromDial(
+    final DialValueConverterType converter,
+    final double v)
+  {
+    if (converter instanceof DialValueConverterDiscreteType discrete) {
+      return (double) discrete.convertFromDial(v);
+    }
+    if (converter instanceof DialValueConverterRealType real) {
+      return real.convertFromDial(v);
+    }
+    throw new IllegalStateException("Unrecognized converter type.");
+  }
+
+  /**
+   * Determine whether a converter snaps values. Discrete converters always
+   * snap; real converters snap if they say they do.
+   *
+   * @param converter The converter
+   *
+   * @return {@code true} if converted values change in steps
+   *
+   * @see DialValueConverterRealType#isSnapping()
+   */
+
+  public static boolean isSnapping(
+    final DialValueConverterType converter)
+  {
+    if (converter instanceof DialValueConverterDiscreteType) {
+      return true;
+    }
+    if (converter instanceof DialValueConverterRealType real) {
+      return real.isSnapping();
+    }
+    throw new IllegalStateException("Unrecognized converter type.");
+  }
+
+  /**
+   * Convert a value in display units to a dial value.
+   *
+   * @param converter The converter
+   * @param x         The value in display units
+   *
+   * @return The dial value
+   */
+
+  public static double toDial(
+    final DialValueConverterType converter,
+    final double x)
+  {
+    if (converter instanceof DialValueConverterDiscreteType discrete) {
+      return discrete.convertToDial((long) x);
+    }
+    if (converter instanceof DialValueConverterRealType real) {
+      return real.convertToDial(x);
+    }
+    throw new IllegalStateException("Unrecognized converter type.");
+  }
+
+  /**
+   * Find the dial value of the display value that precedes the display
+   * value of the given dial value.
+   *
+   * @param converter The converter
+   * @param x         The dial value
+   *
+   * @return The dial value of the previous display value
+   */
+
+  public static double toPreviousDial(
+    final DialValueConverterType converter,
+    final double x)
+  {
+    if (converter instanceof DialValueConverterDiscreteType discrete) {
+      return discrete.convertToDial(
+        discrete.convertedPrevious(discrete.convertFromDial(x))
+      );
+    }
+    if (converter instanceof DialValueConverterRealType real) {
+      return real.convertToDial(
+        real.convertedPrevious(real.convertFromDial(x))
+      );
+    }
+    throw new IllegalStateException("Unrecognized converter.");
+  }
+
+  /**
+   * Find the dial value of the display value that follows the display
+   * value of the given dial value.
+   *
+   * @param converter The converter
+   * @param x         The dial value
+   *
+   * @return The dial value of the next display value
+   */
+
+  public static double toNextDial(
+    final DialValueConverterType converter,
+    final double x)
+  {
+    if (converter instanceof DialValueConverterDiscreteType discrete) {
+      return discrete.convertToDial(
+        discrete.convertedNext(discrete.convertFromDial(x))
+      );
+    }
+    if (converter instanceof DialValueConverterRealType real) {
+      return real.convertToDial(
+        real.convertedNext(real.convertFromDial(x))
+      );
+    }
+    throw new IllegalStateException("Unrecognized converter.");
+  }
+}
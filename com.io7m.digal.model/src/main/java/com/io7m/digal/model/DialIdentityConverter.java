@@ -15,7 +15,7 @@
  */
 
 
-package com.io7m.digal.core;
+package com.io7m.digal.model;
 
 /**
  * A value converter that leaves values unchanged.
@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.model;
+
+import java.util.Arrays;
+import java.util.function.DoubleToLongFunction;
+
+/**
+ * <p>A bounded, direct-mapped cache of conversions keyed on quantized dial
+ * values. Results are stored as raw {@code long} values so that the same
+ * cache can serve both real and discrete converters.</p>
+ *
+ * <p>The cache is safe for use from multiple threads (converters may be
+ * evaluated on a conversion executor), but does not lock. Each slot holds
+ * an immutable record that pairs a key with its value, and the final field
+ * semantics of the record guarantee that a thread reading a slot sees a
+ * consistent pair. Races between writers at worst cause an entry to be
+ * replaced or a conversion to be evaluated more than once.</p>
+ */
+
+final class DialMemoCache
+{
+  /**
+   * The maximum capacity; the number of slots is the capacity rounded up
+   * to a power of two, and must fit in an {@code int}.
+   */
+
+  static final int CAPACITY_MAXIMUM = 1 << 30;
+
+  private final Entry[] entries;
+  private final int mask;
+  private final long steps;
+
+  DialMemoCache(
+    final int capacity,
+    final long inSteps)
+  {
+    if (capacity <= 0 || capacity > CAPACITY_MAXIMUM) {
+      throw new IllegalArgumentException(
+        "Capacity %d must be in the range [1, %d]"
+          .formatted(
+            Integer.valueOf(capacity),
+            Integer.valueOf(CAPACITY_MAXIMUM))
+      );
+    }
+    if (inSteps <= 0L) {
+      throw new IllegalArgumentException(
+        "Step count %d must be positive".formatted(Long.valueOf(inSteps))
+      );
+    }
+
+    final var size =
+      Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+    this.entries = new Entry[size];
+    this.mask = size - 1;
+    this.steps = inSteps;
+  }
+
+  /**
+   * Look up the conversion of the dial value {@code x}, calling {@code f} on
+   * a cache miss. The function is always evaluated on the quantized value so
+   * that results do not depend on which raw value first filled an entry.
+   *
+   * @param x The raw dial value
+   * @param f The conversion
+   *
+   * @return The (possibly cached) converted value
+   */
+
+  long get(
+    final double x,
+    final DoubleToLongFunction f)
+  {
+    final var key =
+      Math.round(Math.min(Math.max(0.0, x), 1.0) * (double) this.steps);
+    final var index =
+      (int) (mix(key) & (long) this.mask);
+
+    final var entry = this.entries[index];
+    if (entry != null && entry.key() == key) {
+      return entry.value();
+    }
+
+    /*
+     * Converters may be arbitrarily slow; two threads computing the same
+     * entry simply store the same result twice.
+     */
+
+    final var result =
+      f.applyAsLong((double) key / (double) this.steps);
+
+    this.entries[index] = new Entry(key, result);
+    return result;
+  }
+
+  /**
+   * Discard all cached entries.
+   */
+
+  void clear()
+  {
+    Arrays.fill(this.entries, null);
+  }
+
+  private static long mix(
+    final long key)
+  {
+    final var h = key * 0x9E3779B97F4A7C15L;
+    return h ^ (h >>> 32);
+  }
+
+  private record Entry(
+    long key,
+    long value)
+  {
+
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.model;
+
+import java.util.Objects;
+import java.util.function.DoubleToLongFunction;
+
+/**
+ * <p>A real value converter that memoizes the results of an underlying
+ * (presumably expensive) converter.</p>
+ *
+ * <p>Dial values passed to {@link #convertFromDial(double)} are quantized
+ * to one of {@code steps + 1} evenly spaced values in the range
+ * {@code [0, 1]}, and the conversions of the quantized values are held in a
+ * bounded cache. Conversions in the other direction are passed directly to
+ * the underlying converter.</p>
+ */
+
+public final class DialMemoizingRealConverter
+  implements DialValueConverterRealType
+{
+  private final DialValueConverterRealType delegate;
+  private final DialMemoCache cache;
+  private final DoubleToLongFunction conversion;
+
+  /**
+   * A real value converter that memoizes the results of an underlying
+   * converter.
+   *
+   * @param inDelegate The underlying converter
+   * @param inCapacity The maximum number of cached conversions, in the
+   *                   range {@code [1, 2^30]}
+   * @param inSteps    The number of quantization steps in the range
+   *                   {@code [0, 1]}
+   */
+
+  public DialMemoizingRealConverter(
+    final DialValueConverterRealType inDelegate,
+    final int inCapacity,
+    final long inSteps)
+  {
+    this.delegate =
+      Objects.requireNonNull(inDelegate, "delegate");
+    this.cache =
+      new DialMemoCache(inCapacity, inSteps);
+    this.conversion =
+      this::convertFromDialBits;
+  }
+
+  /**
+   * A real value converter that memoizes the results of an underlying
+   * converter. The cache holds up to {@code 4096} conversions, and dial
+   * values are quantized to {@code 1/65536} steps.
+   *
+   * @param inDelegate The underlying converter
+   */
+
+  public DialMemoizingRealConverter(
+    final DialValueConverterRealType inDelegate)
+  {
+    this(inDelegate, 4096, 65536L);
+  }
+
+  /**
+   * Discard all cached conversions. This should be called if the underlying
+   * converter changes its behaviour.
+   */
+
+  public void clear()
+  {
+    this.cache.clear();
+  }
+
+  @Override
+  public double convertToDial(
+    final double x)
+  {
+    return this.delegate.convertToDial(x);
+  }
+
+  @Override
+  public double convertFromDial(
+    final double x)
+  {
+    return Double.longBitsToDouble(
+      this.cache.get(x, this.conversion)
+    );
+  }
+
+  private long convertFromDialBits(
+    final double x)
+  {
+    return Double.doubleToRawLongBits(this.delegate.convertFromDial(x));
+  }
+
+  @Override
+  public boolean isSnapping()
+  {
+    return this.delegate.isSnapping();
+  }
+
+  @Override
+  public double convertedNext(
+    final double x)
+  {
+    return this.delegate.convertedNext(x);
+  }
+
+  @Override
+  public double convertedPrevious(
+    final double x)
+  {
+    return this.delegate.convertedPrevious(x);
+  }
+}
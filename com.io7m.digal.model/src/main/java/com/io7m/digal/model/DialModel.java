@@ -0,0 +1,433 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>The value state of a dial, independent of any view.</p>
+ *
+ * <p>A model holds an <i>internal</i> raw value, which is the value that
+ * views display, and an <i>external</i> raw value, which is the value that
+ * is published to observers. Setting a value "quietly" updates only the
+ * internal value. Raw values are always clamped to the range {@code [0,1]},
+ * and each raw value has an associated converted value obtained from the
+ * model's value converter.</p>
+ *
+ * <p>Models hold only primitive state, do not depend on JavaFX, and any
+ * number of views (such as the {@code DialControl} type in the
+ * {@code com.io7m.digal.core} module) may be attached to a single model.
+ * Views may be detached at any time without affecting the model's state,
+ * and so applications may keep far more models than they have views. The
+ * {@link #version()} of a model is incremented on every change, allowing
+ * views to cheaply determine whether anything has changed since they last
+ * looked.</p>
+ *
+ * <p>Models are not thread-safe, and must be used from a single thread
+ * (typically the FX application thread). Asynchronous conversions are
+ * delivered back to that thread via a completion executor.</p>
+ */
+
+public final class DialModel
+{
+  private static final DialModelListenerType[] NO_LISTENERS =
+    new DialModelListenerType[0];
+
+  private final DialAsynchronousConversion internalConversion;
+  private final DialAsynchronousConversion externalConversion;
+  private DialModelListenerType[] listeners;
+  private DialValueConverterType converter;
+  private Executor conversionExecutor;
+  private Executor completionExecutor;
+  private double internalRaw;
+  private double internalConverted;
+  private double externalRaw;
+  private double externalConverted;
+  private double positionDisplayed;
+  private long version;
+
+  /**
+   * Create a model with an identity converter and a value of {@code 0}.
+   */
+
+  public DialModel()
+  {
+    this.converter =
+      new DialIdentityConverter();
+    this.listeners =
+      NO_LISTENERS;
+    this.internalConversion =
+      new DialAsynchronousConversion(
+        this::onInternalConversionCompleted,
+        DialModel::onConversionFailed
+      );
+    this.externalConversion =
+      new DialAsynchronousConversion(
+        this::onExternalConversionCompleted,
+        DialModel::onConversionFailed
+      );
+
+    this.internalConverted =
+      DialConversions.fromDial(this.converter, 0.0);
+    this.positionDisplayed =
+      DialConversions.toDial(this.converter, this.internalConverted);
+    this.externalConverted =
+      this.internalConverted;
+  }
+
+  private static double clampNormal(
+    final double x)
+  {
+    return Math.min(Math.max(0.0, x), 1.0);
+  }
+
+  /**
+   * Add a listener. Listeners are notified in the order that they were
+   * added.
+   *
+   * @param listener The listener
+   */
+
+  public void addListener(
+    final DialModelListenerType listener)
+  {
+    Objects.requireNonNull(listener, "listener");
+    final var extended =
+      Arrays.copyOf(this.listeners, this.listeners.length + 1);
+    extended[this.listeners.length] = listener;
+    this.listeners = extended;
+  }
+
+  /**
+   * Remove a listener, if it has been added.
+   *
+   * @param listener The listener
+   */
+
+  public void removeListener(
+    final DialModelListenerType listener)
+  {
+    final var current = this.listeners;
+    for (int index = 0; index < current.length; ++index) {
+      if (current[index] == listener) {
+        final var reduced = new DialModelListenerType[current.length - 1];
+        System.arraycopy(current, 0, reduced, 0, index);
+        System.arraycopy(
+          current, index + 1, reduced, index, current.length - index - 1);
+        this.listeners = reduced;
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return The number of changes made to the model so far
+   */
+
+  public long version()
+  {
+    return this.version;
+  }
+
+  /**
+   * @return The current (internal) raw value
+   */
+
+  public double getRawValue()
+  {
+    return this.internalRaw;
+  }
+
+  /**
+   * @return The current (internal) converted value
+   */
+
+  public double getConvertedValue()
+  {
+    return this.internalConverted;
+  }
+
+  /**
+   * @return The current external raw value
+   */
+
+  public double getExternalRawValue()
+  {
+    return this.externalRaw;
+  }
+
+  /**
+   * @return The current external converted value
+   */
+
+  public double getExternalConvertedValue()
+  {
+    return this.externalConverted;
+  }
+
+  /**
+   * @return The dial position of the current converted value, in the range
+   * {@code [0,1]}; this is the position at which views draw the dial
+   */
+
+  public double getDisplayedPosition()
+  {
+    return this.positionDisplayed;
+  }
+
+  /**
+   * @return The value converter
+   */
+
+  public DialValueConverterType valueConverter()
+  {
+    return this.converter;
+  }
+
+  /**
+   * Set the value converter.
+   *
+   * @param f The value converter
+   */
+
+  public void setValueConverter(
+    final DialValueConverterType f)
+  {
+    this.converter = Objects.requireNonNull(f, "f");
+  }
+
+  /**
+   * Set the internal raw value. Listeners are notified of the change to the
+   * internal value only.
+   *
+   * @param x The value
+   *
+   * @return {@code true} if the internal value changed
+   */
+
+  public boolean setRawValueQuietly(
+    final double x)
+  {
+    final var valueNew = clampNormal(x);
+    if (Double.compare(this.internalRaw, valueNew) == 0) {
+      return false;
+    }
+
+    this.internalRaw = valueNew;
+    ++this.version;
+
+    if (this.conversionExecutor != null) {
+      this.internalConversion.submit(
+        this.conversionExecutor,
+        this.completionExecutor,
+        this.converter,
+        valueNew
+      );
+    } else {
+      this.internalConverted =
+        DialConversions.fromDial(this.converter, valueNew);
+      this.positionDisplayed =
+        DialConversions.toDial(this.converter, this.internalConverted);
+    }
+
+    this.notify(DialModelChange.VALUE);
+    return true;
+  }
+
+  /**
+   * Set both the internal and the external raw value.
+   *
+   * @param x The value
+   *
+   * @return {@code true} if the external value changed
+   */
+
+  public boolean setRawValue(
+    final double x)
+  {
+    this.setRawValueQuietly(x);
+
+    final var valueNew = clampNormal(x);
+    if (Double.compare(this.externalRaw, valueNew) == 0) {
+      return false;
+    }
+
+    this.externalRaw = valueNew;
+    ++this.version;
+
+    if (this.conversionExecutor != null) {
+      this.externalConversion.submit(
+        this.conversionExecutor,
+        this.completionExecutor,
+        this.converter,
+        valueNew
+      );
+    } else {
+      this.externalConverted =
+        DialConversions.fromDial(this.converter, valueNew);
+    }
+
+    this.notify(DialModelChange.EXTERNAL_VALUE);
+    return true;
+  }
+
+  /**
+   * Set the internal value in display units (according to the value
+   * converter).
+   *
+   * @param x The display value
+   *
+   * @return {@code true} if the internal value changed
+   *
+   * @see #setRawValueQuietly(double)
+   */
+
+  public boolean setConvertedValueQuietly(
+    final double x)
+  {
+    return this.setRawValueQuietly(DialConversions.toDial(this.converter, x));
+  }
+
+  /**
+   * Set both the internal and the external value in display units
+   * (according to the value converter).
+   *
+   * @param x The display value
+   *
+   * @return {@code true} if the external value changed
+   *
+   * @see #setRawValue(double)
+   */
+
+  public boolean setConvertedValue(
+    final double x)
+  {
+    return this.setRawValue(DialConversions.toDial(this.converter, x));
+  }
+
+  /**
+   * <p>Evaluate value conversions asynchronously on the given executor.</p>
+   *
+   * <p>When a raw value changes, the conversion is submitted to
+   * {@code executor}, and the converted value retains its previous value
+   * until the conversion completes. Results are delivered on
+   * {@code completions}, which must execute tasks on the thread that owns
+   * the model. Only the result of the newest conversion is ever delivered.
+   * Converters used in this mode must be thread-safe.</p>
+   *
+   * <p>If the newest conversion fails, the converted value retains its
+   * previous value, and the exception raised by the converter is rethrown
+   * (wrapped in an {@link IllegalStateException}) on {@code completions},
+   * where it is handled in the same way as any other task that fails on
+   * that executor.</p>
+   *
+   * @param executor    The executor on which conversions are evaluated
+   * @param completions The executor on which results are delivered
+   *
+   * @see #setConversionSynchronous()
+   */
+
+  public void setConversionAsynchronous(
+    final Executor executor,
+    final Executor completions)
+  {
+    this.conversionExecutor =
+      Objects.requireNonNull(executor, "executor");
+    this.completionExecutor =
+      Objects.requireNonNull(completions, "completions");
+  }
+
+  /**
+   * Evaluate value conversions synchronously. This is the default. Any
+   * asynchronous conversions that are in progress are discarded, and the
+   * converted values are recomputed immediately. Listeners are only notified
+   * of converted values that have changed.
+   *
+   * @see #setConversionAsynchronous(Executor, Executor)
+   */
+
+  public void setConversionSynchronous()
+  {
+    this.conversionExecutor = null;
+    this.completionExecutor = null;
+    this.internalConversion.cancel();
+    this.externalConversion.cancel();
+
+    final var c =
+      DialConversions.fromDial(this.converter, this.internalRaw);
+    final var position =
+      DialConversions.toDial(this.converter, c);
+    if (Double.compare(c, this.internalConverted) != 0
+      || Double.compare(position, this.positionDisplayed) != 0) {
+      this.onInternalConversionCompleted(c, position);
+    }
+
+    final var e =
+      DialConversions.fromDial(this.converter, this.externalRaw);
+    if (Double.compare(e, this.externalConverted) != 0) {
+      this.onExternalConversionCompleted(e, 0.0);
+    }
+  }
+
+  /**
+   * @return {@code true} if value conversions are evaluated asynchronously
+   *
+   * @see #setConversionAsynchronous(Executor, Executor)
+   */
+
+  public boolean isConversionAsynchronous()
+  {
+    return this.conversionExecutor != null;
+  }
+
+  private static void onConversionFailed(
+    final Throwable failure)
+  {
+    throw new IllegalStateException("Value conversion failed.", failure);
+  }
+
+  private void onInternalConversionCompleted(
+    final double c,
+    final double position)
+  {
+    this.internalConverted = c;
+    this.positionDisplayed = position;
+    ++this.version;
+    this.notify(DialModelChange.VALUE_CONVERTED);
+  }
+
+  private void onExternalConversionCompleted(
+    final double c,
+    final double position)
+  {
+    this.externalConverted = c;
+    ++this.version;
+    this.notify(DialModelChange.EXTERNAL_VALUE_CONVERTED);
+  }
+
+  private void notify(
+    final DialModelChange change)
+  {
+    final var current = this.listeners;
+    for (final var listener : current) {
+      listener.onDialModelChanged(this, change);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.model;
+
+/**
+ * The kinds of changes made to a dial model.
+ *
+ * @see DialModelListenerType
+ */
+
+public enum DialModelChange
+{
+  /**
+   * The raw value changed. If conversions are synchronous, the converted
+   * value and displayed position have also been updated.
+   */
+
+  VALUE,
+
+  /**
+   * An asynchronous conversion of the raw value completed, updating the
+   * converted value and the displayed position.
+   */
+
+  VALUE_CONVERTED,
+
+  /**
+   * The external raw value changed. If conversions are synchronous, the
+   * external converted value has also been updated.
+   */
+
+  EXTERNAL_VALUE,
+
+  /**
+   * An asynchronous conversion of the external raw value completed,
+   * updating the external converted value.
+   */
+
+  EXTERNAL_VALUE_CONVERTED
+}
@@ -15,7 +15,7 @@
  */
 
 
-package com.io7m.digal.core;
+package com.io7m.digal.model;
 
 /**
  * <p>A converter to and from <i>dial</i> values. A dial value is a real value
@@ -74,4 +74,16 @@ public non-sealed interface DialValueConverterRealType
 
   double convertedPrevious(
     double x);
+
+  /**
+   * A snapping converter maps ranges of dial values onto a finite set of
+   * display values, and so its converted values change in steps.
+   *
+   * @return {@code true} if this converter snaps values to increments
+   */
+
+  default boolean isSnapping()
+  {
+    return false;
+  }
 }
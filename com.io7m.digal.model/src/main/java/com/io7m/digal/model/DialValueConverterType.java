@@ -15,7 +15,7 @@
  */
 
 
-package com.io7m.digal.core;
+package com.io7m.digal.model;
 
 /**
  * <p>A converter to and from <i>dial</i> values. A dial value is a real value
@@ -0,0 +1,291 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialControlLabelled;
+import com.io7m.digal.model.DialModelChange;
+import javafx.event.EventType;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialAllocationTest
+{
+  private static final int WARMUP = 20_000;
+  private static final int ITERATIONS = 10_000;
+
+  /*
+   * The size of the graphics state and transform that JavaFX allocates when
+   * a canvas is cleared entirely, rounded up.
+   */
+
+  private static final long REDRAW_BYTES_MAXIMUM = 256L;
+
+  /*
+   * The size of a formatted value, its boxed input, and the text field
+   * update, rounded up.
+   */
+
+  private static final long TEXT_BYTES_MAXIMUM = 1024L;
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private DialControl dial;
+  private MouseEvent press;
+  private MouseEvent release;
+  private MouseEvent dragUp;
+  private MouseEvent dragDown;
+  private ScrollEvent scrollUp;
+  private ScrollEvent scrollDown;
+  private long allocated;
+
+  private static MouseEvent mouseEvent(
+    final EventType<MouseEvent> type,
+    final double y)
+  {
+    return new MouseEvent(
+      type,
+      32.0,
+      y,
+      32.0,
+      y,
+      MouseButton.PRIMARY,
+      1,
+      false,
+      false,
+      false,
+      false,
+      true,
+      false,
+      false,
+      false,
+      false,
+      false,
+      null
+    );
+  }
+
+  private static ScrollEvent scrollEvent(
+    final double deltaY)
+  {
+    return new ScrollEvent(
+      ScrollEvent.SCROLL,
+      32.0,
+      32.0,
+      32.0,
+      32.0,
+      false,
+      false,
+      false,
+      false,
+      false,
+      false,
+      0.0,
+      deltaY,
+      0.0,
+      deltaY,
+      ScrollEvent.HorizontalTextScrollUnits.NONE,
+      0.0,
+      ScrollEvent.VerticalTextScrollUnits.NONE,
+      0.0,
+      0,
+      null
+    );
+  }
+
+  private static long allocatedBytes()
+  {
+    return THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  private void exercise(
+    final DialControl control,
+    final int iterations)
+  {
+    final var input = control.getChildrenUnmodifiable().get(0);
+    final var dragged = input.getOnMouseDragged();
+    final var scrolled = input.getOnScroll();
+
+    input.getOnMousePressed().handle(this.press);
+    for (int index = 0; index < iterations; ++index) {
+      if ((index & 1) == 0) {
+        dragged.handle(this.dragUp);
+      } else {
+        dragged.handle(this.dragDown);
+      }
+    }
+    input.getOnMouseReleased().handle(this.release);
+
+    for (int index = 0; index < iterations; ++index) {
+      if ((index & 1) == 0) {
+        scrolled.handle(this.scrollUp);
+        control.setRawValue(0.25);
+      } else {
+        scrolled.handle(this.scrollDown);
+        control.setConvertedValue(0.75);
+      }
+    }
+  }
+
+  /**
+   * Dragging, scrolling, setting values, and notifying observers do not
+   * allocate once the dial has warmed up. The dial is in a scene, so its
+   * redraws are deferred to the next pulse, and are not measured here.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testValuePathDoesNotAllocate(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      this.exercise(this.dial, WARMUP);
+
+      final var before = allocatedBytes();
+      this.exercise(this.dial, ITERATIONS);
+      this.allocated = allocatedBytes() - before;
+    });
+
+    assertEquals(0L, this.allocated);
+  }
+
+  /**
+   * <p>A dial that is not in a scene redraws synchronously on every value
+   * change, so this measures the whole value path including the redraws.</p>
+   *
+   * <p>Each full redraw clears the entire canvas, which is what allows the
+   * canvas to discard its command buffer rather than growing it. JavaFX
+   * allocates a fresh graphics state and transform when it does so, and
+   * this is the only allocation permitted per redraw. Partial redraws, which only happen in
+   * scenes, additionally save and restore the graphics state in order to
+   * clip; see {@code DialPartialRedrawTest}.</p>
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testRedrawAllocationBounded(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      final var sceneless = new DialControl();
+      sceneless.setTickCount(12);
+      sceneless.resize(64.0, 64.0);
+
+      final var redraws = new long[1];
+      sceneless.addValueListener(
+        DialModelChange.VALUE, (d, x, y) -> ++redraws[0]);
+
+      this.exercise(sceneless, WARMUP);
+
+      redraws[0] = 0L;
+      final var before = allocatedBytes();
+      this.exercise(sceneless, ITERATIONS);
+      this.allocated = allocatedBytes() - before;
+
+      assertTrue(redraws[0] >= (long) ITERATIONS);
+      assertTrue(
+        this.allocated <= redraws[0] * REDRAW_BYTES_MAXIMUM,
+        "Allocated %d bytes over %d redraws"
+          .formatted(Long.valueOf(this.allocated), Long.valueOf(redraws[0]))
+      );
+    });
+  }
+
+  /**
+   * A labelled dial additionally formats its value as text each time the
+   * value changes, which allocates the text. Nothing else on its value path
+   * allocates more than a plain dial.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testLabelledAllocationBounded(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      final var labelled = new DialControlLabelled();
+      final var sceneless = labelled.dial();
+      sceneless.resize(64.0, 64.0);
+
+      final var changes = new long[1];
+      sceneless.addValueListener(
+        DialModelChange.VALUE, (d, x, y) -> ++changes[0]);
+
+      this.exercise(sceneless, WARMUP);
+
+      changes[0] = 0L;
+      final var before = allocatedBytes();
+      this.exercise(sceneless, ITERATIONS);
+      this.allocated = allocatedBytes() - before;
+
+      final var bound =
+        changes[0] * (REDRAW_BYTES_MAXIMUM + TEXT_BYTES_MAXIMUM);
+      assertTrue(
+        this.allocated <= bound,
+        "Allocated %d bytes over %d changes"
+          .formatted(Long.valueOf(this.allocated), Long.valueOf(changes[0]))
+      );
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial = new DialControl();
+    this.dial.setPrefSize(64.0, 64.0);
+    this.dial.setTickCount(12);
+
+    this.press = mouseEvent(MouseEvent.MOUSE_PRESSED, 10.0);
+    this.release = mouseEvent(MouseEvent.MOUSE_RELEASED, 10.0);
+    this.dragUp = mouseEvent(MouseEvent.MOUSE_DRAGGED, 0.0);
+    this.dragDown = mouseEvent(MouseEvent.MOUSE_DRAGGED, 10.0);
+    this.scrollUp = scrollEvent(10.0);
+    this.scrollDown = scrollEvent(-10.0);
+
+    stage.setScene(new Scene(new StackPane(this.dial)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
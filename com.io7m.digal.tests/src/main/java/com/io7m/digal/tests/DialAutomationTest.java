@@ -0,0 +1,312 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialAutomationPlayer;
+import com.io7m.digal.core.DialAutomationRecorder;
+import com.io7m.digal.core.DialBatch;
+import com.io7m.digal.core.DialControl;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialAutomationTest
+{
+  private static final double QUANTUM = 1.0 / (double) (1L << 30);
+
+  private List<DialControl> dials;
+  private Path file;
+  private DialAutomationRecorder recorder;
+  private DialAutomationPlayer player;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.file = Files.createTempFile("digal-automation", ".bin");
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws IOException
+  {
+    Files.deleteIfExists(this.file);
+  }
+
+  /**
+   * Recorded value changes are played back.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRecordPlayback(
+    final FxRobot robot)
+    throws Exception
+  {
+    robot.interact(() -> {
+      try {
+        this.recorder = DialAutomationRecorder.create(this.file, this.dials);
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    for (int index = 0; index < 10; ++index) {
+      final var value = (double) index / 10.0;
+      robot.interact(() -> {
+        this.dials.get(0).setRawValue(value);
+        this.dials.get(1).setRawValue(1.0 - value);
+      });
+      Thread.sleep(5L);
+    }
+    robot.interact(() -> this.dials.get(2).setRawValue(1.0 / 3.0));
+
+    robot.interact(() -> {
+      try {
+        this.recorder.close();
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    /*
+     * Header (12 bytes), a one byte dial count, and at most ten bytes
+     * per event for the 3 initial values and 21 changes.
+     */
+
+    assertTrue(Files.size(this.file) <= 13L + (24L * 10L));
+
+    final var notifications = new int[1];
+    robot.interact(() -> {
+      for (final var dial : this.dials) {
+        dial.setRawValue(0.75);
+      }
+      this.dials.get(0)
+        .rawValue()
+        .addListener((o, x, y) -> ++notifications[0]);
+    });
+
+    this.play(robot, DialAutomationPlayer.DEFAULT_WINDOW_SIZE);
+
+    assertEquals(0.9, this.dials.get(0).getRawValue(), QUANTUM);
+    assertEquals(0.1, this.dials.get(1).getRawValue(), QUANTUM);
+    assertEquals(1.0 / 3.0, this.dials.get(2).getRawValue(), QUANTUM);
+    assertEquals(0.9, this.dials.get(0).rawValue().get(), QUANTUM);
+    assertTrue(notifications[0] >= 1);
+  }
+
+  /**
+   * Long recordings are streamed through small memory-mapped windows.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPlaybackSmallWindow(
+    final FxRobot robot)
+    throws Exception
+  {
+    robot.interact(() -> {
+      try {
+        this.recorder = DialAutomationRecorder.create(this.file, this.dials);
+        for (int index = 0; index < 10_000; ++index) {
+          final var dial = this.dials.get(index % 3);
+          dial.setRawValue((double) (index % 997) / 997.0);
+        }
+        this.recorder.close();
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    robot.interact(() -> {
+      for (final var dial : this.dials) {
+        dial.setRawValue(0.0);
+      }
+    });
+
+    this.play(robot, 64);
+
+    assertEquals((double) (9999 % 997) / 997.0, this.dials.get(0).getRawValue(), QUANTUM);
+    assertEquals((double) (9997 % 997) / 997.0, this.dials.get(1).getRawValue(), QUANTUM);
+    assertEquals((double) (9998 % 997) / 997.0, this.dials.get(2).getRawValue(), QUANTUM);
+  }
+
+  /**
+   * Files that are not recordings are rejected.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testNotRecording()
+    throws Exception
+  {
+    Files.write(this.file, new byte[64]);
+    assertThrows(IOException.class, () -> {
+      DialAutomationPlayer.open(this.file, this.dials);
+    });
+  }
+
+  /**
+   * Batches update all displayed values before notifying observers, and
+   * apply only the last value given for each dial.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testBatch(
+    final FxRobot robot)
+  {
+    final var seen = new ArrayList<Double>();
+
+    robot.interact(() -> {
+      final var dial0 = this.dials.get(0);
+      final var dial1 = this.dials.get(1);
+      dial0.setRawValue(0.0);
+      dial1.setRawValue(0.0);
+
+      dial0.rawValue().addListener((o, x, y) -> {
+        seen.add(Double.valueOf(y.doubleValue()));
+        seen.add(Double.valueOf(dial1.getRawValue()));
+      });
+
+      final var batch = new DialBatch(1);
+      batch.setRawValue(dial0, 0.25);
+      batch.setRawValue(dial1, 0.5);
+      batch.setRawValue(dial0, 0.75);
+      assertEquals(2, batch.size());
+      batch.apply();
+      assertEquals(0, batch.size());
+    });
+
+    assertEquals(List.of(Double.valueOf(0.75), Double.valueOf(0.5)), seen);
+    assertEquals(0.5, this.dials.get(1).rawValue().get());
+  }
+
+  /**
+   * A dial that was added to another batch (which was then cleared) is
+   * still found in the batch it was originally added to, so adding it
+   * again replaces its value instead of adding a stale duplicate.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testBatchDisplaced(
+    final FxRobot robot)
+  {
+    final var seen = new ArrayList<Double>();
+
+    robot.interact(() -> {
+      final var dial0 = this.dials.get(0);
+      dial0.setRawValue(0.0);
+      dial0.rawValue().addListener((o, x, y) -> {
+        seen.add(Double.valueOf(y.doubleValue()));
+      });
+
+      final var batchA = new DialBatch();
+      final var batchB = new DialBatch();
+      batchA.setRawValue(dial0, 0.25);
+      batchB.setRawValue(dial0, 0.5);
+      batchB.clear();
+      batchA.setRawValue(dial0, 0.75);
+      assertEquals(1, batchA.size());
+      batchA.apply();
+
+      batchA.setRawValue(dial0, 0.125);
+      assertEquals(1, batchA.size());
+      batchA.apply();
+    });
+
+    assertEquals(List.of(Double.valueOf(0.75), Double.valueOf(0.125)), seen);
+  }
+
+  private void play(
+    final FxRobot robot,
+    final int windowSize)
+    throws Exception
+  {
+    robot.interact(() -> {
+      try {
+        this.player =
+          DialAutomationPlayer.open(this.file, this.dials, windowSize);
+        this.player.play();
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    this.player.finished().get(30L, TimeUnit.SECONDS);
+    robot.interact(() -> {
+      try {
+        this.player.close();
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dials = List.of(
+      new DialControl(),
+      new DialControl(),
+      new DialControl()
+    );
+
+    stage.setScene(new Scene(new HBox(this.dials.toArray(DialControl[]::new))));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
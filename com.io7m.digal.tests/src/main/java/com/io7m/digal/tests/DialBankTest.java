@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialBank;
+import javafx.scene.Scene;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialBankTest
+{
+  private static final int CELL_SIZE = 48;
+
+  private DialBank bank;
+
+  /**
+   * Only the tiles of dials whose values have changed are rasterized, and
+   * the presented image reflects the new values.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDirtyTiles(
+    final FxRobot robot)
+    throws Exception
+  {
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.bank.framesPresentedTotal() > 0L;
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+    assertEquals(256L, this.bank.tilesRasterizedTotal());
+
+    final var framesBefore = this.bank.framesPresentedTotal();
+    robot.interact(() -> {
+      this.bank.model(0, 0).setRawValue(1.0);
+      this.bank.model(15, 15).setRawValue(0.5);
+    });
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.bank.framesPresentedTotal() > framesBefore;
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+    assertEquals(258L, this.bank.tilesRasterizedTotal());
+
+    /*
+     * The left side of the radial gauge of the first dial is now filled,
+     * whereas the gauge of its neighbour remains empty.
+     */
+
+    final var image = new WritableImage[1];
+    robot.interact(() -> image[0] = this.bank.snapshot(null, null));
+
+    final var reader = image[0].getPixelReader();
+    final var filled = reader.getColor(2, CELL_SIZE / 2);
+    final var empty = reader.getColor(CELL_SIZE + 2, CELL_SIZE / 2);
+    assertTrue(filled.getBlue() > 0.8, filled::toString);
+    assertTrue(filled.getRed() < 0.2, filled::toString);
+    assertTrue(
+      Math.abs(empty.getBlue() - empty.getRed()) < 0.05, empty::toString);
+  }
+
+  /**
+   * Banks are styled with the same CSS properties as dials, and a style
+   * change redraws every tile.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStyled(
+    final FxRobot robot)
+    throws Exception
+  {
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.bank.framesPresentedTotal() > 0L;
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    robot.interact(() -> {
+      this.bank.setStyle("dial-radial-gauge-color: #ff0000;");
+      this.bank.model(0, 0).setRawValue(1.0);
+    });
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.bank.tilesRasterizedTotal() >= 512L;
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    final var image = new WritableImage[1];
+    robot.interact(() -> image[0] = this.bank.snapshot(null, null));
+
+    final var filled = image[0].getPixelReader().getColor(2, CELL_SIZE / 2);
+    assertTrue(filled.getRed() > 0.8, filled::toString);
+    assertTrue(filled.getBlue() < 0.2, filled::toString);
+  }
+
+  /**
+   * Bank dimensions must be positive.
+   */
+
+  @Test
+  public void testInvalid()
+  {
+    assertThrows(IllegalArgumentException.class, () -> {
+      new DialBank(0, 1, 1);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      new DialBank(1, 1, -1);
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.bank = new DialBank(16, 16, CELL_SIZE);
+    stage.setScene(new Scene(new StackPane(this.bank)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
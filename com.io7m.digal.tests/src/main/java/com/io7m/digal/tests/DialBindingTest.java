@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialBinding;
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialBindingTest
+{
+  private DialControl dial;
+
+  /**
+   * Local changes are sent with increasing sequence numbers, echoes older
+   * than the latest local change are dropped, and current echoes are
+   * applied quietly.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStaleEchoes(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var sent = new ArrayList<String>();
+    final var binding = new DialBinding[1];
+
+    robot.interact(() -> {
+      binding[0] = DialBinding.bind(this.dial, (sequence, value) -> {
+        sent.add("%d %s".formatted(sequence, value));
+      });
+      this.dial.setConvertedValue(10.0);
+      this.dial.setConvertedValue(20.0);
+      this.dial.setConvertedValue(30.0);
+    });
+
+    assertEquals(List.of("1 10.0", "2 20.0", "3 30.0"), sent);
+    assertEquals(3L, binding[0].sequenceSent());
+
+    binding[0].receive(1L, 10.0);
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return binding[0].droppedTotal() == 1L;
+    });
+    assertEquals(30.0, this.dial.getConvertedValue());
+
+    binding[0].receive(3L, 29.0);
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return binding[0].appliedTotal() == 1L;
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals(29.0, this.dial.internalConvertedValue().get());
+    assertEquals(30.0, this.dial.convertedValue().get());
+    assertEquals(3, sent.size());
+
+    robot.interact(() -> binding[0].close());
+  }
+
+  /**
+   * Values received between two pulses are coalesced, and a value received
+   * before a newer local change is dropped when it is applied.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCoalesced(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var binding = new DialBinding[1];
+    robot.interact(() -> {
+      binding[0] = DialBinding.bind(this.dial, (sequence, value) -> { });
+
+      for (int index = 0; index < 100; ++index) {
+        binding[0].receive(0L, (double) index);
+      }
+    });
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return binding[0].appliedTotal() == 1L;
+    });
+    assertEquals(99.0, this.dial.internalConvertedValue().get());
+
+    robot.interact(() -> {
+      binding[0].receive(0L, 50.0);
+      this.dial.setConvertedValue(60.0);
+    });
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return binding[0].droppedTotal() == 1L;
+    });
+    assertEquals(60.0, this.dial.internalConvertedValue().get());
+    assertEquals(1L, binding[0].appliedTotal());
+
+    robot.interact(() -> binding[0].close());
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial = new DialControl();
+    this.dial.setValueConverter(new DialBoundedLongConverter(0L, 100L, 1L));
+    stage.setScene(new Scene(new StackPane(this.dial)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
@@ -17,7 +17,7 @@
 
 package com.io7m.digal.tests;
 
-import com.io7m.digal.core.DialBoundedDoubleConverter;
+import com.io7m.digal.model.DialBoundedDoubleConverter;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Property;
 import net.jqwik.api.constraints.DoubleRange;
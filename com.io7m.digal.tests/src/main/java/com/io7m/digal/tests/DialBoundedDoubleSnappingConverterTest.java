@@ -17,13 +17,18 @@
 
 package com.io7m.digal.tests;
 
-import com.io7m.digal.core.DialBoundedDoubleSnappingConverter;
+import com.io7m.digal.model.DialBoundedDoubleSnappingConverter;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import com.io7m.digal.model.DialConversions;
+import com.io7m.digal.model.DialIdentityConverter;
+import com.io7m.digal.model.DialMemoizingRealConverter;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Property;
 import net.jqwik.api.constraints.DoubleRange;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -84,4 +89,18 @@ public final class DialBoundedDoubleSnappingConverterTest
     assertEquals(1.0, c.convertedNext(0.0));
     assertEquals(0.0, c.convertedPrevious(1.0));
   }
+
+  @Test
+  public void testSnapping()
+  {
+    final var c =
+      new DialBoundedDoubleSnappingConverter(-100.0, 100.0, 1L);
+
+    assertTrue(c.isSnapping());
+    assertTrue(DialConversions.isSnapping(c));
+    assertTrue(DialConversions.isSnapping(new DialMemoizingRealConverter(c)));
+    assertFalse(DialConversions.isSnapping(new DialIdentityConverter()));
+    assertTrue(
+      DialConversions.isSnapping(new DialBoundedLongConverter(0L, 10L, 1L)));
+  }
 }
@@ -17,7 +17,7 @@
 
 package com.io7m.digal.tests;
 
-import com.io7m.digal.core.DialBoundedLongConverter;
+import com.io7m.digal.model.DialBoundedLongConverter;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Property;
 import net.jqwik.api.constraints.IntRange;
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialCanvasBudget;
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialMetrics;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialCanvasBudgetTest
+{
+  private static final double DIAL_SIZE = 64.0;
+
+  private ScrollPane scroll;
+  private List<DialControl> dials;
+
+  private static double canvasWidth(
+    final DialControl dial)
+  {
+    return ((Canvas) dial.getChildrenUnmodifiable().get(0)).getWidth();
+  }
+
+  /**
+   * Scrolling through a large number of dials keeps canvas memory within
+   * the budget, releasing the canvases of dials that were scrolled away, and
+   * regenerating them when they are scrolled back into view.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testBudget(
+    final FxRobot robot)
+  {
+    final var budget = DialCanvasBudget.get().orElseThrow();
+
+    for (int index = 0; index <= 20; ++index) {
+      final var position = (double) index / 20.0;
+      robot.interact(() -> this.scroll.setVvalue(position));
+      WaitForAsyncUtils.waitForFxEvents();
+      assertTrue(
+        budget.usedBytes() <= budget.limitBytes(),
+        "%d <= %d".formatted(
+          Long.valueOf(budget.usedBytes()),
+          Long.valueOf(budget.limitBytes()))
+      );
+    }
+
+    assertTrue(budget.evictionsTotal() > 0L);
+    assertEquals(0.0, canvasWidth(this.dials.get(0)));
+    assertEquals(DIAL_SIZE, canvasWidth(this.dials.get(this.dials.size() - 1)));
+
+    final var regenerationsBefore = budget.regenerationsTotal();
+    robot.interact(() -> this.scroll.setVvalue(0.0));
+    WaitForAsyncUtils.waitForFxEvents();
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertTrue(budget.regenerationsTotal() > regenerationsBefore);
+    assertEquals(DIAL_SIZE, canvasWidth(this.dials.get(0)));
+    assertTrue(budget.usedBytes() <= budget.limitBytes());
+
+    final var metrics = DialMetrics.enable();
+    assertEquals(budget.usedBytes(), metrics.getCanvasBytes());
+    assertEquals(budget.limitBytes(), metrics.getCanvasBytesLimit());
+    assertEquals(budget.evictionsTotal(), metrics.getCanvasEvictionsTotal());
+  }
+
+  /**
+   * The dials of a stage that is closed and discarded (without removing the
+   * dials from their scene) are removed from the budget once they are
+   * garbage collected.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDiscardedStage(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var budget = DialCanvasBudget.get().orElseThrow();
+    final var residentBefore = new int[1];
+
+    robot.interact(() -> {
+      budget.setLimitBytes(Long.MAX_VALUE);
+      residentBefore[0] = budget.residentCanvases();
+
+      final var box = new VBox();
+      for (int index = 0; index < 16; ++index) {
+        final var dial = new DialControl();
+        dial.setMinSize(16.0, 16.0);
+        dial.setMaxSize(16.0, 16.0);
+        box.getChildren().add(dial);
+      }
+
+      final var stage = new Stage();
+      stage.setScene(new Scene(box));
+      stage.show();
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    final var residentShown = budget.residentCanvases();
+    assertTrue(residentShown >= residentBefore[0] + 16);
+
+    robot.interact(() -> {
+      for (final var window : List.copyOf(Stage.getWindows())) {
+        if (window.getScene().getRoot() != this.scroll) {
+          window.hide();
+        }
+      }
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    WaitForAsyncUtils.waitFor(30L, TimeUnit.SECONDS, () -> {
+      System.gc();
+      return budget.residentCanvases() <= residentShown - 16;
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    /*
+     * Each dial requires 16KiB at a render scale of 1; the budget allows
+     * for eight dials, and about four dials are visible at once.
+     */
+
+    DialCanvasBudget.enable(8L * 64L * 64L * 4L);
+
+    this.dials = new ArrayList<>();
+    final var box = new VBox();
+    for (int index = 0; index < 64; ++index) {
+      final var dial = new DialControl();
+      dial.setMinSize(DIAL_SIZE, DIAL_SIZE);
+      dial.setMaxSize(DIAL_SIZE, DIAL_SIZE);
+      this.dials.add(dial);
+      box.getChildren().add(dial);
+    }
+
+    this.scroll = new ScrollPane(box);
+    this.scroll.setPrefSize(200.0, 256.0);
+    stage.setScene(new Scene(this.scroll));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+    DialCanvasBudget.get()
+      .orElseThrow()
+      .setLimitBytes(Long.MAX_VALUE);
+  }
+}
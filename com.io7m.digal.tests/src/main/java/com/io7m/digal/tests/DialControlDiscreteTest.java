@@ -17,7 +17,7 @@
 package com.io7m.digal.tests;
 
 import com.io7m.digal.core.DialControl;
-import com.io7m.digal.core.DialValueConverterDiscreteType;
+import com.io7m.digal.model.DialValueConverterDiscreteType;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.VerticalDirection;
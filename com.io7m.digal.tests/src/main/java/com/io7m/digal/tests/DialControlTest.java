@@ -17,8 +17,8 @@
 package com.io7m.digal.tests;
 
 import com.io7m.digal.core.DialControl;
-import com.io7m.digal.core.DialIdentityConverter;
-import com.io7m.digal.core.DialValueConverterRealType;
+import com.io7m.digal.model.DialIdentityConverter;
+import com.io7m.digal.model.DialValueConverterRealType;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.VerticalDirection;
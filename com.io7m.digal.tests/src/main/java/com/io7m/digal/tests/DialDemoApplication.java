@@ -16,10 +16,10 @@
 
 package com.io7m.digal.tests;
 
-import com.io7m.digal.core.DialBoundedDoubleConverter;
-import com.io7m.digal.core.DialBoundedDoubleSnappingConverter;
-import com.io7m.digal.core.DialBoundedLongConverter;
 import com.io7m.digal.core.DialControl;
+import com.io7m.digal.model.DialBoundedDoubleConverter;
+import com.io7m.digal.model.DialBoundedDoubleSnappingConverter;
+import com.io7m.digal.model.DialBoundedLongConverter;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
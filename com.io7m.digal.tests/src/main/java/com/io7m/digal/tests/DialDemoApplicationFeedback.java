@@ -16,10 +16,10 @@
 
 package com.io7m.digal.tests;
 
+import com.io7m.digal.core.DialBinding;
 import com.io7m.digal.core.DialControl;
-import com.io7m.digal.core.DialValueConverterRealType;
+import com.io7m.digal.model.DialValueConverterRealType;
 import javafx.application.Application;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.TextArea;
@@ -122,14 +122,19 @@ public final class DialDemoApplicationFeedback extends Application
         field.setText(String.join("\n", lines));
       });
 
-    dial0.convertedValue()
-      .addListener((observable, oldValue, newValue) -> {
-        this.executor.schedule(() -> {
-          Platform.runLater(() -> {
-            dial0.setConvertedValueQuietly(newValue.doubleValue());
-          });
-        }, 100L, TimeUnit.MILLISECONDS);
-      });
+    /*
+     * Simulate an external device that echoes back each value that it is
+     * sent after a delay, tagged with the sequence number of the value. The
+     * binding drops echoes that are older than the user's latest change,
+     * and so the dial does not jump back while it is being turned.
+     */
+
+    final var binding = new DialBinding[1];
+    binding[0] = DialBinding.bind(dial0, (sequence, value) -> {
+      this.executor.schedule(() -> {
+        binding[0].receive(sequence, value);
+      }, 100L, TimeUnit.MILLISECONDS);
+    });
 
     pane.getChildren()
       .addAll(dial0, field);
@@ -0,0 +1,244 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialDispatcher;
+import com.io7m.digal.model.DialModelChange;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialDispatcherTest
+{
+  private DialControl dial;
+
+  /**
+   * Changes that arrive while a delivery is pending are conflated into a
+   * single delivery of the latest value.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testConflated(
+    final FxRobot robot)
+  {
+    final var tasks = new ArrayList<Runnable>();
+    final var received = new ArrayList<double[]>();
+    final var dispatcher = new DialDispatcher[1];
+
+    robot.interact(() -> {
+      dispatcher[0] = DialDispatcher.create(
+        this.dial, DialModelChange.EXTERNAL_VALUE_CONVERTED, tasks::add);
+      dispatcher[0].addListener((d, x, y) -> received.add(new double[]{x, y}));
+
+      for (int index = 1; index <= 5; ++index) {
+        this.dial.setRawValue((double) index / 10.0);
+      }
+    });
+
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+
+    assertEquals(1, received.size());
+    assertEquals(0.0, received.get(0)[0]);
+    assertEquals(0.5, received.get(0)[1]);
+    assertEquals(5L, dispatcher[0].submittedTotal());
+    assertEquals(1L, dispatcher[0].deliveredTotal());
+
+    robot.interact(() -> this.dial.setRawValue(0.6));
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+
+    assertEquals(2, received.size());
+    assertEquals(0.5, received.get(1)[0]);
+    assertEquals(0.6, received.get(1)[1]);
+  }
+
+  /**
+   * Listeners run off the FX application thread, one at a time, and see
+   * values in order, ending with the latest value.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testOrdered(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var values = new ConcurrentLinkedQueue<Double>();
+    final var onFxThread = new boolean[1];
+    final var busy = new int[1];
+    final var overlapped = new boolean[1];
+    final var dispatcher = new DialDispatcher[1];
+
+    robot.interact(() -> {
+      dispatcher[0] = DialDispatcher.create(
+        this.dial, DialModelChange.EXTERNAL_VALUE_CONVERTED);
+      dispatcher[0].addListener((d, x, y) -> {
+        synchronized (busy) {
+          overlapped[0] |= busy[0] != 0;
+          ++busy[0];
+        }
+        onFxThread[0] |= Platform.isFxApplicationThread();
+        try {
+          Thread.sleep(1L);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        values.add(Double.valueOf(y));
+        synchronized (busy) {
+          --busy[0];
+        }
+      });
+    });
+
+    for (int index = 1; index <= 100; ++index) {
+      final var value = (double) index / 100.0;
+      robot.interact(() -> this.dial.setRawValue(value));
+    }
+
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return Double.valueOf(1.0).equals(List.copyOf(values).getLast());
+    });
+
+    final var copy = List.copyOf(values);
+    final var sorted = new ArrayList<>(copy);
+    Collections.sort(sorted);
+    assertEquals(sorted, copy);
+    assertFalse(onFxThread[0]);
+    assertFalse(overlapped[0]);
+    assertEquals(100L, dispatcher[0].submittedTotal());
+    assertEquals((long) copy.size(), dispatcher[0].deliveredTotal());
+    robot.interact(dispatcher[0]::close);
+  }
+
+  /**
+   * A slow listener does not stall the FX application thread.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSlowListener(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var release = new CountDownLatch(1);
+    final var last = new AtomicReference<>(Double.valueOf(0.0));
+    final var dispatcher = new DialDispatcher[1];
+
+    robot.interact(() -> {
+      dispatcher[0] = DialDispatcher.create(
+        this.dial, DialModelChange.EXTERNAL_VALUE_CONVERTED);
+      dispatcher[0].addListener((d, x, y) -> {
+        try {
+          release.await();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        last.set(Double.valueOf(y));
+      });
+
+      for (int index = 1; index <= 1000; ++index) {
+        this.dial.setRawValue((double) index / 1000.0);
+      }
+    });
+
+    assertTrue(dispatcher[0].deliveredTotal() <= 1L);
+    release.countDown();
+
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return last.get().doubleValue() == 1.0;
+    });
+    assertTrue(dispatcher[0].deliveredTotal() <= 2L);
+    robot.interact(dispatcher[0]::close);
+  }
+
+  /**
+   * Closed dispatchers deliver nothing further.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testClose(
+    final FxRobot robot)
+  {
+    final var tasks = new ArrayList<Runnable>();
+    final var calls = new int[1];
+    final var dispatcher = new DialDispatcher[1];
+
+    robot.interact(() -> {
+      dispatcher[0] = DialDispatcher.create(
+        this.dial, DialModelChange.EXTERNAL_VALUE_CONVERTED, tasks::add);
+      dispatcher[0].addListener((d, x, y) -> ++calls[0]);
+      this.dial.setRawValue(0.5);
+      dispatcher[0].close();
+      this.dial.setRawValue(0.6);
+    });
+
+    tasks.forEach(Runnable::run);
+    assertEquals(0, calls[0]);
+    assertEquals(1L, dispatcher[0].submittedTotal());
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial = new DialControl();
+    stage.setScene(new Scene(new HBox(this.dial)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
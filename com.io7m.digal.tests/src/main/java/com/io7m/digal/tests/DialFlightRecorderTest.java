@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialFlightRecorderTest
+{
+  private Stage stageCurrent;
+
+  private static List<RecordedEvent> eventsNamed(
+    final List<RecordedEvent> events,
+    final String name)
+  {
+    return events.stream()
+      .filter(e -> e.getEventType().getName().equals(name))
+      .toList();
+  }
+
+  /**
+   * Dials emit JFR events when the events are enabled.
+   *
+   * @param robot The FX robot
+   * @param info  The test info
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testEvents(
+    final FxRobot robot,
+    final TestInfo info)
+    throws Exception
+  {
+    Platform.runLater(() -> {
+      this.stageCurrent.setTitle(
+        "%s: %s".formatted(info.getTestClass().get(), info.getDisplayName())
+      );
+    });
+
+    final DialControl dial =
+      robot.lookup("#dial0")
+        .query();
+
+    final var file =
+      Files.createTempFile("digal", ".jfr");
+
+    try (var recording = new Recording()) {
+      recording.enable("com.io7m.digal.DialRedraw");
+      recording.enable("com.io7m.digal.DialDrag");
+      recording.enable("com.io7m.digal.DialValueChange");
+      recording.start();
+
+      robot.interact(() -> dial.setRawValue(0.5));
+
+      final var target =
+        robot.point(dial)
+          .atOffset(0.0, -32.0);
+
+      robot.drag(dial, MouseButton.PRIMARY);
+      robot.dropTo(target);
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    final var events =
+      RecordingFile.readAllEvents(file);
+    Files.deleteIfExists(file);
+
+    final var redraws =
+      eventsNamed(events, "com.io7m.digal.DialRedraw");
+    final var drags =
+      eventsNamed(events, "com.io7m.digal.DialDrag");
+    final var changes =
+      eventsNamed(events, "com.io7m.digal.DialValueChange");
+
+    assertFalse(redraws.isEmpty());
+    for (final var redraw : redraws) {
+      assertEquals("dial0", redraw.getString("dialId"));
+      assertEquals(128.0, redraw.getDouble("width"));
+      assertEquals(128.0, redraw.getDouble("height"));
+    }
+
+    assertTrue(
+      redraws.stream().anyMatch(e -> e.getString("cause").equals("VALUE"))
+    );
+
+    assertEquals(1, drags.size());
+    assertTrue(drags.get(0).getInt("eventCount") > 0);
+    assertTrue(drags.get(0).getDouble("valueDelta") > 0.0);
+
+    assertFalse(changes.isEmpty());
+    assertEquals(0.5, changes.get(0).getDouble("valueNew"));
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.stageCurrent = stage;
+
+    final var pane = new StackPane();
+    pane.setPrefSize(640, 480);
+    pane.setPadding(new Insets(8));
+
+    final var dial0 = new DialControl();
+    final var dialSize = 128.0;
+    dial0.setPrefSize(dialSize, dialSize);
+    dial0.setMinSize(dialSize, dialSize);
+    dial0.setMaxSize(dialSize, dialSize);
+    dial0.setId("dial0");
+
+    pane.getChildren().addAll(dial0);
+
+    final var scene = new Scene(pane);
+    stage.setTitle("Dial Control");
+    stage.setScene(scene);
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.model.DialBoundedDoubleSnappingConverter;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import com.io7m.digal.model.DialValueConverterDiscreteType;
+import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialHysteresisTest
+{
+  private static final int JITTER = 50;
+
+  private DialControl dial;
+
+  private static MouseEvent mouseEvent(
+    final EventType<MouseEvent> type,
+    final double y)
+  {
+    return new MouseEvent(
+      type,
+      32.0,
+      y,
+      32.0,
+      y,
+      MouseButton.PRIMARY,
+      1,
+      false,
+      false,
+      false,
+      false,
+      true,
+      false,
+      false,
+      false,
+      false,
+      false,
+      null
+    );
+  }
+
+  /**
+   * Drag the dial upwards until the converted value changes, and then
+   * jitter back and forth by a single drag step.
+   *
+   * @return The number of converted value changes during the jitter
+   */
+
+  private int dragAndJitter()
+  {
+    final Node target = this.dial.getChildrenUnmodifiable().get(0);
+    final var dragged = target.getOnMouseDragged();
+    final var changes = new int[1];
+
+    this.dial.setRawValue(0.0);
+    target.getOnMousePressed()
+      .handle(mouseEvent(MouseEvent.MOUSE_PRESSED, 1000.0));
+
+    final var start = this.dial.convertedValue().get();
+    double y = 1000.0;
+    while (this.dial.convertedValue().get() == start) {
+      y -= 1.0;
+      dragged.handle(mouseEvent(MouseEvent.MOUSE_DRAGGED, y));
+    }
+
+    this.dial.convertedValue()
+      .addListener((o, x, z) -> ++changes[0]);
+
+    for (int index = 0; index < JITTER; ++index) {
+      dragged.handle(mouseEvent(MouseEvent.MOUSE_DRAGGED, y + 1.0));
+      dragged.handle(mouseEvent(MouseEvent.MOUSE_DRAGGED, y));
+    }
+
+    target.getOnMouseReleased()
+      .handle(mouseEvent(MouseEvent.MOUSE_RELEASED, y));
+    return changes[0];
+  }
+
+  /**
+   * Without hysteresis, jitter on a snapping boundary flips the converted
+   * value on every event.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testWithoutHysteresis(
+    final FxRobot robot)
+  {
+    final var changes = new int[1];
+    robot.interact(() -> {
+      this.dial.setValueConverter(new DialBoundedLongConverter(0L, 10L, 1L));
+      changes[0] = this.dragAndJitter();
+    });
+    assertEquals(JITTER * 2, changes[0]);
+  }
+
+  /**
+   * With hysteresis, jitter on a discrete boundary does not change the
+   * converted value.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testDiscrete(
+    final FxRobot robot)
+  {
+    final var changes = new int[1];
+    robot.interact(() -> {
+      this.dial.setValueConverter(new DialBoundedLongConverter(0L, 10L, 1L));
+      this.dial.setSnapHysteresis(0.02);
+      changes[0] = this.dragAndJitter();
+    });
+    assertEquals(0, changes[0]);
+  }
+
+  /**
+   * With hysteresis, jitter on a snapping boundary does not change the
+   * converted value.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testSnapping(
+    final FxRobot robot)
+  {
+    final var changes = new int[1];
+    robot.interact(() -> {
+      this.dial.setValueConverter(
+        new DialBoundedDoubleSnappingConverter(0.0, 100.0, 10.0));
+      this.dial.setSnapHysteresis(0.02);
+      changes[0] = this.dragAndJitter();
+    });
+    assertEquals(0, changes[0]);
+  }
+
+  /**
+   * Hysteresis does not hold back programmatic changes.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testProgrammatic(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      this.dial.setValueConverter(new DialBoundedLongConverter(0L, 10L, 1L));
+      this.dial.setSnapHysteresis(0.2);
+      this.dial.setConvertedValue(3.0);
+      assertEquals(3.0, this.dial.convertedValue().get());
+      this.dial.setConvertedValue(4.0);
+      assertEquals(4.0, this.dial.convertedValue().get());
+    });
+  }
+
+  /**
+   * Continuous converters are not affected by hysteresis.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testContinuous(
+    final FxRobot robot)
+  {
+    final var changes = new int[1];
+    robot.interact(() -> {
+      this.dial.setSnapHysteresis(0.02);
+      changes[0] = this.dragAndJitter();
+    });
+    assertTrue(changes[0] > 0);
+  }
+
+  /**
+   * Hysteresis is not applied when conversions are asynchronous, and so
+   * dragging never evaluates the converter on the FX application thread.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testAsynchronous(
+    final FxRobot robot)
+  {
+    final var calls = new int[1];
+    final var base = new DialBoundedLongConverter(0L, 10L, 1L);
+    final var counting = new DialValueConverterDiscreteType()
+    {
+      @Override
+      public double convertToDial(
+        final long x)
+      {
+        ++calls[0];
+        return base.convertToDial(x);
+      }
+
+      @Override
+      public long convertFromDial(
+        final double x)
+      {
+        ++calls[0];
+        return base.convertFromDial(x);
+      }
+
+      @Override
+      public long convertedNext(
+        final long x)
+      {
+        return base.convertedNext(x);
+      }
+
+      @Override
+      public long convertedPrevious(
+        final long x)
+      {
+        return base.convertedPrevious(x);
+      }
+    };
+
+    final var conversions = new ArrayList<Runnable>();
+    robot.interact(() -> {
+      this.dial.setValueConverter(counting);
+      this.dial.setSnapHysteresis(0.02);
+      this.dial.setConversionAsynchronous(conversions::add);
+      calls[0] = 0;
+
+      final Node target = this.dial.getChildrenUnmodifiable().get(0);
+      target.getOnMousePressed()
+        .handle(mouseEvent(MouseEvent.MOUSE_PRESSED, 1000.0));
+      for (int index = 0; index < JITTER; ++index) {
+        target.getOnMouseDragged()
+          .handle(mouseEvent(MouseEvent.MOUSE_DRAGGED, 1000.0 - index));
+      }
+      target.getOnMouseReleased()
+        .handle(mouseEvent(MouseEvent.MOUSE_RELEASED, 1000.0 - JITTER));
+    });
+
+    assertEquals(0, calls[0]);
+    assertTrue(!conversions.isEmpty());
+  }
+
+  /**
+   * Bands must be in range.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testInvalid(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      assertThrows(IllegalArgumentException.class, () -> {
+        this.dial.setSnapHysteresis(-0.1);
+      });
+      assertThrows(IllegalArgumentException.class, () -> {
+        this.dial.setSnapHysteresis(1.0);
+      });
+      assertThrows(IllegalArgumentException.class, () -> {
+        this.dial.setSnapHysteresis(Double.NaN);
+      });
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial = new DialControl();
+    stage.setScene(new Scene(new HBox(this.dial)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
@@ -16,7 +16,7 @@
 
 package com.io7m.digal.tests;
 
-import com.io7m.digal.core.DialIdentityConverter;
+import com.io7m.digal.model.DialIdentityConverter;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Property;
 import org.junit.jupiter.api.Test;
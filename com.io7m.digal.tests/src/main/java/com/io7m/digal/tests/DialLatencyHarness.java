@@ -0,0 +1,334 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialLatencyRecorder;
+import com.io7m.digal.core.DialLatencyReport;
+import com.io7m.digal.core.DialLatencyStage;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A harness that drives synthetic input event streams into a dial and
+ * reports the resulting input-to-display latencies.</p>
+ *
+ * <p>Events are delivered at a fixed rate from a timer thread, independently
+ * of the FX pulse, in the same way that events from a real input device
+ * arrive. The harness can be run headlessly using Monocle:</p>
+ *
+ * <pre>
+ * $ java -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw \
+ *   ... com.io7m.digal.tests.DialLatencyHarness
+ * </pre>
+ */
+
+public final class DialLatencyHarness
+{
+  private DialLatencyHarness()
+  {
+
+  }
+
+  /**
+   * The kind of synthetic event stream.
+   */
+
+  public enum StreamKind
+  {
+    /**
+     * A single long drag, moving up and down.
+     */
+
+    DRAG,
+
+    /**
+     * Scroll wheel events, scrolling up and down.
+     */
+
+    SCROLL
+  }
+
+  private static MouseEvent mouseEvent(
+    final EventType<MouseEvent> type,
+    final double y)
+  {
+    return new MouseEvent(
+      type,
+      16.0,
+      y,
+      16.0,
+      y,
+      MouseButton.PRIMARY,
+      1,
+      false,
+      false,
+      false,
+      false,
+      true,
+      false,
+      false,
+      false,
+      false,
+      false,
+      null
+    );
+  }
+
+  private static ScrollEvent scrollEvent(
+    final double deltaY)
+  {
+    return new ScrollEvent(
+      ScrollEvent.SCROLL,
+      16.0,
+      16.0,
+      16.0,
+      16.0,
+      false,
+      false,
+      false,
+      false,
+      false,
+      false,
+      0.0,
+      deltaY,
+      0.0,
+      deltaY,
+      ScrollEvent.HorizontalTextScrollUnits.NONE,
+      0.0,
+      ScrollEvent.VerticalTextScrollUnits.NONE,
+      0.0,
+      0,
+      null
+    );
+  }
+
+  private static Event eventFor(
+    final StreamKind kind,
+    final int index)
+  {
+    final var up = ((index / 20) & 1) == 0;
+    return switch (kind) {
+      case DRAG -> mouseEvent(
+        MouseEvent.MOUSE_DRAGGED, (index & 1) == 0 ? 8.0 : 24.0);
+      case SCROLL -> scrollEvent(up ? 10.0 : -10.0);
+    };
+  }
+
+  /**
+   * Drive a stream of synthetic events into a dial, and report the
+   * latencies recorded. The dial must be showing in a scene. This method
+   * must not be called on the FX application thread.
+   *
+   * @param dial          The dial
+   * @param kind          The kind of event stream
+   * @param eventCount    The number of events
+   * @param eventsPerSecond The rate at which events are delivered
+   *
+   * @return The latency reports for each stage
+   *
+   * @throws Exception On errors
+   */
+
+  public static Map<DialLatencyStage, DialLatencyReport> drive(
+    final DialControl dial,
+    final StreamKind kind,
+    final int eventCount,
+    final double eventsPerSecond)
+    throws Exception
+  {
+    if (Platform.isFxApplicationThread()) {
+      throw new IllegalStateException(
+        "The harness cannot be driven from the FX application thread.");
+    }
+
+    final var recorder = new DialLatencyRecorder();
+    final Node target = dial.getChildrenUnmodifiable().get(0);
+    final var sent = new AtomicInteger();
+    final var done = new CountDownLatch(1);
+
+    Platform.runLater(() -> {
+      dial.setLatencyRecorder(recorder);
+      if (kind == StreamKind.DRAG) {
+        Event.fireEvent(target, mouseEvent(MouseEvent.MOUSE_PRESSED, 16.0));
+      }
+    });
+
+    final var period = (long) (1_000_000_000.0 / eventsPerSecond);
+    try (var timer = Executors.newSingleThreadScheduledExecutor()) {
+      timer.scheduleAtFixedRate(() -> {
+        final var index = sent.getAndIncrement();
+        if (index < eventCount) {
+          final var event = eventFor(kind, index);
+          Platform.runLater(() -> Event.fireEvent(target, event));
+        } else if (index == eventCount) {
+          done.countDown();
+        }
+      }, 0L, period, TimeUnit.NANOSECONDS);
+
+      done.await();
+      timer.shutdownNow();
+    }
+
+    /*
+     * Wait for the frames showing the final events to be presented. Two
+     * consecutive runnables are separated by at least one pulse if a pulse
+     * has been requested.
+     */
+
+    final var settled = new CountDownLatch(1);
+    Platform.runLater(() -> {
+      if (kind == StreamKind.DRAG) {
+        Event.fireEvent(target, mouseEvent(MouseEvent.MOUSE_RELEASED, 16.0));
+      }
+      Platform.requestNextPulse();
+      Platform.runLater(() -> Platform.runLater(settled::countDown));
+    });
+    settled.await();
+    Thread.sleep(100L);
+
+    final var reports =
+      new EnumMap<DialLatencyStage, DialLatencyReport>(DialLatencyStage.class);
+    final var collected = new CountDownLatch(1);
+    Platform.runLater(() -> {
+      dial.clearLatencyRecorder();
+      for (final var stage : DialLatencyStage.values()) {
+        reports.put(stage, recorder.report(stage));
+      }
+      collected.countDown();
+    });
+    collected.await();
+    return reports;
+  }
+
+  /**
+   * Print a latency report in the style of an HdrHistogram percentile
+   * distribution.
+   *
+   * @param output The output
+   * @param report The report
+   */
+
+  public static void print(
+    final PrintStream output,
+    final DialLatencyReport report)
+  {
+    output.print(format(report));
+  }
+
+  /**
+   * Format a latency report in the style of an HdrHistogram percentile
+   * distribution.
+   *
+   * @param report The report
+   *
+   * @return The formatted report
+   */
+
+  public static String format(
+    final DialLatencyReport report)
+  {
+    final var output = new StringBuilder(256);
+    output.append(
+      "%s: count %d, mean %.1fus, p50 %.1fus, p90 %.1fus, p99 %.1fus, p99.9 %.1fus%n".formatted(
+        report.stage(),
+        Long.valueOf(report.count()),
+        Double.valueOf(report.meanNanos() / 1000.0),
+        Double.valueOf((double) report.p50Nanos() / 1000.0),
+        Double.valueOf((double) report.p90Nanos() / 1000.0),
+        Double.valueOf((double) report.p99Nanos() / 1000.0),
+        Double.valueOf((double) report.p999Nanos() / 1000.0)
+      )
+    );
+
+    output.append(
+      "%16s %16s %12s %12s%n".formatted("From(us)", "To(us)", "Count", "Cumulative")
+    );
+    long seen = 0L;
+    for (final var bucket : report.buckets()) {
+      seen += bucket.count();
+      output.append(
+        "%16.1f %16.1f %12d %11.3f%%%n".formatted(
+          Double.valueOf((double) bucket.lowerNanos() / 1000.0),
+          Double.valueOf((double) bucket.upperNanos() / 1000.0),
+          Long.valueOf(bucket.count()),
+          Double.valueOf((100.0 * (double) seen) / (double) report.count())
+        )
+      );
+    }
+    return output.toString();
+  }
+
+  /**
+   * Run the harness against a single dial and print the results.
+   *
+   * @param args Ignored
+   *
+   * @throws Exception On errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws Exception
+  {
+    final var started = new CountDownLatch(1);
+    Platform.startup(started::countDown);
+    started.await();
+
+    final var dials = new DialControl[1];
+    final var shown = new CountDownLatch(1);
+    Platform.runLater(() -> {
+      final var dial = new DialControl();
+      dial.setPrefSize(128.0, 128.0);
+      dials[0] = dial;
+
+      final var stage = new Stage();
+      stage.setScene(new Scene(new StackPane(dial)));
+      stage.show();
+      shown.countDown();
+    });
+    shown.await();
+
+    for (final var kind : StreamKind.values()) {
+      System.out.println(kind);
+      final var reports = drive(dials[0], kind, 2_000, 500.0);
+      for (final var report : reports.values()) {
+        print(System.out, report);
+      }
+      System.out.println();
+    }
+
+    Platform.exit();
+  }
+}
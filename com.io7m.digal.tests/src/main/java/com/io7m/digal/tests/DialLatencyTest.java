@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialLatencyStage;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialLatencyTest
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(DialLatencyTest.class);
+
+  private DialControl dial;
+
+  /**
+   * Dragging a dial records a notification latency for each event, and
+   * presentation latencies that are never shorter than notification
+   * latencies. Percentiles are ordered, and the histogram accounts for
+   * every recorded latency.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDragLatency()
+    throws Exception
+  {
+    final var reports =
+      DialLatencyHarness.drive(
+        this.dial, DialLatencyHarness.StreamKind.DRAG, 200, 1000.0);
+
+    final var notified = reports.get(DialLatencyStage.NOTIFIED);
+    final var presented = reports.get(DialLatencyStage.PRESENTED);
+    LOG.debug("{}", DialLatencyHarness.format(notified));
+    LOG.debug("{}", DialLatencyHarness.format(presented));
+
+    assertEquals(200L, notified.count());
+    assertTrue(presented.count() >= 1L);
+    assertTrue(presented.count() <= notified.count());
+    assertTrue(presented.p50Nanos() >= notified.p50Nanos());
+    assertTrue(notified.p50Nanos() <= notified.p90Nanos());
+    assertTrue(notified.p90Nanos() <= notified.p99Nanos());
+    assertTrue(notified.p99Nanos() <= notified.p999Nanos());
+    assertEquals(
+      notified.count(),
+      notified.buckets()
+        .stream()
+        .mapToLong(b -> b.count())
+        .sum()
+    );
+  }
+
+  /**
+   * Scrolling a dial records latencies.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testScrollLatency()
+    throws Exception
+  {
+    final var reports =
+      DialLatencyHarness.drive(
+        this.dial, DialLatencyHarness.StreamKind.SCROLL, 100, 1000.0);
+
+    final var notified = reports.get(DialLatencyStage.NOTIFIED);
+    final var presented = reports.get(DialLatencyStage.PRESENTED);
+    assertTrue(notified.count() >= 1L);
+    assertTrue(presented.count() >= 1L);
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial = new DialControl();
+    this.dial.setPrefSize(128.0, 128.0);
+    this.dial.setRawValue(0.5);
+
+    stage.setScene(new Scene(new StackPane(this.dial)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
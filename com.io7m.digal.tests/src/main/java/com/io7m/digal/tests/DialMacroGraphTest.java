@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialMacroCurve;
+import com.io7m.digal.core.DialMacroGraph;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialMacroGraphTest
+{
+  private List<DialControl> dials;
+
+  /**
+   * A macro drives many targets, each with its own range and curve.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testFanOut(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      final var graph = new DialMacroGraph();
+      final var macro = new DialControl();
+      final var targets = new ArrayList<DialControl>();
+      for (int index = 0; index < 64; ++index) {
+        final var target = new DialControl();
+        targets.add(target);
+        graph.link(macro, target, 0.25, 0.75, DialMacroCurve.LINEAR);
+      }
+      graph.link(macro, targets.get(0), 1.0, 0.0, DialMacroCurve.QUADRATIC);
+
+      macro.setRawValue(0.5);
+
+      assertEquals(0.75, targets.get(0).getRawValue(), 1.0e-9);
+      for (int index = 1; index < 64; ++index) {
+        assertEquals(0.5, targets.get(index).getRawValue(), 1.0e-9);
+      }
+    });
+  }
+
+  /**
+   * Chains of macros are propagated in a single pass, and each dependent
+   * dial is notified exactly once per change.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testChainNotifiesOnce(
+    final FxRobot robot)
+  {
+    final var notifications = new int[4];
+
+    robot.interact(() -> {
+      final var a = this.dials.get(0);
+      final var b = this.dials.get(1);
+      final var c = this.dials.get(2);
+      final var d = this.dials.get(3);
+
+      final var graph = new DialMacroGraph();
+      graph.link(a, b);
+      graph.link(a, c, 0.0, 0.5, DialMacroCurve.LINEAR);
+      graph.link(b, d);
+      graph.link(c, d, 0.0, 1.0, DialMacroCurve.SQUARE_ROOT);
+
+      for (int index = 0; index < 4; ++index) {
+        final var slot = index;
+        this.dials.get(index)
+          .rawValue()
+          .addListener((o, x, y) -> ++notifications[slot]);
+      }
+
+      a.setRawValue(0.5);
+
+      assertEquals(0.5, b.getRawValue(), 1.0e-9);
+      assertEquals(0.25, c.getRawValue(), 1.0e-9);
+
+      assertEquals(0.5, d.getRawValue(), 1.0e-9);
+    });
+
+    assertEquals(1, notifications[0]);
+    assertEquals(1, notifications[1]);
+    assertEquals(1, notifications[2]);
+    assertEquals(1, notifications[3]);
+  }
+
+  /**
+   * Changes that listeners make to other macros while the graph is applying
+   * an update are propagated.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testReentrantMacro(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      final var macro0 = this.dials.get(0);
+      final var target0 = this.dials.get(1);
+      final var macro1 = this.dials.get(2);
+      final var target1 = this.dials.get(3);
+
+      final var graph = new DialMacroGraph();
+      graph.link(macro0, target0);
+      graph.link(macro1, target1, 0.0, 0.5, DialMacroCurve.LINEAR);
+
+      target0.rawValue()
+        .addListener((o, x, y) -> macro1.setRawValue(y.doubleValue()));
+
+      macro0.setRawValue(0.5);
+
+      assertEquals(0.5, target0.getRawValue(), 1.0e-9);
+      assertEquals(0.5, macro1.getRawValue(), 1.0e-9);
+      assertEquals(0.25, target1.getRawValue(), 1.0e-9);
+
+      macro0.setRawValue(1.0);
+
+      assertEquals(1.0, macro1.getRawValue(), 1.0e-9);
+      assertEquals(0.5, target1.getRawValue(), 1.0e-9);
+    });
+  }
+
+  /**
+   * Links that would introduce cycles are rejected.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testCycles(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      final var a = this.dials.get(0);
+      final var b = this.dials.get(1);
+      final var c = this.dials.get(2);
+
+      final var graph = new DialMacroGraph();
+      graph.link(a, b);
+      graph.link(b, c);
+
+      assertThrows(IllegalArgumentException.class, () -> graph.link(c, a));
+      assertThrows(IllegalArgumentException.class, () -> graph.link(b, a));
+      assertThrows(IllegalArgumentException.class, () -> graph.link(a, a));
+
+      assertTrue(graph.unlink(a, b));
+      graph.link(c, a);
+    });
+  }
+
+  /**
+   * Unlinked targets no longer follow their macro.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testUnlink(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      final var a = this.dials.get(0);
+      final var b = this.dials.get(1);
+
+      final var graph = new DialMacroGraph();
+      graph.link(a, b);
+      a.setRawValue(0.5);
+      assertEquals(0.5, b.getRawValue());
+
+      assertTrue(graph.unlink(a, b));
+      assertFalse(graph.unlink(a, b));
+      a.setRawValue(1.0);
+      assertEquals(0.5, b.getRawValue());
+
+      graph.link(a, b);
+      graph.clear();
+      a.setRawValue(0.0);
+      assertEquals(0.5, b.getRawValue());
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dials = List.of(
+      new DialControl(),
+      new DialControl(),
+      new DialControl(),
+      new DialControl()
+    );
+
+    stage.setScene(new Scene(new HBox(this.dials.toArray(DialControl[]::new))));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
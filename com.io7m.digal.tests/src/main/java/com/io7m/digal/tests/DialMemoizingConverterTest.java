@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.model.DialBoundedDoubleConverter;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import com.io7m.digal.model.DialMemoizingDiscreteConverter;
+import com.io7m.digal.model.DialMemoizingRealConverter;
+import com.io7m.digal.model.DialValueConverterRealType;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.DoubleRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class DialMemoizingConverterTest
+{
+  @Property
+  public void testRealAgrees(
+    final @ForAll @DoubleRange(min = 0.0, max = 1.0) double x)
+  {
+    final var base =
+      new DialBoundedDoubleConverter(-100.0, 100.0, 1.0);
+    final var c =
+      new DialMemoizingRealConverter(base);
+
+    assertEquals(base.convertFromDial(x), c.convertFromDial(x), 0.01);
+    assertEquals(base.convertToDial(50.0), c.convertToDial(50.0), 0.0);
+    assertEquals(base.convertedNext(1.0), c.convertedNext(1.0), 0.0);
+    assertEquals(base.convertedPrevious(1.0), c.convertedPrevious(1.0), 0.0);
+  }
+
+  @Property
+  public void testDiscreteAgrees(
+    final @ForAll @DoubleRange(min = 0.0, max = 1.0) double x)
+  {
+    final var base =
+      new DialBoundedLongConverter(-100L, 100L, 1L);
+    final var c =
+      new DialMemoizingDiscreteConverter(base);
+
+    assertEquals(base.convertFromDial(x), c.convertFromDial(x));
+    assertEquals(base.convertToDial(50L), c.convertToDial(50L), 0.0);
+    assertEquals(base.convertedNext(1L), c.convertedNext(1L));
+    assertEquals(base.convertedPrevious(1L), c.convertedPrevious(1L));
+  }
+
+  @Test
+  public void testCached()
+  {
+    final var calls = new AtomicInteger();
+    final var c =
+      new DialMemoizingRealConverter(new CountingConverter(calls), 16, 100L);
+
+    assertEquals(50.0, c.convertFromDial(0.5), 0.0);
+    assertEquals(50.0, c.convertFromDial(0.5), 0.0);
+    assertEquals(50.0, c.convertFromDial(0.501), 0.0);
+    assertEquals(1, calls.get());
+
+    assertEquals(51.0, c.convertFromDial(0.51), 0.0);
+    assertEquals(2, calls.get());
+
+    c.clear();
+    assertEquals(50.0, c.convertFromDial(0.5), 0.0);
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void testBounded()
+  {
+    final var calls = new AtomicInteger();
+    final var c =
+      new DialMemoizingRealConverter(new CountingConverter(calls), 4, 1000L);
+
+    for (int index = 0; index <= 1000; ++index) {
+      c.convertFromDial((double) index / 1000.0);
+    }
+    assertEquals(1001, calls.get());
+  }
+
+  @Test
+  public void testConcurrent()
+    throws Exception
+  {
+    final var base =
+      new DialBoundedDoubleConverter(0.0, 1000.0, 1.0);
+    final var c =
+      new DialMemoizingRealConverter(base, 8, 1000L);
+
+    final var executor = Executors.newFixedThreadPool(4);
+    try {
+      final var futures = new ArrayList<Future<Integer>>();
+      for (int thread = 0; thread < 4; ++thread) {
+        final var offset = thread * 7;
+        futures.add(executor.submit(() -> {
+          int mismatches = 0;
+          for (int index = 0; index < 200_000; ++index) {
+            final var x = (double) ((index + offset) % 1001) / 1000.0;
+            if (c.convertFromDial(x) != base.convertFromDial(x)) {
+              ++mismatches;
+            }
+          }
+          return Integer.valueOf(mismatches);
+        }));
+      }
+      for (final var future : futures) {
+        assertEquals(0, future.get().intValue());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testInvalid()
+  {
+    final var base = new DialBoundedDoubleConverter(0.0, 1.0, 0.1);
+    assertThrows(IllegalArgumentException.class, () -> {
+      new DialMemoizingRealConverter(base, 0, 100L);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      new DialMemoizingRealConverter(base, 16, 0L);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      new DialMemoizingRealConverter(base, (1 << 30) + 1, 100L);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      new DialMemoizingRealConverter(base, Integer.MAX_VALUE, 100L);
+    });
+  }
+
+  private static final class CountingConverter
+    implements DialValueConverterRealType
+  {
+    private final AtomicInteger calls;
+
+    CountingConverter(
+      final AtomicInteger inCalls)
+    {
+      this.calls = inCalls;
+    }
+
+    @Override
+    public double convertToDial(
+      final double x)
+    {
+      return x / 100.0;
+    }
+
+    @Override
+    public double convertFromDial(
+      final double x)
+    {
+      this.calls.incrementAndGet();
+      return (double) Math.round(x * 100.0);
+    }
+
+    @Override
+    public double convertedNext(
+      final double x)
+    {
+      return x + 1.0;
+    }
+
+    @Override
+    public double convertedPrevious(
+      final double x)
+    {
+      return x - 1.0;
+    }
+  }
+}
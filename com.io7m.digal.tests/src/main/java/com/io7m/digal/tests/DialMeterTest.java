@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialMetrics;
+import com.io7m.digal.model.DialIdentityConverter;
+import com.io7m.digal.model.DialModel;
+import com.io7m.digal.model.DialModelChange;
+import javafx.geometry.VerticalDirection;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialMeterTest
+{
+  private DialMetrics metrics;
+  private DialControl meter;
+  private DialControl dial;
+
+  /**
+   * Any number of meter values set between two pulses result in a single
+   * redraw.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCoalesced(
+    final FxRobot robot)
+    throws Exception
+  {
+    WaitForAsyncUtils.waitForFxEvents();
+    final var redrawsBefore = this.metrics.getRedrawsTotal();
+
+    robot.interact(() -> {
+      for (int index = 0; index <= 100; ++index) {
+        this.meter.setMeterValue((double) index / 100.0);
+      }
+    });
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.metrics.getRedrawsTotal() > redrawsBefore;
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals(redrawsBefore + 1L, this.metrics.getRedrawsTotal());
+    assertEquals(1.0, this.meter.getMeterValue());
+  }
+
+  /**
+   * Meters ignore mouse input.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testNoInput(
+    final FxRobot robot)
+  {
+    robot.interact(() -> this.meter.setMeterValue(0.5));
+
+    final var target =
+      robot.point(this.meter)
+        .atOffset(0.0, -32.0);
+
+    robot.drag(this.meter, MouseButton.PRIMARY);
+    robot.dropTo(target);
+    robot.scroll(10, VerticalDirection.UP);
+
+    assertEquals(0.5, this.meter.getMeterValue());
+  }
+
+  /**
+   * Peaks are held and then decay towards the meter value.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPeakHold(
+    final FxRobot robot)
+    throws Exception
+  {
+    robot.interact(() -> {
+      this.meter.setMeterPeakHold(Duration.ofMillis(250L), 2.0);
+      this.meter.setMeterValue(1.0);
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    robot.interact(() -> this.meter.setMeterValue(0.25));
+    WaitForAsyncUtils.waitForFxEvents();
+    assertEquals(1.0, this.meter.getMeterPeak());
+
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.meter.getMeterPeak() == 0.25;
+    });
+
+    robot.interact(() -> this.meter.clearMeterPeakHold());
+    assertEquals(0.25, this.meter.getMeterPeak());
+  }
+
+  /**
+   * Meter operations are rejected by ordinary dials, and meters reject
+   * all operations that access a model, a value property, a value
+   * listener, or a value conversion setting.
+   */
+
+  @Test
+  public void testModes()
+  {
+    assertTrue(this.meter.isMeter());
+    assertFalse(this.dial.isMeter());
+
+    assertThrows(IllegalStateException.class, () -> {
+      this.dial.setMeterValue(0.5);
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.dial.setMeterPeakHold(Duration.ZERO, 1.0);
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setModel(new DialModel());
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.model();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setRawValue(0.5);
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setRawValueQuietly(0.5);
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setConvertedValue(0.5);
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setConvertedValueQuietly(0.5);
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.getRawValue();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.getConvertedValue();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.rawValue();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.convertedValue();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.internalRawValue();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.internalConvertedValue();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setValueConverter(new DialIdentityConverter());
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setConversionAsynchronous(Runnable::run);
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setConversionSynchronous();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.setSnapHysteresis(0.1);
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.getSnapHysteresis();
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.addValueListener(
+        DialModelChange.EXTERNAL_VALUE, (d, x, y) -> { });
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.removeValueListener(
+        DialModelChange.EXTERNAL_VALUE, (d, x, y) -> { });
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.addDiscreteValueListener(
+        DialModelChange.EXTERNAL_VALUE_CONVERTED, (d, x, y) -> { });
+    });
+    assertThrows(IllegalStateException.class, () -> {
+      this.meter.removeDiscreteValueListener(
+        DialModelChange.EXTERNAL_VALUE_CONVERTED, (d, x, y) -> { });
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      this.meter.setMeterPeakHold(Duration.ZERO, 0.0);
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.metrics = DialMetrics.enable();
+
+    this.meter = DialControl.meter();
+    this.meter.setMinSize(128.0, 128.0);
+    this.dial = new DialControl();
+
+    stage.setScene(new Scene(new HBox(this.meter, this.dial)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
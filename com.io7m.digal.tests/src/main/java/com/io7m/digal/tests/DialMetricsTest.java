@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialMetrics;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.FlowPane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialMetricsTest
+{
+  private Stage stageCurrent;
+  private DialMetrics metrics;
+
+  /**
+   * Metrics are gathered across dials and exposed over JMX.
+   *
+   * @param robot The FX robot
+   * @param info  The test info
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testMetrics(
+    final FxRobot robot,
+    final TestInfo info)
+    throws Exception
+  {
+    Platform.runLater(() -> {
+      this.stageCurrent.setTitle(
+        "%s: %s".formatted(info.getTestClass().get(), info.getDisplayName())
+      );
+    });
+
+    assertSame(this.metrics, DialMetrics.enable());
+    assertSame(this.metrics, DialMetrics.get().orElseThrow());
+
+    final DialControl dial =
+      robot.lookup("#dial0")
+        .query();
+
+    this.metrics.snapshot();
+
+    robot.interact(() -> {
+      for (int index = 0; index <= 100; ++index) {
+        dial.setRawValue((double) index / 100.0);
+      }
+    });
+
+    final var target =
+      robot.point(dial)
+        .atOffset(0.0, -32.0);
+
+    robot.drag(dial, MouseButton.PRIMARY);
+    robot.dropTo(target);
+
+    final var snapshot = this.metrics.snapshot();
+    assertTrue(snapshot.dialInstances() >= 2L);
+    assertTrue(snapshot.labelledInstances() >= 0L);
+    assertTrue(snapshot.redrawsTotal() >= 1L);
+    assertTrue(snapshot.redrawsPerSecond() > 0.0);
+    assertTrue(snapshot.redrawTimeAverageNanos() > 0.0);
+    assertTrue(snapshot.redrawTimeP99Nanos() > 0L);
+    assertTrue(snapshot.notificationsTotal() >= 100L);
+    assertTrue(snapshot.dragEventsTotal() >= 1L);
+
+    final var server =
+      ManagementFactory.getPlatformMBeanServer();
+    final var name =
+      new ObjectName(DialMetrics.OBJECT_NAME);
+
+    assertEquals(
+      Long.valueOf(this.metrics.getRedrawsTotal()),
+      server.getAttribute(name, "RedrawsTotal")
+    );
+    assertTrue(
+      ((Long) server.getAttribute(name, "DialInstances")).longValue() >= 2L
+    );
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.stageCurrent = stage;
+    this.metrics = DialMetrics.enable();
+
+    final var pane = new FlowPane();
+    pane.setPrefSize(640, 480);
+    pane.setPadding(new Insets(8));
+
+    final var dial0 = new DialControl();
+    final var dialSize = 128.0;
+    dial0.setPrefSize(dialSize, dialSize);
+    dial0.setMinSize(dialSize, dialSize);
+    dial0.setMaxSize(dialSize, dialSize);
+    dial0.setId("dial0");
+
+    final var dial1 = new DialControl();
+    dial1.setPrefSize(dialSize, dialSize);
+
+    pane.getChildren().addAll(dial0, dial1);
+
+    final var scene = new Scene(pane);
+    stage.setTitle("Dial Control");
+    stage.setScene(scene);
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
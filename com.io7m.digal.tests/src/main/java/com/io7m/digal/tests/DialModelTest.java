@@ -0,0 +1,245 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.model.DialBoundedDoubleConverter;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import com.io7m.digal.model.DialModel;
+import com.io7m.digal.model.DialModelChange;
+import com.io7m.digal.model.DialModelListenerType;
+import com.io7m.digal.model.DialValueConverterRealType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class DialModelTest
+{
+  /**
+   * Setting values updates the internal and external state, clamps, and
+   * increments the version.
+   */
+
+  @Test
+  public void testValues()
+  {
+    final var model = new DialModel();
+    model.setValueConverter(new DialBoundedLongConverter(0L, 100L, 1L));
+
+    final var changes = new ArrayList<DialModelChange>();
+    model.addListener((m, c) -> changes.add(c));
+
+    final var version0 = model.version();
+    assertTrue(model.setRawValueQuietly(0.5));
+    assertEquals(0.5, model.getRawValue());
+    assertEquals(50.0, model.getConvertedValue());
+    assertEquals(0.5, model.getDisplayedPosition(), 1.0e-9);
+    assertEquals(0.0, model.getExternalRawValue());
+    assertEquals(List.of(DialModelChange.VALUE), changes);
+    assertTrue(model.version() > version0);
+
+    changes.clear();
+    assertTrue(model.setConvertedValue(200.0));
+    assertEquals(1.0, model.getRawValue());
+    assertEquals(1.0, model.getExternalRawValue());
+    assertEquals(100.0, model.getExternalConvertedValue());
+    assertEquals(
+      List.of(DialModelChange.VALUE, DialModelChange.EXTERNAL_VALUE),
+      changes
+    );
+
+    final var version1 = model.version();
+    changes.clear();
+    assertFalse(model.setRawValue(1.0));
+    assertEquals(List.of(), changes);
+    assertEquals(version1, model.version());
+  }
+
+  /**
+   * Removed listeners are no longer notified.
+   */
+
+  @Test
+  public void testListenerRemoved()
+  {
+    final var model = new DialModel();
+    final var count = new int[2];
+    final DialModelListenerType first = (m, c) -> ++count[0];
+    model.addListener(first);
+    model.addListener((m, c) -> ++count[1]);
+
+    model.setRawValue(0.25);
+    model.removeListener(first);
+    model.setRawValue(0.5);
+
+    assertEquals(2, count[0]);
+    assertEquals(4, count[1]);
+  }
+
+  /**
+   * Asynchronous conversions are delivered on the completion executor.
+   */
+
+  @Test
+  public void testAsynchronous()
+  {
+    final var model = new DialModel();
+    model.setValueConverter(new DialBoundedLongConverter(0L, 100L, 1L));
+
+    final var completions = new ConcurrentLinkedQueue<Runnable>();
+    model.setConversionAsynchronous(Runnable::run, completions::add);
+
+    final var changes = new ArrayList<DialModelChange>();
+    model.addListener((m, c) -> changes.add(c));
+
+    model.setRawValue(0.25);
+    assertEquals(0.0, model.getConvertedValue());
+    assertEquals(0.0, model.getExternalConvertedValue());
+    assertEquals(2, completions.size());
+
+    /*
+     * A newer value supersedes the queued conversions.
+     */
+
+    model.setRawValue(0.75);
+    while (!completions.isEmpty()) {
+      completions.poll().run();
+    }
+
+    assertEquals(75.0, model.getConvertedValue());
+    assertEquals(75.0, model.getExternalConvertedValue());
+    assertEquals(
+      List.of(
+        DialModelChange.VALUE,
+        DialModelChange.EXTERNAL_VALUE,
+        DialModelChange.VALUE,
+        DialModelChange.EXTERNAL_VALUE,
+        DialModelChange.VALUE_CONVERTED,
+        DialModelChange.EXTERNAL_VALUE_CONVERTED
+      ),
+      changes
+    );
+
+    model.setConversionSynchronous();
+    model.setRawValue(0.5);
+    assertEquals(50.0, model.getConvertedValue());
+  }
+
+  /**
+   * A failed asynchronous conversion is rethrown on the completion executor,
+   * and the converted value retains its previous value.
+   */
+
+  @Test
+  public void testAsynchronousFailure()
+  {
+    final var failure = new ArithmeticException("Failed!");
+    final var base = new DialBoundedDoubleConverter(0.0, 100.0, 1.0);
+    final var model = new DialModel();
+    model.setValueConverter(new DialValueConverterRealType()
+    {
+      @Override
+      public double convertToDial(
+        final double x)
+      {
+        return base.convertToDial(x);
+      }
+
+      @Override
+      public double convertFromDial(
+        final double x)
+      {
+        if (x > 0.5) {
+          throw failure;
+        }
+        return base.convertFromDial(x);
+      }
+
+      @Override
+      public double convertedNext(
+        final double x)
+      {
+        return base.convertedNext(x);
+      }
+
+      @Override
+      public double convertedPrevious(
+        final double x)
+      {
+        return base.convertedPrevious(x);
+      }
+    });
+
+    final var completions = new ConcurrentLinkedQueue<Runnable>();
+    model.setConversionAsynchronous(Runnable::run, completions::add);
+
+    model.setRawValueQuietly(0.25);
+    completions.poll().run();
+    assertEquals(25.0, model.getConvertedValue());
+
+    model.setRawValueQuietly(0.75);
+    final var ex =
+      assertThrows(IllegalStateException.class, completions.poll()::run);
+    assertSame(failure, ex.getCause());
+    assertEquals(25.0, model.getConvertedValue());
+    assertTrue(completions.isEmpty());
+  }
+
+  /**
+   * Switching to synchronous conversions only notifies listeners of
+   * converted values that changed.
+   */
+
+  @Test
+  public void testSynchronousUnchanged()
+  {
+    final var model = new DialModel();
+    model.setValueConverter(new DialBoundedLongConverter(0L, 100L, 1L));
+
+    final var completions = new ConcurrentLinkedQueue<Runnable>();
+    final var changes = new ArrayList<DialModelChange>();
+    model.addListener((m, c) -> changes.add(c));
+
+    model.setConversionSynchronous();
+    assertEquals(List.of(), changes);
+
+    model.setConversionAsynchronous(Runnable::run, completions::add);
+    model.setRawValue(0.25);
+    changes.clear();
+
+    model.setConversionSynchronous();
+    assertEquals(
+      List.of(
+        DialModelChange.VALUE_CONVERTED,
+        DialModelChange.EXTERNAL_VALUE_CONVERTED
+      ),
+      changes
+    );
+    assertEquals(25.0, model.getConvertedValue());
+
+    changes.clear();
+    model.setConversionSynchronous();
+    assertEquals(List.of(), changes);
+  }
+}
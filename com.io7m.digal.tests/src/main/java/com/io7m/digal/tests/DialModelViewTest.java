@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.model.DialModel;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialModelViewTest
+{
+  private DialControl dial0;
+  private DialControl dial1;
+
+  /**
+   * Dials viewing the same model observe each other's changes.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testShared(
+    final FxRobot robot)
+  {
+    final var seen = new ArrayList<Double>();
+
+    robot.interact(() -> {
+      final var model = new DialModel();
+      this.dial0.setModel(model);
+      this.dial1.setModel(model);
+      assertSame(model, this.dial0.model());
+
+      this.dial1.rawValue()
+        .addListener((o, x, y) -> seen.add(Double.valueOf(y.doubleValue())));
+
+      this.dial0.setRawValue(0.25);
+      assertEquals(0.25, this.dial1.getRawValue());
+      assertEquals(0.25, this.dial1.rawValue().get());
+
+      model.setRawValueQuietly(0.5);
+      assertEquals(0.5, this.dial0.internalRawValue().get());
+      assertEquals(0.25, this.dial0.rawValue().get());
+    });
+
+    assertEquals(1, seen.size());
+  }
+
+  /**
+   * Detached models retain their state, and dials reflect the state of
+   * newly attached models.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testReattach(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      final var models = new ArrayList<DialModel>();
+      for (int index = 0; index < 1000; ++index) {
+        final var model = new DialModel();
+        model.setRawValue((double) index / 1000.0);
+        models.add(model);
+      }
+
+      this.dial0.setModel(models.get(10));
+      assertEquals(0.01, this.dial0.rawValue().get());
+
+      this.dial0.setRawValue(0.75);
+      this.dial0.setModel(models.get(20));
+      assertEquals(0.02, this.dial0.rawValue().get());
+      assertEquals(0.75, models.get(10).getRawValue());
+
+      models.get(10).setRawValue(0.0);
+      assertEquals(0.02, this.dial0.getRawValue());
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial0 = new DialControl();
+    this.dial1 = new DialControl();
+    stage.setScene(new Scene(new HBox(this.dial0, this.dial1)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialMorph;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialMorphTest
+{
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private List<DialControl> dials;
+  private DialControl morphDial;
+
+  /**
+   * Linear morphs interpolate between adjacent vectors and only update
+   * dials whose values change.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testLinear(
+    final FxRobot robot)
+  {
+    final var changed = new int[3];
+    final var notifications = new int[1];
+
+    robot.interact(() -> {
+      final var morph = DialMorph.linear(
+        this.dials,
+        List.of(
+          new double[]{0.0, 0.0, 0.5},
+          new double[]{1.0, 100.0, 0.5},
+          new double[]{0.0, 50.0, 0.5}
+        )
+      );
+
+      this.dials.get(2)
+        .rawValue()
+        .addListener((o, x, y) -> ++notifications[0]);
+
+      morph.setPosition(0.25);
+      changed[0] = morph.applyNow();
+      assertEquals(0.5, this.dials.get(0).getRawValue(), 1.0e-9);
+      assertEquals(50.0, this.dials.get(1).getConvertedValue());
+      assertEquals(0.5, this.dials.get(2).getRawValue());
+
+      morph.setPosition(0.75);
+      changed[1] = morph.applyNow();
+      assertEquals(0.5, this.dials.get(0).getRawValue(), 1.0e-9);
+      assertEquals(75.0, this.dials.get(1).getConvertedValue());
+
+      changed[2] = morph.applyNow();
+    });
+
+    assertEquals(3, changed[0]);
+    assertEquals(1, changed[1]);
+    assertEquals(0, changed[2]);
+    assertEquals(1, notifications[0]);
+  }
+
+  /**
+   * Bilinear morphs interpolate across four corners, and may be driven by
+   * dials, in which case they update on the next pulse.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBilinearBound(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var y = new DialControl();
+
+    robot.interact(() -> {
+      final var morph = DialMorph.bilinear(
+        this.dials,
+        new double[]{0.0, 0.0, 0.0},
+        new double[]{1.0, 0.0, 0.0},
+        new double[]{0.0, 100.0, 0.0},
+        new double[]{1.0, 100.0, 1.0}
+      );
+      morph.bindPosition(this.morphDial, y);
+      this.morphDial.setRawValue(0.5);
+      y.setRawValue(0.5);
+    });
+
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.dials.get(2).getRawValue() == 0.25;
+    });
+
+    assertEquals(0.5, this.dials.get(0).getRawValue());
+    assertEquals(50.0, this.dials.get(1).getConvertedValue());
+    assertEquals(0.25, this.dials.get(2).getRawValue());
+  }
+
+  /**
+   * Vectors must match the dials.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testMismatched(
+    final FxRobot robot)
+  {
+    robot.interact(() -> {
+      assertThrows(IllegalArgumentException.class, () -> {
+        DialMorph.linear(this.dials, List.of(new double[3], new double[2]));
+      });
+      assertThrows(IllegalArgumentException.class, () -> {
+        DialMorph.linear(this.dials, List.of(new double[3]));
+      });
+    });
+  }
+
+  /**
+   * Sweeping a morph across many dials does not allocate.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testNoAllocation(
+    final FxRobot robot)
+  {
+    final var allocated = new long[1];
+
+    robot.interact(() -> {
+      final var many = new ArrayList<DialControl>();
+      final var a = new double[300];
+      final var b = new double[300];
+      for (int index = 0; index < 300; ++index) {
+        many.add(new DialControl());
+        b[index] = (double) index / 300.0;
+      }
+
+      final var morph = DialMorph.linear(many, List.of(a, b));
+      for (int index = 0; index < 2000; ++index) {
+        morph.setPosition((double) (index % 100) / 100.0);
+        morph.applyNow();
+      }
+
+      final var before = THREADS.getCurrentThreadAllocatedBytes();
+      for (int index = 0; index < 1000; ++index) {
+        morph.setPosition((double) (index % 100) / 100.0);
+        morph.applyNow();
+      }
+      allocated[0] = THREADS.getCurrentThreadAllocatedBytes() - before;
+    });
+
+    assertEquals(0L, allocated[0]);
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dials = List.of(
+      new DialControl(),
+      new DialControl(),
+      new DialControl()
+    );
+    this.dials.get(1)
+      .setValueConverter(new DialBoundedLongConverter(0L, 100L, 1L));
+
+    this.morphDial = new DialControl();
+
+    final var box = new HBox(this.dials.toArray(DialControl[]::new));
+    box.getChildren().add(this.morphDial);
+    stage.setScene(new Scene(box));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
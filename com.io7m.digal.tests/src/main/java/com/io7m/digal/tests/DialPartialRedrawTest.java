@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import javafx.scene.Scene;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialPartialRedrawTest
+{
+  private static final double DIAL_SIZE = 400.0;
+
+  private DialControl partial;
+  private DialControl full;
+  private DialControl partialWide;
+  private DialControl fullWide;
+
+  /*
+   * Partial redraws are composited through a clip, and the rasterizer may
+   * round anti-aliased edge pixels slightly differently than it does for an
+   * unclipped redraw. Only pixels that differ visibly are counted.
+   */
+
+  private static final int CHANNEL_TOLERANCE = 32;
+
+  private static int channelDifference(
+    final int p,
+    final int q)
+  {
+    int difference = 0;
+    for (int shift = 0; shift < 32; shift += 8) {
+      final var cp = (p >>> shift) & 0xff;
+      final var cq = (q >>> shift) & 0xff;
+      difference = Math.max(difference, Math.abs(cp - cq));
+    }
+    return difference;
+  }
+
+  private static int differingPixels(
+    final WritableImage a,
+    final WritableImage b)
+  {
+    final var ra = a.getPixelReader();
+    final var rb = b.getPixelReader();
+    final var w = (int) a.getWidth();
+    final var h = (int) a.getHeight();
+
+    int count = 0;
+    for (int y = 0; y < h; ++y) {
+      for (int x = 0; x < w; ++x) {
+        final var p = ra.getArgb(x, y);
+        final var q = rb.getArgb(x, y);
+        if (channelDifference(p, q) > CHANNEL_TOLERANCE) {
+          ++count;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Small value changes are drawn as partial redraws, and the result is
+   * visually identical to a full redraw.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPartialMatchesFull(
+    final FxRobot robot)
+    throws Exception
+  {
+    checkPartialMatchesFull(robot, this.partial, this.full);
+  }
+
+  /**
+   * Partial redraws of a dial that is wider than it is tall are visually
+   * identical to a full redraw. The indicator is a circle whose radius
+   * depends on the width, and so extends further vertically than the
+   * rest of the dial.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPartialMatchesFullWide(
+    final FxRobot robot)
+    throws Exception
+  {
+    checkPartialMatchesFull(robot, this.partialWide, this.fullWide);
+  }
+
+  private static void checkPartialMatchesFull(
+    final FxRobot robot,
+    final DialControl partial,
+    final DialControl full)
+    throws Exception
+  {
+    final var file = Files.createTempFile("digal", ".jfr");
+
+    try (var recording = new Recording()) {
+      recording.enable("com.io7m.digal.DialRedraw");
+      recording.start();
+
+      for (int index = 0; index <= 40; ++index) {
+        final var value = 0.3 + ((double) index / 200.0);
+        robot.interact(() -> partial.setRawValue(value));
+        WaitForAsyncUtils.waitForFxEvents();
+      }
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    final var events = RecordingFile.readAllEvents(file);
+    Files.deleteIfExists(file);
+
+    assertTrue(
+      events.stream()
+        .filter(e -> e.getEventType().getName().equals("com.io7m.digal.DialRedraw"))
+        .anyMatch(e -> e.getBoolean("partial"))
+    );
+
+    /*
+     * Changing the tick count forces a full redraw of the reference dial.
+     */
+
+    robot.interact(() -> {
+      full.setRawValue(0.5);
+      full.setTickCount(3);
+      full.setTickCount(2);
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    final var images = new WritableImage[2];
+    robot.interact(() -> {
+      images[0] = partial.snapshot(null, null);
+      images[1] = full.snapshot(null, null);
+    });
+
+    assertEquals(0, differingPixels(images[0], images[1]));
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.partial = new DialControl();
+    this.partial.setMinSize(DIAL_SIZE, DIAL_SIZE);
+    this.partial.setMaxSize(DIAL_SIZE, DIAL_SIZE);
+    this.full = new DialControl();
+    this.full.setMinSize(DIAL_SIZE, DIAL_SIZE);
+    this.full.setMaxSize(DIAL_SIZE, DIAL_SIZE);
+
+    this.partialWide = new DialControl();
+    this.partialWide.setMinSize(DIAL_SIZE, DIAL_SIZE / 2.0);
+    this.partialWide.setMaxSize(DIAL_SIZE, DIAL_SIZE / 2.0);
+    this.fullWide = new DialControl();
+    this.fullWide.setMinSize(DIAL_SIZE, DIAL_SIZE / 2.0);
+    this.fullWide.setMaxSize(DIAL_SIZE, DIAL_SIZE / 2.0);
+
+    stage.setScene(new Scene(new VBox(
+      new HBox(this.partial, this.full),
+      new HBox(this.partialWide, this.fullWide)
+    )));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
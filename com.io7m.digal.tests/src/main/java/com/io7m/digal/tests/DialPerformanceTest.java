@@ -0,0 +1,539 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialControlLabelled;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ArcType;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testfx.api.FxToolkit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>A headless frame-time regression suite.</p>
+ *
+ * <p>The suite builds scenes containing large numbers of dials, drives
+ * synthetic input into them once per pulse, and measures the FX application
+ * thread time taken by each frame: from the start of the pulse (when the
+ * synthetic input is delivered) to the point at which the pulse has
+ * finished synchronizing the scene graph.</p>
+ *
+ * <p>Absolute frame times depend entirely on the machine running the suite,
+ * so they are not compared directly. Before any scenario runs, the suite
+ * measures a calibration scenario in the same JVM: a scene containing
+ * {@link #CALIBRATION_COUNT} plain canvases that are redrawn on every pulse
+ * with the same kinds of drawing operations that the dials use. The
+ * calibration does not use any digal code, so a regression in the dials
+ * cannot hide itself by slowing down the calibration. The median frame time
+ * of each scenario is divided by the median frame time of the calibration,
+ * and the resulting ratio is compared against a stored baseline ratio.</p>
+ *
+ * <p>The suite only runs when the {@code digal.performance} system property
+ * is {@code true}, which is the case when the {@code performance} Maven
+ * profile is active:</p>
+ *
+ * <pre>
+ * $ mvn -P performance -Dtest=DialPerformanceTest test
+ * </pre>
+ *
+ * <p>The measured ratios are written to
+ * {@code target/performance-results.properties}, which may be copied over
+ * the baseline file to accept new baselines.</p>
+ */
+
+@EnabledIfSystemProperty(named = "digal.performance", matches = "true")
+public final class DialPerformanceTest
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(DialPerformanceTest.class);
+
+  private static final int WARMUP_FRAMES = 30;
+  private static final int MEASURED_FRAMES = 120;
+  private static final int EVENTS_PER_FRAME = 4;
+  private static final double DIAL_SIZE = 32.0;
+  private static final int CALIBRATION_COUNT = 1_000;
+  private static final String CALIBRATION = "CALIBRATION";
+  private static final Path RESULTS =
+    Path.of("target", "performance-results.properties");
+
+  private static Properties BASELINES;
+  private static Properties RESULTS_NOW;
+  private static long CALIBRATION_MEDIAN;
+
+  enum Kind
+  {
+    DIAL,
+    DIAL_LABELLED,
+
+    /**
+     * Plain canvases. This is only used for calibration.
+     */
+
+    CANVAS
+  }
+
+  enum Driver
+  {
+    DRAG,
+    SCROLL,
+    EXTERNAL
+  }
+
+  @BeforeAll
+  public static void setup()
+    throws Exception
+  {
+    FxToolkit.registerPrimaryStage();
+
+    BASELINES = new Properties();
+    try (InputStream stream =
+           DialPerformanceTest.class.getResourceAsStream(
+             "/com/io7m/digal/tests/performance-baselines.properties")) {
+      if (stream != null) {
+        BASELINES.load(stream);
+      }
+    }
+
+    RESULTS_NOW = new Properties();
+    if (Files.exists(RESULTS)) {
+      try (InputStream stream = Files.newInputStream(RESULTS)) {
+        RESULTS_NOW.load(stream);
+      }
+    }
+
+    final var calibration =
+      new Scenario(Kind.CANVAS, CALIBRATION_COUNT, Driver.EXTERNAL);
+
+    CALIBRATION_MEDIAN = median(measure(calibration));
+    LOG.info("{}: median {}us", CALIBRATION, CALIBRATION_MEDIAN / 1_000L);
+  }
+
+  private static long[] measure(
+    final Scenario scenario)
+    throws Exception
+  {
+    FxToolkit.setupStage(scenario::show);
+    final long[] frames;
+    try {
+      frames = scenario.run().get(10L, TimeUnit.MINUTES);
+    } finally {
+      FxToolkit.setupStage(Stage::hide);
+    }
+    Arrays.sort(frames);
+    return frames;
+  }
+
+  private static long median(
+    final long[] frames)
+  {
+    return frames[frames.length / 2];
+  }
+
+  private static double threshold()
+  {
+    return Double.parseDouble(
+      System.getProperty("digal.performance.threshold", "1.5")
+    );
+  }
+
+  /**
+   * @return A test for each combination of dial type, dial count, and input
+   */
+
+  @TestFactory
+  public List<DynamicTest> testFrameTimes()
+  {
+    final var tests = new ArrayList<DynamicTest>();
+    for (final var kind : List.of(Kind.DIAL, Kind.DIAL_LABELLED)) {
+      for (final var count : List.of(100, 1_000, 10_000)) {
+        for (final var driver : Driver.values()) {
+          final var name =
+            "%s.%d.%s".formatted(kind, count, driver);
+          tests.add(DynamicTest.dynamicTest(
+            name,
+            () -> runScenario(name, kind, count.intValue(), driver)
+          ));
+        }
+      }
+    }
+    return tests;
+  }
+
+  private static void runScenario(
+    final String name,
+    final Kind kind,
+    final int count,
+    final Driver driver)
+    throws Exception
+  {
+    final var frames =
+      measure(new Scenario(kind, count, driver));
+    final var median =
+      median(frames);
+    final var p95 =
+      frames[(frames.length * 95) / 100];
+    final var ratio =
+      (double) median / (double) CALIBRATION_MEDIAN;
+
+    LOG.info(
+      "{}: median {}us, p95 {}us, ratio {}",
+      name,
+      median / 1_000L,
+      p95 / 1_000L,
+      "%.4f".formatted(ratio)
+    );
+    saveResult(name, "%.4f".formatted(ratio));
+
+    final var baselineText = BASELINES.getProperty(name);
+    if (baselineText == null) {
+      LOG.warn("{}: no baseline recorded; not checking", name);
+      return;
+    }
+
+    final var baseline = Double.parseDouble(baselineText);
+    final var limit = baseline * threshold();
+    assertTrue(
+      ratio <= limit,
+      "%s: frame time ratio %.4f exceeds %.4f (baseline %.4f)"
+        .formatted(name, ratio, limit, baseline)
+    );
+  }
+
+  private static void saveResult(
+    final String name,
+    final String value)
+    throws IOException
+  {
+    RESULTS_NOW.setProperty(name, value);
+    Files.createDirectories(RESULTS.getParent());
+    try (OutputStream stream = Files.newOutputStream(RESULTS)) {
+      RESULTS_NOW.store(
+        stream,
+        "Median frame times relative to the %s median (%dus)"
+          .formatted(CALIBRATION, CALIBRATION_MEDIAN / 1_000L)
+      );
+    }
+  }
+
+  private static MouseEvent mouseEvent(
+    final EventType<MouseEvent> type,
+    final double y)
+  {
+    return new MouseEvent(
+      type,
+      16.0,
+      y,
+      16.0,
+      y,
+      MouseButton.PRIMARY,
+      1,
+      false,
+      false,
+      false,
+      false,
+      true,
+      false,
+      false,
+      false,
+      false,
+      false,
+      null
+    );
+  }
+
+  private static ScrollEvent scrollEvent(
+    final double deltaY)
+  {
+    return new ScrollEvent(
+      ScrollEvent.SCROLL,
+      16.0,
+      16.0,
+      16.0,
+      16.0,
+      false,
+      false,
+      false,
+      false,
+      false,
+      false,
+      0.0,
+      deltaY,
+      0.0,
+      deltaY,
+      ScrollEvent.HorizontalTextScrollUnits.NONE,
+      0.0,
+      ScrollEvent.VerticalTextScrollUnits.NONE,
+      0.0,
+      0,
+      null
+    );
+  }
+
+  /**
+   * A single scenario: a scene full of dials, and a driver that delivers
+   * synthetic input at the start of each pulse.
+   */
+
+  private static final class Scenario
+  {
+    private final Kind kind;
+    private final int count;
+    private final Driver driver;
+    private final List<DialControl> dials;
+    private final List<Canvas> canvases;
+    private final long[] frames;
+    private final CompletableFuture<long[]> future;
+    private final Runnable pulseListener;
+    private Scene scene;
+    private int frame;
+    private long frameStart;
+    private boolean framePending;
+
+    Scenario(
+      final Kind inKind,
+      final int inCount,
+      final Driver inDriver)
+    {
+      this.kind = inKind;
+      this.count = inCount;
+      this.driver = inDriver;
+      this.dials = new ArrayList<>(inCount);
+      this.canvases = new ArrayList<>(inCount);
+      this.frames = new long[MEASURED_FRAMES];
+      this.future = new CompletableFuture<>();
+      this.pulseListener = this::onPulseLaidOut;
+    }
+
+    private static Node canvasOf(
+      final DialControl dial)
+    {
+      return dial.getChildrenUnmodifiable().get(0);
+    }
+
+    void show(
+      final Stage stage)
+    {
+      final var pane = new FlowPane();
+      for (int index = 0; index < this.count; ++index) {
+        pane.getChildren().add(this.createDial());
+      }
+
+      this.scene = new Scene(pane, 1024.0, 768.0);
+      stage.setScene(this.scene);
+      stage.show();
+
+      /*
+       * The post-layout listener is registered after the dials have
+       * registered their own, so it runs after the dials have redrawn.
+       * The frame ends when the pulse (including the synchronization of
+       * the scene graph) has completed, which is the earliest point at
+       * which a runnable submitted during the pulse can run.
+       */
+
+      this.scene.addPostLayoutPulseListener(this.pulseListener);
+    }
+
+    private Node createDial()
+    {
+      return switch (this.kind) {
+        case DIAL -> {
+          final var dial = new DialControl();
+          dial.setPrefSize(DIAL_SIZE, DIAL_SIZE);
+          dial.setMinSize(DIAL_SIZE, DIAL_SIZE);
+          dial.setMaxSize(DIAL_SIZE, DIAL_SIZE);
+          this.dials.add(dial);
+          yield dial;
+        }
+        case DIAL_LABELLED -> {
+          final var dial = new DialControlLabelled("D");
+          dial.setPrefWidth(DIAL_SIZE * 2.0);
+          this.dials.add(dial.dial());
+          yield dial;
+        }
+        case CANVAS -> {
+          final var canvas = new Canvas(DIAL_SIZE, DIAL_SIZE);
+          this.canvases.add(canvas);
+          yield canvas;
+        }
+      };
+    }
+
+    CompletableFuture<long[]> run()
+    {
+      Platform.runLater(() -> {
+        if (this.driver == Driver.DRAG) {
+          Event.fireEvent(
+            canvasOf(this.dials.get(0)),
+            mouseEvent(MouseEvent.MOUSE_PRESSED, 16.0)
+          );
+        }
+
+        new AnimationTimer()
+        {
+          @Override
+          public void handle(
+            final long now)
+          {
+            if (Scenario.this.future.isDone()) {
+              this.stop();
+              return;
+            }
+            Scenario.this.onPulseStarted();
+          }
+        }.start();
+      });
+      return this.future;
+    }
+
+    private void onPulseStarted()
+    {
+      if (this.framePending) {
+        return;
+      }
+
+      this.frameStart = System.nanoTime();
+      this.framePending = true;
+
+      switch (this.driver) {
+        case DRAG -> this.driveDrag();
+        case SCROLL -> this.driveScroll();
+        case EXTERNAL -> this.driveExternal();
+      }
+    }
+
+    private void onPulseLaidOut()
+    {
+      if (!this.framePending) {
+        return;
+      }
+
+      Platform.runLater(() -> {
+        final var time = System.nanoTime() - this.frameStart;
+        final var index = this.frame - WARMUP_FRAMES;
+        if (index >= 0) {
+          this.frames[index] = time;
+        }
+        ++this.frame;
+        this.framePending = false;
+
+        if (this.frame == WARMUP_FRAMES + MEASURED_FRAMES) {
+          this.scene.removePostLayoutPulseListener(this.pulseListener);
+          if (this.driver == Driver.DRAG) {
+            Event.fireEvent(
+              canvasOf(this.dials.get(0)),
+              mouseEvent(MouseEvent.MOUSE_RELEASED, 16.0)
+            );
+          }
+          this.future.complete(this.frames);
+        }
+      });
+    }
+
+    private void driveDrag()
+    {
+      final var target = canvasOf(this.dials.get(0));
+      for (int index = 0; index < EVENTS_PER_FRAME; ++index) {
+        final var y = ((this.frame + index) & 1) == 0 ? 8.0 : 24.0;
+        Event.fireEvent(target, mouseEvent(MouseEvent.MOUSE_DRAGGED, y));
+      }
+    }
+
+    private void driveScroll()
+    {
+      final var target =
+        canvasOf(this.dials.get(this.frame % this.count));
+      for (int index = 0; index < EVENTS_PER_FRAME; ++index) {
+        final var delta = ((this.frame / 10) & 1) == 0 ? 10.0 : -10.0;
+        Event.fireEvent(target, scrollEvent(delta));
+      }
+    }
+
+    private void driveExternal()
+    {
+      final var value = (double) (this.frame % 100) / 100.0;
+      for (final var dial : this.dials) {
+        dial.setRawValue(value);
+      }
+      for (final var canvas : this.canvases) {
+        drawCalibration(canvas, value);
+      }
+    }
+
+    /**
+     * Draw something roughly equivalent to a dial, without using any
+     * digal code.
+     */
+
+    private static void drawCalibration(
+      final Canvas canvas,
+      final double value)
+    {
+      final var g = canvas.getGraphicsContext2D();
+      final var angle = Math.toRadians(225.0 - (value * 270.0));
+      final var c = DIAL_SIZE / 2.0;
+
+      g.clearRect(0.0, 0.0, DIAL_SIZE, DIAL_SIZE);
+      g.setFill(Color.GREY);
+      g.fillOval(2.0, 2.0, DIAL_SIZE - 4.0, DIAL_SIZE - 4.0);
+      g.setStroke(Color.ORANGE);
+      g.setLineWidth(2.0);
+      g.strokeArc(
+        2.0,
+        2.0,
+        DIAL_SIZE - 4.0,
+        DIAL_SIZE - 4.0,
+        225.0,
+        -(value * 270.0),
+        ArcType.OPEN
+      );
+      g.setStroke(Color.WHITE);
+      g.strokeLine(c, c, c + Math.cos(angle) * c, c - Math.sin(angle) * c);
+    }
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialPresetLibrary;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialPresetLibraryTest
+{
+  private List<DialControl> dials;
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory = Files.createTempDirectory("digal-presets");
+    this.file = this.directory.resolve("presets.bin");
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws IOException
+  {
+    Files.deleteIfExists(this.file);
+    Files.deleteIfExists(this.directory);
+  }
+
+  /**
+   * Presets survive saving and loading, and recalling a preset only
+   * touches dials whose values differ.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStoreRecall(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var notifications = new int[3];
+    final var changed = new int[3];
+
+    robot.interact(() -> {
+      for (int index = 0; index < 3; ++index) {
+        final var slot = index;
+        this.dials.get(index)
+          .rawValue()
+          .addListener((o, x, y) -> ++notifications[slot]);
+      }
+
+      this.dials.get(0).setRawValue(0.3);
+      this.dials.get(1).setConvertedValue(42.0);
+      this.dials.get(2).setRawValue(1.0);
+
+      try {
+        final var library = DialPresetLibrary.create();
+        library.store("A", this.dials);
+        library.save(this.file);
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+
+      for (final var dial : this.dials) {
+        dial.setRawValue(0.0);
+      }
+    });
+
+    robot.interact(() -> {
+      try {
+        final var library = DialPresetLibrary.open(this.file);
+        assertEquals(List.of("A"), library.names());
+        assertArrayEquals(
+          new double[]{0.3, 42.0, 1.0},
+          library.values("A")
+        );
+
+        notifications[0] = 0;
+        notifications[1] = 0;
+        notifications[2] = 0;
+        changed[0] = library.recall("A", this.dials);
+        changed[1] = library.recall("A", this.dials);
+
+        this.dials.get(1).setConvertedValue(7.0);
+        notifications[1] = 0;
+        changed[2] = library.recall("A", this.dials);
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    assertEquals(3, changed[0]);
+    assertEquals(0, changed[1]);
+    assertEquals(1, changed[2]);
+    assertEquals(1, notifications[0]);
+    assertEquals(1, notifications[1]);
+    assertEquals(1, notifications[2]);
+
+    assertEquals(0.3, this.dials.get(0).getConvertedValue(), 1.0e-12);
+    assertEquals(42.0, this.dials.get(1).getConvertedValue());
+    assertEquals(1.0, this.dials.get(2).getConvertedValue());
+  }
+
+  /**
+   * Large libraries can be browsed through the index.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBrowse(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var library = DialPresetLibrary.create();
+    robot.interact(() -> {
+      for (int index = 0; index < 5000; ++index) {
+        this.dials.get(1).setConvertedValue((double) (index % 100));
+        library.store("preset-%05d".formatted(index), this.dials);
+      }
+    });
+
+    library.save(this.file);
+
+    /*
+     * A preset of two integral values and one real value occupies at most
+     * twelve bytes, plus the index entry.
+     */
+
+    assertTrue(Files.size(this.file) < 5000L * (12L + 16L) + 16L);
+
+    final var loaded = DialPresetLibrary.open(this.file);
+    assertEquals(5000, loaded.size());
+    assertEquals(
+      List.of("preset-02500", "preset-02501", "preset-02502"),
+      loaded.names("preset-025", 3)
+    );
+    assertEquals(99.0, loaded.values("preset-04999")[1]);
+
+    assertTrue(loaded.remove("preset-00000"));
+    assertFalse(loaded.contains("preset-00000"));
+    assertThrows(IllegalArgumentException.class, () -> loaded.values("x"));
+  }
+
+  /**
+   * Files that are not preset libraries are rejected.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testNotLibrary()
+    throws Exception
+  {
+    Files.write(this.file, new byte[64]);
+    assertThrows(IOException.class, () -> DialPresetLibrary.open(this.file));
+  }
+
+  /**
+   * Truncated or corrupted libraries are rejected with I/O exceptions.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testTruncated(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var library = DialPresetLibrary.create();
+    robot.interact(() -> {
+      library.store("A", this.dials);
+      library.store("B", this.dials);
+    });
+    library.save(this.file);
+
+    final var bytes = Files.readAllBytes(this.file);
+    for (int size = 0; size < bytes.length; ++size) {
+      Files.write(this.file, Arrays.copyOf(bytes, size));
+      assertThrows(IOException.class, () -> DialPresetLibrary.open(this.file));
+    }
+
+    /*
+     * A preset count far larger than the file must not be allocated.
+     */
+
+    final var corrupt = bytes.clone();
+    ByteBuffer.wrap(corrupt).putInt(12, Integer.MAX_VALUE);
+    Files.write(this.file, corrupt);
+    assertThrows(IOException.class, () -> DialPresetLibrary.open(this.file));
+
+    /*
+     * A record offset beyond the end of the file is rejected.
+     */
+
+    final var offset = bytes.clone();
+    offset[16 + 2] = (byte) 0x7f;
+    Files.write(this.file, offset);
+    assertThrows(IOException.class, () -> DialPresetLibrary.open(this.file));
+  }
+
+  /**
+   * A library can be saved over the file from which it, or another library
+   * that is still in use, was opened.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSaveOverOpen(
+    final FxRobot robot)
+    throws Exception
+  {
+    robot.interact(() -> {
+      try {
+        this.dials.get(0).setRawValue(0.25);
+        final var first = DialPresetLibrary.create();
+        first.store("A", this.dials);
+        first.save(this.file);
+
+        final var opened = DialPresetLibrary.open(this.file);
+        this.dials.get(0).setRawValue(0.75);
+        opened.store("B", this.dials);
+        opened.save(this.file);
+
+        final var reopened = DialPresetLibrary.open(this.file);
+        assertEquals(List.of("A", "B"), reopened.names());
+        assertEquals(0.25, reopened.values("A")[0]);
+        assertEquals(0.75, reopened.values("B")[0]);
+        assertEquals(0.25, opened.values("A")[0]);
+
+        this.dials.get(0).setRawValue(0.0);
+        assertEquals(1, opened.recall("A", this.dials));
+        assertEquals(0.25, this.dials.get(0).getRawValue());
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dials = List.of(
+      new DialControl(),
+      new DialControl(),
+      new DialControl()
+    );
+    this.dials.get(1)
+      .setValueConverter(new DialBoundedLongConverter(0L, 100L, 1L));
+
+    stage.setScene(new Scene(new HBox(this.dials.toArray(DialControl[]::new))));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialPublisher;
+import com.io7m.digal.core.DialValueEvent;
+import com.io7m.digal.model.DialModelChange;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialPublisherTest
+{
+  private DialControl dial0;
+  private DialControl dial1;
+  private ArrayList<Runnable> tasks;
+
+  private void runTasks()
+  {
+    while (!this.tasks.isEmpty()) {
+      this.tasks.remove(0).run();
+    }
+  }
+
+  private static class Recorder
+    implements Flow.Subscriber<DialValueEvent>
+  {
+    private final long initial;
+    private final ConcurrentLinkedQueue<DialValueEvent> events;
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+    private volatile boolean completed;
+
+    Recorder(
+      final long inInitial)
+    {
+      this.initial = inInitial;
+      this.events = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void onSubscribe(
+      final Flow.Subscription inSubscription)
+    {
+      this.subscription = inSubscription;
+      if (this.initial > 0L) {
+        inSubscription.request(this.initial);
+      }
+    }
+
+    @Override
+    public void onNext(
+      final DialValueEvent item)
+    {
+      this.events.add(item);
+    }
+
+    @Override
+    public void onError(
+      final Throwable throwable)
+    {
+      this.error = throwable;
+    }
+
+    @Override
+    public void onComplete()
+    {
+      this.completed = true;
+    }
+
+    List<DialValueEvent> events()
+    {
+      return List.copyOf(this.events);
+    }
+  }
+
+  /**
+   * Changes are delivered on demand, and changes made while there is no
+   * demand are conflated to the latest value of each dial.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testConflated(
+    final FxRobot robot)
+  {
+    final var recorder = new Recorder(1L);
+    final var publisher = new DialPublisher[1];
+
+    robot.interact(() -> {
+      publisher[0] = DialPublisher.create(
+        List.of(this.dial0, this.dial1),
+        DialModelChange.EXTERNAL_VALUE,
+        this.tasks::add);
+      publisher[0].subscribe(recorder);
+    });
+    this.runTasks();
+    assertEquals(1, publisher[0].subscriberCount());
+
+    robot.interact(() -> {
+      for (int index = 1; index <= 5; ++index) {
+        this.dial0.setRawValue((double) index / 10.0);
+      }
+      this.dial1.setRawValue(0.7);
+      this.dial1.setRawValue(0.8);
+    });
+    this.runTasks();
+
+    assertEquals(1, recorder.events().size());
+    assertEquals(0, recorder.events().get(0).index());
+    assertEquals(0.5, recorder.events().get(0).value());
+
+    robot.interact(() -> this.dial0.setRawValue(0.9));
+    recorder.subscription.request(10L);
+    this.runTasks();
+
+    final var events = recorder.events();
+    assertEquals(3, events.size());
+    assertEquals(1, events.get(1).index());
+    assertEquals(this.dial1, events.get(1).dial());
+    assertEquals(0.8, events.get(1).value());
+    assertEquals(0, events.get(2).index());
+    assertEquals(0.9, events.get(2).value());
+
+    robot.interact(() -> this.dial1.setRawValue(0.1));
+    this.runTasks();
+    assertEquals(4, recorder.events().size());
+    assertEquals(0.1, recorder.events().get(3).value());
+  }
+
+  /**
+   * Subscribers are signalled on virtual threads by default, and see the
+   * latest value of each dial.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testVirtualThreads(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var recorder = new Recorder(Long.MAX_VALUE);
+    final var publisher = new DialPublisher[1];
+
+    robot.interact(() -> {
+      publisher[0] = DialPublisher.create(
+        this.dial0, DialModelChange.EXTERNAL_VALUE);
+      publisher[0].subscribe(recorder);
+      for (int index = 1; index <= 1000; ++index) {
+        this.dial0.setRawValue((double) index / 1000.0);
+      }
+    });
+
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      final var events = recorder.events();
+      return !events.isEmpty() && events.getLast().value() == 1.0;
+    });
+
+    final var events = recorder.events();
+    for (int index = 1; index < events.size(); ++index) {
+      assertTrue(events.get(index - 1).value() < events.get(index).value());
+    }
+    robot.interact(publisher[0]::close);
+  }
+
+  /**
+   * Non-positive requests are errors.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testInvalidRequest(
+    final FxRobot robot)
+  {
+    final var recorder = new Recorder(0L);
+    final var publisher = new DialPublisher[1];
+
+    robot.interact(() -> {
+      publisher[0] = DialPublisher.create(
+        List.of(this.dial0), DialModelChange.EXTERNAL_VALUE, this.tasks::add);
+      publisher[0].subscribe(recorder);
+    });
+    this.runTasks();
+
+    recorder.subscription.request(0L);
+    this.runTasks();
+
+    assertInstanceOf(IllegalArgumentException.class, recorder.error);
+    assertEquals(0, publisher[0].subscriberCount());
+  }
+
+  /**
+   * Cancelled subscribers receive nothing further.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testCancel(
+    final FxRobot robot)
+  {
+    final var recorder = new Recorder(10L);
+    final var publisher = new DialPublisher[1];
+
+    robot.interact(() -> {
+      publisher[0] = DialPublisher.create(
+        List.of(this.dial0), DialModelChange.EXTERNAL_VALUE, this.tasks::add);
+      publisher[0].subscribe(recorder);
+    });
+    this.runTasks();
+
+    recorder.subscription.cancel();
+    robot.interact(() -> this.dial0.setRawValue(0.5));
+    this.runTasks();
+
+    assertEquals(0, recorder.events().size());
+    assertEquals(0, publisher[0].subscriberCount());
+  }
+
+  /**
+   * A subscriber that throws from onNext is unsubscribed and receives
+   * nothing further, and the exception reaches the executor.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testSubscriberThrows(
+    final FxRobot robot)
+  {
+    final var recorder = new Recorder(10L)
+    {
+      @Override
+      public void onNext(
+        final DialValueEvent item)
+      {
+        super.onNext(item);
+        throw new IllegalStateException("Failed!");
+      }
+    };
+    final var publisher = new DialPublisher[1];
+
+    robot.interact(() -> {
+      publisher[0] = DialPublisher.create(
+        List.of(this.dial0), DialModelChange.EXTERNAL_VALUE, this.tasks::add);
+      publisher[0].subscribe(recorder);
+    });
+    this.runTasks();
+
+    robot.interact(() -> this.dial0.setRawValue(0.5));
+    assertThrows(IllegalStateException.class, this::runTasks);
+    assertEquals(0, publisher[0].subscriberCount());
+
+    robot.interact(() -> this.dial0.setRawValue(0.25));
+    this.runTasks();
+    assertEquals(1, recorder.events().size());
+    assertEquals(0, publisher[0].subscriberCount());
+  }
+
+  /**
+   * Closing a publisher completes its subscribers, and late subscribers are
+   * completed immediately.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testClose(
+    final FxRobot robot)
+  {
+    final var early = new Recorder(10L);
+    final var late = new Recorder(10L);
+    final var publisher = new DialPublisher[1];
+
+    robot.interact(() -> {
+      publisher[0] = DialPublisher.create(
+        List.of(this.dial0), DialModelChange.EXTERNAL_VALUE, this.tasks::add);
+      publisher[0].subscribe(early);
+    });
+    this.runTasks();
+
+    robot.interact(() -> {
+      publisher[0].close();
+      this.dial0.setRawValue(0.5);
+      publisher[0].subscribe(late);
+    });
+    this.runTasks();
+
+    assertTrue(early.completed);
+    assertTrue(late.completed);
+    assertTrue(late.subscription != null);
+    assertEquals(0, early.events().size());
+    assertEquals(0, publisher[0].subscriberCount());
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.tasks = new ArrayList<>();
+    this.dial0 = new DialControl();
+    this.dial1 = new DialControl();
+    stage.setScene(new Scene(new HBox(this.dial0, this.dial1)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialSmoother;
+import com.io7m.digal.core.DialSmoothingCurve;
+import com.io7m.digal.core.DialSnapshotGroup;
+import com.io7m.digal.model.DialModelChange;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialSmootherTest
+{
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private DialControl dial0;
+  private DialControl dial1;
+
+  private DialSmoother smoother(
+    final FxRobot robot,
+    final DialSmoothingCurve curve,
+    final int rampFrames)
+  {
+    final var group = new DialSnapshotGroup[1];
+    robot.interact(() -> {
+      group[0] = DialSnapshotGroup.create(
+        List.of(this.dial0, this.dial1), DialModelChange.EXTERNAL_VALUE);
+    });
+    return DialSmoother.create(group[0], curve, rampFrames);
+  }
+
+  /**
+   * Linear ramps move in equal steps and end exactly on the target.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testLinear(
+    final FxRobot robot)
+  {
+    final var smoother = this.smoother(robot, DialSmoothingCurve.LINEAR, 4);
+    final var outputs = new double[2][6];
+
+    smoother.process(outputs, 6);
+    assertArrayEquals(new double[6], outputs[0]);
+
+    robot.interact(() -> this.dial0.setRawValue(1.0));
+    smoother.process(outputs, 6);
+
+    assertArrayEquals(
+      new double[]{0.25, 0.5, 0.75, 1.0, 1.0, 1.0}, outputs[0]);
+    assertArrayEquals(new double[6], outputs[1]);
+    assertFalse(smoother.isRamping(0));
+  }
+
+  /**
+   * Targets that change partway through a ramp start a new ramp from the
+   * current value.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testRetarget(
+    final FxRobot robot)
+  {
+    final var smoother = this.smoother(robot, DialSmoothingCurve.LINEAR, 4);
+    final var outputs = new double[2][2];
+
+    robot.interact(() -> this.dial0.setRawValue(1.0));
+    smoother.process(outputs, 2);
+    assertArrayEquals(new double[]{0.25, 0.5}, outputs[0]);
+    assertTrue(smoother.isRamping(0));
+
+    robot.interact(() -> this.dial0.setRawValue(0.0));
+    smoother.process(outputs, 2);
+    assertArrayEquals(new double[]{0.375, 0.25}, outputs[0]);
+  }
+
+  /**
+   * Exponential ramps move in equal ratios.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testExponential(
+    final FxRobot robot)
+  {
+    robot.interact(() -> this.dial0.setRawValue(0.1));
+
+    final var smoother =
+      this.smoother(robot, DialSmoothingCurve.EXPONENTIAL, 3);
+    final var outputs = new double[2][4];
+
+    robot.interact(() -> this.dial0.setRawValue(0.8));
+    smoother.process(outputs, 4);
+
+    assertEquals(0.2, outputs[0][0], 1.0e-9);
+    assertEquals(0.4, outputs[0][1], 1.0e-9);
+    assertEquals(0.8, outputs[0][2]);
+    assertEquals(0.8, outputs[0][3]);
+
+    /*
+     * Ramps to zero are linear.
+     */
+
+    robot.interact(() -> this.dial0.setRawValue(0.0));
+    smoother.process(outputs, 4);
+
+    assertEquals(0.8 * 2.0 / 3.0, outputs[0][0], 1.0e-9);
+    assertEquals(0.0, outputs[0][2]);
+  }
+
+  /**
+   * One-pole ramps approach the target, are within a thousandth of the
+   * distance after the ramp length, and eventually settle.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testOnePole(
+    final FxRobot robot)
+  {
+    final var smoother =
+      this.smoother(robot, DialSmoothingCurve.ONE_POLE, 10);
+    final var outputs = new float[2][10];
+
+    robot.interact(() -> this.dial1.setRawValue(1.0));
+    smoother.process(outputs, 10);
+
+    for (int index = 1; index < 10; ++index) {
+      assertTrue(outputs[1][index - 1] < outputs[1][index]);
+    }
+    assertEquals(0.999, outputs[1][9], 1.0e-6);
+    assertTrue(smoother.isRamping(1));
+
+    final var more = new float[2][1000];
+    smoother.process(more, 1000);
+    assertEquals(1.0f, more[1][999]);
+    assertFalse(smoother.isRamping(1));
+  }
+
+  /**
+   * Producing blocks does not allocate.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testNoAllocation(
+    final FxRobot robot)
+  {
+    final var smoother =
+      this.smoother(robot, DialSmoothingCurve.EXPONENTIAL, 512);
+    final var outputs = new double[2][256];
+
+    robot.interact(() -> {
+      this.dial0.setRawValue(0.5);
+      this.dial1.setRawValue(0.25);
+    });
+
+    for (int index = 0; index < 10_000; ++index) {
+      smoother.process(outputs, 256);
+    }
+
+    robot.interact(() -> {
+      this.dial0.setRawValue(1.0);
+      this.dial1.setRawValue(0.75);
+    });
+
+    final var before = THREADS.getCurrentThreadAllocatedBytes();
+    for (int index = 0; index < 1000; ++index) {
+      smoother.process(outputs, 256);
+    }
+    final var allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+    assertEquals(0L, allocated);
+    assertEquals(1.0, smoother.current(0));
+    assertEquals(0.75, smoother.current(1));
+  }
+
+  /**
+   * Invalid arguments are rejected.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testInvalid(
+    final FxRobot robot)
+  {
+    final var smoother = this.smoother(robot, DialSmoothingCurve.LINEAR, 4);
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      smoother.process(new double[1][4], 4);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      smoother.process(new double[2][2], 4);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      this.smoother(robot, DialSmoothingCurve.LINEAR, 0);
+    });
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial0 = new DialControl();
+    this.dial1 = new DialControl();
+    stage.setScene(new Scene(new HBox(this.dial0, this.dial1)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialSnapshotGroup;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import com.io7m.digal.model.DialModelChange;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialSnapshotGroupTest
+{
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static final int STEPS = 100_000;
+  private static final double STEP_GAP = 1.1 / (double) STEPS;
+
+  private DialControl dial0;
+  private DialControl dial1;
+
+  /**
+   * Snapshots contain the current converted values of the dials.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testValues(
+    final FxRobot robot)
+  {
+    final var group = new DialSnapshotGroup[1];
+    final var output = new double[2];
+
+    robot.interact(() -> {
+      this.dial1.setValueConverter(new DialBoundedLongConverter(0L, 100L, 1L));
+      this.dial1.setRawValue(0.25);
+      group[0] = DialSnapshotGroup.create(
+        List.of(this.dial0, this.dial1),
+        DialModelChange.EXTERNAL_VALUE_CONVERTED);
+    });
+
+    assertEquals(2, group[0].size());
+    assertEquals(0L, group[0].read(output));
+    assertArrayEquals(new double[]{0.0, 25.0}, output);
+
+    robot.interact(() -> {
+      this.dial0.setRawValue(0.5);
+      this.dial1.setRawValue(0.75);
+    });
+
+    assertEquals(2L, group[0].read(output));
+    assertArrayEquals(new double[]{0.5, 75.0}, output);
+    assertEquals(2L, group[0].read(output));
+
+    robot.interact(() -> {
+      group[0].close();
+      this.dial0.setRawValue(1.0);
+    });
+
+    assertEquals(2L, group[0].read(output));
+    assertArrayEquals(new double[]{0.5, 75.0}, output);
+  }
+
+  /**
+   * Output arrays must be large enough.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testOutputTooSmall(
+    final FxRobot robot)
+  {
+    final var group = new DialSnapshotGroup[1];
+    robot.interact(() -> {
+      group[0] = DialSnapshotGroup.create(
+        List.of(this.dial0, this.dial1), DialModelChange.EXTERNAL_VALUE);
+    });
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      group[0].read(new double[1]);
+    });
+  }
+
+  /**
+   * A reader on another thread only ever sees complete snapshots, in
+   * order, and reading does not allocate.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testConcurrentReader(
+    final FxRobot robot)
+    throws Exception
+  {
+    final var group = new DialSnapshotGroup[1];
+    robot.interact(() -> {
+      group[0] = DialSnapshotGroup.create(
+        List.of(this.dial0, this.dial1), DialModelChange.EXTERNAL_VALUE);
+    });
+
+    final var done = new AtomicBoolean();
+    final var failure = new AtomicReference<String>();
+    final var allocated = new long[1];
+
+    final var reader = new Thread(() -> {
+      final var output = new double[2];
+      long versionThen = 0L;
+      for (int index = 0; index < 10_000; ++index) {
+        group[0].read(output);
+      }
+
+      final var before = THREADS.getCurrentThreadAllocatedBytes();
+      while (!done.get()) {
+        final var versionNow = group[0].read(output);
+
+        /*
+         * The writer always moves dial 0 first, so a complete snapshot has
+         * dial 0 at most one step ahead of dial 1.
+         */
+
+        final var gap = output[0] - output[1];
+        if (versionNow < versionThen || gap < 0.0 || gap > STEP_GAP) {
+          failure.compareAndSet(null, "Torn or stale snapshot");
+        }
+        versionThen = versionNow;
+      }
+      allocated[0] = THREADS.getCurrentThreadAllocatedBytes() - before;
+    });
+    reader.start();
+
+    robot.interact(() -> {
+      for (int index = 1; index <= STEPS; ++index) {
+        final var value = (double) index / (double) STEPS;
+        this.dial0.setRawValue(value);
+        this.dial1.setRawValue(value);
+      }
+    });
+
+    done.set(true);
+    reader.join();
+
+    assertNull(failure.get());
+    assertEquals(0L, allocated[0]);
+
+    final var output = new double[2];
+    assertEquals(STEPS * 2L, group[0].read(output));
+    assertArrayEquals(new double[]{1.0, 1.0}, output);
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial0 = new DialControl();
+    this.dial1 = new DialControl();
+    stage.setScene(new Scene(new HBox(this.dial0, this.dial1)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
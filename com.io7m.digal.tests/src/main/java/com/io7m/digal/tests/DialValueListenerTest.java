@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialValueListenerType;
+import com.io7m.digal.model.DialBoundedLongConverter;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.io7m.digal.model.DialModelChange.EXTERNAL_VALUE;
+import static com.io7m.digal.model.DialModelChange.EXTERNAL_VALUE_CONVERTED;
+import static com.io7m.digal.model.DialModelChange.VALUE;
+import static com.io7m.digal.model.DialModelChange.VALUE_CONVERTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialValueListenerTest
+{
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private DialControl dial;
+
+  /**
+   * Primitive listeners observe each of the four values, and discrete
+   * listeners only observe whole changes to converted values.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testListeners(
+    final FxRobot robot)
+  {
+    final var events = new ArrayList<String>();
+
+    robot.interact(() -> {
+      this.dial.setValueConverter(new DialBoundedLongConverter(0L, 10L, 1L));
+
+      this.dial.addValueListener(EXTERNAL_VALUE, (d, x, y) -> {
+        events.add("raw %s %s".formatted(x, y));
+      });
+      this.dial.addValueListener(VALUE, (d, x, y) -> {
+        events.add("internal %s %s".formatted(x, y));
+      });
+      this.dial.addDiscreteValueListener(EXTERNAL_VALUE_CONVERTED, (d, x, y) -> {
+        events.add("converted %d %d".formatted(x, y));
+      });
+
+      this.dial.setRawValueQuietly(0.5);
+      this.dial.setRawValue(0.52);
+      this.dial.setRawValue(1.0);
+    });
+
+    assertEquals(
+      List.of(
+        "internal 0.0 0.5",
+        "internal 0.5 0.52",
+        "converted 0 5",
+        "raw 0.0 0.52",
+        "internal 0.52 1.0",
+        "converted 5 10",
+        "raw 0.52 1.0"
+      ),
+      events
+    );
+  }
+
+  /**
+   * Removed listeners are not notified, and discrete listeners cannot be
+   * added for raw values.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testRemove(
+    final FxRobot robot)
+  {
+    final var calls = new int[1];
+    final DialValueListenerType listener = (d, x, y) -> ++calls[0];
+
+    robot.interact(() -> {
+      this.dial.addValueListener(VALUE_CONVERTED, listener);
+      this.dial.setRawValue(0.25);
+      this.dial.removeValueListener(VALUE_CONVERTED, listener);
+      this.dial.setRawValue(0.75);
+    });
+
+    assertEquals(1, calls[0]);
+    assertThrows(IllegalArgumentException.class, () -> {
+      this.dial.addDiscreteValueListener(VALUE, (d, x, y) -> { });
+    });
+  }
+
+  /**
+   * Notifying primitive listeners does not allocate.
+   *
+   * @param robot The FX robot
+   */
+
+  @Test
+  public void testNoAllocation(
+    final FxRobot robot)
+  {
+    final var sum = new double[1];
+    final var allocated = new long[1];
+
+    robot.interact(() -> {
+      final var detached = new DialControl();
+      detached.addValueListener(EXTERNAL_VALUE, (d, x, y) -> sum[0] += y);
+      detached.addValueListener(VALUE_CONVERTED, (d, x, y) -> sum[0] += y);
+
+      for (int index = 0; index < 20_000; ++index) {
+        detached.setRawValue((double) (index % 100) / 100.0);
+      }
+
+      final var before = THREADS.getCurrentThreadAllocatedBytes();
+      for (int index = 0; index < 10_000; ++index) {
+        detached.setRawValue((double) (index % 100) / 100.0);
+      }
+      allocated[0] = THREADS.getCurrentThreadAllocatedBytes() - before;
+    });
+
+    assertEquals(0L, allocated[0]);
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.dial = new DialControl();
+    stage.setScene(new Scene(new StackPane(this.dial)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}
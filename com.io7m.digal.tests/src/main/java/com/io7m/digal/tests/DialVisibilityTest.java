@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.digal.tests;
+
+import com.io7m.digal.core.DialControl;
+import com.io7m.digal.core.DialMetrics;
+import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.framework.junit5.Stop;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(ApplicationExtension.class)
+public final class DialVisibilityTest
+{
+  private DialMetrics metrics;
+  private StackPane hidden;
+  private DialControl hiddenDial;
+  private ScrollPane scroll;
+  private DialControl scrolledDial;
+
+  /**
+   * Dials with invisible ancestors are not redrawn, but their values stay
+   * current, and they are redrawn once when they become visible.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testInvisible(
+    final FxRobot robot)
+    throws Exception
+  {
+    robot.interact(() -> this.hidden.setVisible(false));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    final var redrawsBefore = this.metrics.getRedrawsTotal();
+    for (int index = 0; index <= 20; ++index) {
+      final var value = (double) index / 20.0;
+      robot.interact(() -> this.hiddenDial.setRawValue(value));
+    }
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals(1.0, this.hiddenDial.rawValue().get());
+    assertEquals(redrawsBefore, this.metrics.getRedrawsTotal());
+
+    robot.interact(() -> this.hidden.setVisible(true));
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.metrics.getRedrawsTotal() > redrawsBefore;
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+    assertEquals(redrawsBefore + 1L, this.metrics.getRedrawsTotal());
+  }
+
+  /**
+   * Dials scrolled out of a scroll pane's viewport are not redrawn until
+   * they are scrolled back into view.
+   *
+   * @param robot The FX robot
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testScrolledOut(
+    final FxRobot robot)
+    throws Exception
+  {
+    robot.interact(() -> this.scroll.setVvalue(0.0));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    final var redrawsBefore = this.metrics.getRedrawsTotal();
+    for (int index = 0; index <= 20; ++index) {
+      final var value = (double) index / 20.0;
+      robot.interact(() -> this.scrolledDial.setRawValue(value));
+    }
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals(1.0, this.scrolledDial.rawValue().get());
+    assertEquals(redrawsBefore, this.metrics.getRedrawsTotal());
+
+    robot.interact(() -> this.scroll.setVvalue(1.0));
+    WaitForAsyncUtils.waitFor(5L, TimeUnit.SECONDS, () -> {
+      return this.metrics.getRedrawsTotal() > redrawsBefore;
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+    assertEquals(redrawsBefore + 1L, this.metrics.getRedrawsTotal());
+  }
+
+  @Start
+  public void start(
+    final Stage stage)
+    throws Exception
+  {
+    this.metrics = DialMetrics.enable();
+
+    this.hiddenDial = new DialControl();
+    this.hidden = new StackPane(this.hiddenDial);
+
+    final var spacer = new Region();
+    spacer.setMinHeight(2000.0);
+    this.scrolledDial = new DialControl();
+    this.scroll = new ScrollPane(new VBox(spacer, this.scrolledDial));
+    this.scroll.setPrefSize(200.0, 200.0);
+
+    stage.setScene(new Scene(new VBox(this.hidden, this.scroll)));
+    stage.show();
+  }
+
+  @Stop
+  public void stop()
+    throws Exception
+  {
+
+  }
+}